@@ -0,0 +1,87 @@
+package com.ashok.kalaha.benchmark;
+
+import static com.ashok.kalaha.engine.KalahaBoard.*;
+
+import com.ashok.kalaha.engine.BatchSowing;
+import com.ashok.kalaha.engine.BoardBatch;
+import com.ashok.kalaha.engine.ScalarBatchSowing;
+import com.ashok.kalaha.engine.VectorBatchSowing;
+import java.util.SplittableRandom;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Sows one move on each of {@link #BOARDS} positions taken from random games, reported per board.
+ * {@code board} sows {@code int[14]} boards one after the other with {@link
+ * com.ashok.kalaha.engine.KalahaBoard#sow}, {@code scalar} and {@code vector} sow a {@link
+ * BoardBatch}.
+ */
+@State(Scope.Thread)
+@OperationsPerInvocation(BatchSowingBenchmark.BOARDS)
+public class BatchSowingBenchmark {
+  static final int BOARDS = 4096;
+
+  @Param({"4", "6", "10"})
+  int stones;
+
+  @Param({"board", "scalar", "vector"})
+  String engine;
+
+  private BatchSowing batchSowing;
+  private final BoardBatch positions = new BoardBatch(BOARDS);
+  private final BoardBatch batch = new BoardBatch(BOARDS);
+  private final int[][] positionBoards = new int[BOARDS][];
+  private final int[][] boards = new int[BOARDS][TOTAL_PITS];
+
+  @Setup
+  public void setup() {
+    batchSowing = engine.equals("vector") ? new VectorBatchSowing() : new ScalarBatchSowing();
+
+    var random = new SplittableRandom(42);
+    for (int index = 0; index < BOARDS; ) {
+      int[] board = newBoard(stones);
+      int player = PLAYER_ONE;
+      int plies = random.nextInt(30);
+      for (int ply = 0; ply < plies && !isGameOver(board); ply++)
+        if ((sow(board, player, randomMove(random, board, player)) & EXTRA_TURN) == 0)
+          player = opponent(player);
+      if (isGameOver(board)) continue;
+
+      positionBoards[index] = board;
+      positions.setBoard(index, board, player);
+      positions.setMove(index, randomMove(random, board, player));
+      index++;
+    }
+    positions.setSize(BOARDS);
+  }
+
+  @Benchmark
+  public int reset() {
+    if (engine.equals("board")) {
+      for (int index = 0; index < BOARDS; index++)
+        System.arraycopy(positionBoards[index], 0, boards[index], 0, TOTAL_PITS);
+      return boards[BOARDS - 1][0];
+    }
+    batch.copyFrom(positions);
+    return batch.size();
+  }
+
+  @Benchmark
+  public int sowMove() {
+    reset();
+    if (engine.equals("board")) {
+      int results = 0;
+      for (int index = 0; index < BOARDS; index++)
+        results += sow(boards[index], positions.player(index), positions.move(index));
+      return results;
+    }
+    batchSowing.sow(batch);
+    return batch.result(BOARDS - 1);
+  }
+
+  private static int randomMove(SplittableRandom random, int[] board, int player) {
+    int pit;
+    do pit = firstPit(player) + random.nextInt(PITS_PER_SIDE);
+    while (board[pit] == 0);
+    return pit;
+  }
+}
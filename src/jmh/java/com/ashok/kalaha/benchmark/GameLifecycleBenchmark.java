@@ -0,0 +1,40 @@
+package com.ashok.kalaha.benchmark;
+
+import com.ashok.kalaha.model.Game;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Thread)
+public class GameLifecycleBenchmark {
+
+  @Param({"4", "6", "10"})
+  int stones;
+
+  private ObjectMapper objectMapper;
+  private Game game;
+  private byte[] json;
+
+  @Setup
+  public void setup() throws IOException {
+    objectMapper = new ObjectMapper().findAndRegisterModules();
+    game = new Game(stones, 2);
+    game.setGameId("6532b7a7715cf22387936b88");
+    json = objectMapper.writeValueAsBytes(game);
+  }
+
+  @Benchmark
+  public Game createGame() {
+    return new Game(stones, 2);
+  }
+
+  @Benchmark
+  public byte[] serializeGame() throws IOException {
+    return objectMapper.writeValueAsBytes(game);
+  }
+
+  @Benchmark
+  public Game deserializeGame() throws IOException {
+    return objectMapper.readValue(json, Game.class);
+  }
+}
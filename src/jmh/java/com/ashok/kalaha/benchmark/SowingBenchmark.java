@@ -0,0 +1,74 @@
+package com.ashok.kalaha.benchmark;
+
+import com.ashok.kalaha.api.SowingService;
+import com.ashok.kalaha.model.Game;
+import com.ashok.kalaha.model.GameStatus;
+import com.ashok.kalaha.model.Pit;
+import com.ashok.kalaha.model.PlayerTurn;
+import com.ashok.kalaha.service.ArrayBoardSowingService;
+import com.ashok.kalaha.service.TwoPlayerSowingService;
+import java.util.List;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Thread)
+public class SowingBenchmark {
+
+  @Param({"4", "6", "10"})
+  int stones;
+
+  @Param({"list", "array"})
+  String engine;
+
+  private SowingService sowingService;
+  private Game game;
+  private int[] openingBoard;
+  private int[] captureBoard;
+  private int[] endGameBoard;
+
+  @Setup
+  public void setup() {
+    sowingService =
+        engine.equals("array") ? new ArrayBoardSowingService() : new TwoPlayerSowingService();
+    game = new Game(stones);
+
+    openingBoard = new int[] {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
+    for (int pit = 0; pit < 14; pit++) if (pit != 6 && pit != 13) openingBoard[pit] = stones;
+
+    captureBoard = openingBoard.clone();
+    captureBoard[0] = 1;
+    captureBoard[1] = 0;
+
+    endGameBoard = new int[] {0, 0, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0};
+    endGameBoard[6] = 6 * stones - 1;
+    for (int pit = 7; pit < 13; pit++) endGameBoard[pit] = stones;
+  }
+
+  @Benchmark
+  public Game reset() {
+    return resetGame(openingBoard);
+  }
+
+  @Benchmark
+  public Game openingMove() {
+    return sowingService.sow(resetGame(openingBoard), 3);
+  }
+
+  @Benchmark
+  public Game captureMove() {
+    return sowingService.sow(resetGame(captureBoard), 1);
+  }
+
+  @Benchmark
+  public Game endGameMove() {
+    return sowingService.sow(resetGame(endGameBoard), 6);
+  }
+
+  private Game resetGame(int[] board) {
+    List<Pit> pits = game.getPits();
+    for (int pit = 0; pit < board.length; pit++) pits.get(pit).setStones(board[pit]);
+    game.setPlayerTurn(PlayerTurn.PLAYER_ONE_TURN);
+    game.setGameStatus(GameStatus.IN_PROGRESS);
+    game.setWinner(null);
+    return game;
+  }
+}
@@ -0,0 +1,60 @@
+package com.ashok.kalaha.benchmark;
+
+import com.ashok.kalaha.model.Game;
+import com.ashok.kalaha.model.GameStatus;
+import com.ashok.kalaha.model.PlayerTurn;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import java.io.IOException;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Thread)
+public class WireFormatBenchmark {
+
+  @Param({"json", "cbor"})
+  String format;
+
+  @Param({"6", "100"})
+  int stones;
+
+  private ObjectMapper objectMapper;
+  private Game game;
+  private byte[] payload;
+
+  @Setup
+  public void setup() throws IOException {
+    objectMapper =
+        format.equals("cbor")
+            ? new CBORMapper().findAndRegisterModules()
+            : new ObjectMapper().findAndRegisterModules();
+
+    game = new Game(stones, 2);
+    game.setGameId("6532b7a7715cf22387936b88");
+    game.setPlayerTurn(PlayerTurn.PLAYER_TWO_TURN);
+    game.setGameStatus(GameStatus.IN_PROGRESS);
+    game.setRevision(42L);
+    payload = objectMapper.writeValueAsBytes(game);
+  }
+
+  @Benchmark
+  public byte[] serialize(PayloadSize payloadSize) throws IOException {
+    return objectMapper.writeValueAsBytes(game);
+  }
+
+  @Benchmark
+  public Game deserialize(PayloadSize payloadSize) throws IOException {
+    return objectMapper.readValue(payload, Game.class);
+  }
+
+  /** Reports the bytes of the payload next to the timings, as the {@code bytes} counter. */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class PayloadSize {
+    public long bytes;
+
+    @Setup(Level.Iteration)
+    public void setup(WireFormatBenchmark benchmark) {
+      bytes = benchmark.payload.length;
+    }
+  }
+}
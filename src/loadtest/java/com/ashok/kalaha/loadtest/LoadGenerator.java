@@ -0,0 +1,163 @@
+package com.ashok.kalaha.loadtest;
+
+import static com.ashok.kalaha.engine.KalahaBoard.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives a running instance the way players do. Each of {@code concurrency} virtual threads
+ * creates a game and plays random legal moves, picked from the board of the last response, until
+ * the game is over, then starts the next game. The run ends after {@code duration} or once {@code
+ * games} games were created. Latencies are reported per request kind every {@code
+ * report-interval}, and for the whole run at the end.
+ *
+ * <p>Every worker waits for its response before sending the next request, so latencies of a
+ * stalled server are under reported (coordinated omission). Compare runs with the same
+ * concurrency.
+ */
+public class LoadGenerator {
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final LoadTestOptions options;
+  private final HttpClient httpClient;
+  private final OperationStats createStats = new OperationStats("create");
+  private final OperationStats moveStats = new OperationStats("move");
+  private final OperationStats loadStats = new OperationStats("load");
+  private final AtomicLong startedGames = new AtomicLong();
+  private final AtomicLong createdGames = new AtomicLong();
+  private final AtomicLong completedGames = new AtomicLong();
+  private volatile long deadlineNanos;
+
+  public LoadGenerator(LoadTestOptions options) {
+    this.options = options;
+    this.httpClient =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(options.requestTimeout())
+            .build();
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    new LoadGenerator(LoadTestOptions.parse(args)).run();
+  }
+
+  public void run() throws InterruptedException {
+    System.out.println("load test against " + options.baseUrl() + " with " + options);
+    long start = System.nanoTime();
+    deadlineNanos = start + options.duration().toNanos();
+
+    List<OperationStats> stats = List.of(createStats, moveStats, loadStats);
+    try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int worker = 0; worker < options.concurrency(); worker++) workers.submit(this::play);
+      workers.shutdown();
+
+      long lastReport = start;
+      long reportInterval = options.reportInterval().toNanos();
+      while (!workers.awaitTermination(reportInterval, TimeUnit.NANOSECONDS)) {
+        long now = System.nanoTime();
+        OperationStats.printHeader(System.out);
+        for (OperationStats operationStats : stats)
+          operationStats.reportInterval(System.out, (now - lastReport) / 1e9);
+        lastReport = now;
+      }
+    }
+
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf(
+        "%nsummary: %d games created, %d completed in %.1f s%n",
+        createdGames.get(), completedGames.get(), seconds);
+    OperationStats.printHeader(System.out);
+    for (OperationStats operationStats : stats) operationStats.reportTotal(System.out, seconds);
+  }
+
+  private void play() {
+    while (System.nanoTime() < deadlineNanos
+        && startedGames.getAndIncrement() < options.games()) {
+      try {
+        JsonNode game = send(createStats, "POST", "/v1/api/games?stones=" + options.stones());
+        if (game == null) continue;
+        createdGames.incrementAndGet();
+        String gameId = game.get("gameId").asText();
+
+        while (game != null && !isOver(game) && System.nanoTime() < deadlineNanos) {
+          int pitId = pickMove(game);
+          game = send(moveStats, "PUT", "/v1/api/games/" + gameId + "/pits/" + pitId);
+          if (game == null) game = send(loadStats, "GET", "/v1/api/games/" + gameId);
+        }
+        if (game != null && isOver(game)) completedGames.incrementAndGet();
+      } catch (IOException e) {
+        System.err.println("could not read response: " + e.getMessage());
+      } catch (RuntimeException e) {
+        // a board without a legal move or an unexpected response ends the game, not the worker
+        moveStats.error();
+        System.err.println("could not play game: " + e);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  /** Sends a request and returns the game of a successful response, or null for an error. */
+  private JsonNode send(OperationStats stats, String method, String path)
+      throws IOException, InterruptedException {
+    HttpRequest request =
+        HttpRequest.newBuilder(URI.create(options.baseUrl() + path))
+            .method(method, HttpRequest.BodyPublishers.noBody())
+            .header("Accept", "application/json")
+            .timeout(options.requestTimeout())
+            .build();
+
+    long start = System.nanoTime();
+    HttpResponse<byte[]> response;
+    try {
+      response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    } catch (IOException e) {
+      stats.error();
+      return null;
+    }
+    stats.record(System.nanoTime() - start);
+
+    if (response.statusCode() != 200) {
+      stats.error();
+      return null;
+    }
+    return objectMapper.readTree(response.body());
+  }
+
+  private static boolean isOver(JsonNode game) {
+    String gameStatus = game.path("gameStatus").asText();
+    return !gameStatus.equals("CREATED") && !gameStatus.equals("IN_PROGRESS");
+  }
+
+  /** Picks a random legal pit of the player to move, or of either player before the first move. */
+  static int pickMove(JsonNode game) {
+    int[] board = new int[TOTAL_PITS];
+    for (JsonNode pit : game.get("pits"))
+      board[pit.get("pitId").asInt() - 1] = pit.get("stones").asInt();
+
+    String playerTurn = game.path("playerTurn").asText(null);
+    List<Integer> legalPits = new ArrayList<>(PITS_PER_SIDE * 2);
+    for (int pit = 0; pit < TOTAL_PITS; pit++) {
+      boolean isPlayersPit =
+          playerTurn == null
+              || ownerOf(pit) == (playerTurn.equals("PLAYER_ONE_TURN") ? PLAYER_ONE : PLAYER_TWO);
+      if (isPlayersPit && isLegalMove(board, ownerOf(pit), pit)) legalPits.add(pit + 1);
+    }
+    if (legalPits.isEmpty()) throw new IllegalStateException("no legal move on board: " + game);
+    return legalPits.get(ThreadLocalRandom.current().nextInt(legalPits.size()));
+  }
+}
@@ -0,0 +1,53 @@
+package com.ashok.kalaha.loadtest;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Options of a load test run, given as {@code --name=value} arguments. Durations take the same
+ * {@code 30s}, {@code 5m} or ISO-8601 values as the application properties.
+ */
+public record LoadTestOptions(
+    URI baseUrl,
+    int concurrency,
+    long games,
+    Duration duration,
+    Duration reportInterval,
+    int stones,
+    Duration requestTimeout) {
+
+  public static LoadTestOptions parse(String... args) {
+    Map<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      if (!arg.startsWith("--") || !arg.contains("="))
+        throw new IllegalArgumentException("expected --name=value but got: " + arg);
+      options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+    }
+
+    return new LoadTestOptions(
+        URI.create(options.getOrDefault("base-url", "http://localhost:8080")),
+        Integer.parseInt(options.getOrDefault("concurrency", "16")),
+        Long.parseLong(options.getOrDefault("games", String.valueOf(Long.MAX_VALUE))),
+        duration(options.getOrDefault("duration", "1m")),
+        duration(options.getOrDefault("report-interval", "10s")),
+        Integer.parseInt(options.getOrDefault("stones", "6")),
+        duration(options.getOrDefault("request-timeout", "5s")));
+  }
+
+  private static Duration duration(String value) {
+    if (value.startsWith("P") || value.startsWith("p")) return Duration.parse(value);
+    if (value.endsWith("ms")) return Duration.ofMillis(number(value, 2));
+    return switch (value.charAt(value.length() - 1)) {
+      case 's' -> Duration.ofSeconds(number(value, 1));
+      case 'm' -> Duration.ofMinutes(number(value, 1));
+      case 'h' -> Duration.ofHours(number(value, 1));
+      default -> Duration.ofMillis(Long.parseLong(value));
+    };
+  }
+
+  private static long number(String value, int unitLength) {
+    return Long.parseLong(value.substring(0, value.length() - unitLength));
+  }
+}
@@ -0,0 +1,73 @@
+package com.ashok.kalaha.loadtest;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latencies and errors of one kind of request. Workers record into a {@link Recorder} without
+ * locking, every report takes the interval histogram out of it and adds it to the run's total.
+ */
+final class OperationStats {
+  private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+  private final String name;
+  private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+  private final Histogram total = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+  private final LongAdder errors = new LongAdder();
+  private long totalErrors;
+  private Histogram interval;
+
+  OperationStats(String name) {
+    this.name = name;
+  }
+
+  void record(long nanos) {
+    recorder.recordValue(Math.min(nanos, HIGHEST_TRACKABLE_NANOS));
+  }
+
+  void error() {
+    errors.increment();
+  }
+
+  /** Prints the requests since the last report, and keeps them for the final summary. */
+  synchronized void reportInterval(PrintStream out, double seconds) {
+    interval = recorder.getIntervalHistogram(interval);
+    total.add(interval);
+    long intervalErrors = errors.sumThenReset();
+    totalErrors += intervalErrors;
+    print(out, interval, seconds, intervalErrors);
+  }
+
+  synchronized void reportTotal(PrintStream out, double seconds) {
+    total.add(recorder.getIntervalHistogram());
+    totalErrors += errors.sumThenReset();
+    print(out, total, seconds, totalErrors);
+  }
+
+  static void printHeader(PrintStream out) {
+    out.printf(
+        "%-8s %10s %10s %9s %9s %9s %9s %9s %9s%n",
+        "request", "count", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+  }
+
+  private void print(PrintStream out, Histogram histogram, double seconds, long errors) {
+    out.printf(
+        "%-8s %10d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9d%n",
+        name,
+        histogram.getTotalCount(),
+        histogram.getTotalCount() / seconds,
+        millis(histogram.getValueAtPercentile(50)),
+        millis(histogram.getValueAtPercentile(90)),
+        millis(histogram.getValueAtPercentile(99)),
+        millis(histogram.getValueAtPercentile(99.9)),
+        millis(histogram.getMaxValue()),
+        errors);
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1_000_000.0;
+  }
+}
@@ -1,11 +1,14 @@
 package com.ashok.kalaha;
 
+import com.ashok.kalaha.config.KalahaProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 
 @SpringBootApplication
 @EnableMongoRepositories
+@EnableConfigurationProperties(KalahaProperties.class)
 public class KalahaApplication {
   public static void main(String[] args) {
     SpringApplication.run(KalahaApplication.class, args);
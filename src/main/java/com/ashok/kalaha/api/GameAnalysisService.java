@@ -0,0 +1,8 @@
+package com.ashok.kalaha.api;
+
+import com.ashok.kalaha.dto.GameAnalysis;
+import com.ashok.kalaha.model.Game;
+
+public interface GameAnalysisService {
+  GameAnalysis analyse(Game game, boolean withBaseline);
+}
@@ -0,0 +1,10 @@
+package com.ashok.kalaha.api;
+
+import com.ashok.kalaha.dto.GameDelta;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface GameEventService {
+  SseEmitter subscribe(String gameId);
+
+  void publish(GameDelta gameDelta);
+}
@@ -1,11 +1,20 @@
 package com.ashok.kalaha.api;
 
 import com.ashok.kalaha.model.Game;
+import java.util.List;
 
 public interface GameService {
   Game createGame(int stones, int numOfPlayers);
 
+  List<String> createGames(List<Integer> stonesPerGame, int numOfPlayers);
+
   Game loadGame(String gameId);
 
   Game updateGame(Game game);
+
+  Game saveGame(Game game, long storedRevision);
+
+  Game sowAndUpdate(Game game, int pitId, SowingService sowingService);
+
+  void evictGame(String gameId);
 }
@@ -0,0 +1,17 @@
+package com.ashok.kalaha.api;
+
+import com.ashok.kalaha.model.Game;
+import com.ashok.kalaha.model.MoveEvent;
+import java.util.List;
+
+public interface MoveLogService {
+  /**
+   * Records the moves sown in one update of the game, {@code seq} is the revision they were played
+   * on plus one. Called only once the update is written.
+   */
+  void record(Game playedGame, long seq, List<Integer> pitIds, int[] previousStones);
+
+  List<MoveEvent> loadMoves(String gameId);
+
+  Game rebuildGame(String gameId, long seq);
+}
@@ -0,0 +1,8 @@
+package com.ashok.kalaha.api;
+
+import com.ashok.kalaha.dto.MoveHint;
+import com.ashok.kalaha.model.Game;
+
+public interface MoveSearchService {
+  MoveHint suggestMove(Game game);
+}
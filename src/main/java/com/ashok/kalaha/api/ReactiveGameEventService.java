@@ -0,0 +1,12 @@
+package com.ashok.kalaha.api;
+
+import com.ashok.kalaha.dto.GameDelta;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveGameEventService {
+  Flux<ServerSentEvent<GameDelta>> subscribe(String gameId);
+
+  Mono<Void> publish(GameDelta gameDelta);
+}
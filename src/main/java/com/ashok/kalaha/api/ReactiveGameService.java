@@ -0,0 +1,16 @@
+package com.ashok.kalaha.api;
+
+import com.ashok.kalaha.model.Game;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveGameService {
+  Mono<Game> createGame(int stones, int numOfPlayers);
+
+  Mono<Game> loadGame(String gameId);
+
+  Mono<Game> updateGame(Game game);
+
+  Mono<Game> sowAndUpdate(Game game, int pitId, SowingService sowingService);
+
+  Mono<Void> evictGame(String gameId);
+}
@@ -0,0 +1,151 @@
+package com.ashok.kalaha.archive;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import com.ashok.kalaha.api.GameService;
+import com.ashok.kalaha.config.KalahaProperties;
+import com.ashok.kalaha.model.ArchivedGame;
+import com.ashok.kalaha.model.Game;
+import com.ashok.kalaha.model.GameStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the games collection down to the games being played. Completed and abandoned games not
+ * written for {@code completed-retention} and unfinished games not written for {@code
+ * abandoned-after} are moved, in batches over the {@code gameStatus, updatedAt} index, into the
+ * archivedGames collection as {@link ArchivedGame} without their pits, where they expire after
+ * {@code time-to-live} if set. A game played between its upsert into the archive and the guarded
+ * remove stays, and its archived copy is deleted again.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "kalaha.archive", name = "enabled", havingValue = "true")
+public class GameArchiver {
+  static final List<GameStatus> FINISHED =
+      List.of(GameStatus.COMPLETED, GameStatus.COMPLETED_DRAW, GameStatus.ABANDONED);
+  static final List<GameStatus> UNFINISHED = List.of(GameStatus.CREATED, GameStatus.IN_PROGRESS);
+
+  private final MongoOperations mongoOperations;
+  private final GameService gameService;
+  private final KalahaProperties.Archive properties;
+  private final ScheduledExecutorService executor =
+      Executors.newSingleThreadScheduledExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "kalaha-archiver");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  public GameArchiver(
+      MongoOperations mongoOperations, GameService gameService, KalahaProperties kalahaProperties) {
+    this.mongoOperations = mongoOperations;
+    this.gameService = gameService;
+    this.properties = kalahaProperties.getArchive();
+  }
+
+  @PostConstruct
+  void start() {
+    mongoOperations
+        .indexOps(Game.class)
+        .ensureIndex(
+            new Index().on("gameStatus", Sort.Direction.ASC).on("updatedAt", Sort.Direction.ASC));
+    if (properties.getTimeToLive() != null)
+      mongoOperations
+          .indexOps(ArchivedGame.class)
+          .ensureIndex(
+              new Index().on("archivedAt", Sort.Direction.ASC).expire(properties.getTimeToLive()));
+    mongoOperations.updateMulti(
+        query(where("updatedAt").exists(false)), new Update().currentDate("updatedAt"), Game.class);
+
+    long interval = properties.getInterval().toMillis();
+    executor.scheduleWithFixedDelay(this::archiveSafely, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    executor.shutdown();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+  }
+
+  /** Archives at most {@code max-batches-per-run} batches of each kind and returns the count. */
+  public long archive() {
+    Instant now = Instant.now();
+    return archive(FINISHED, now.minus(properties.getCompletedRetention()), now)
+        + archive(UNFINISHED, now.minus(properties.getAbandonedAfter()), now);
+  }
+
+  private long archive(List<GameStatus> statuses, Instant updatedBefore, Instant now) {
+    long archivedGames = 0;
+    for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+      List<Game> games =
+          mongoOperations.find(
+              query(where("gameStatus").in(statuses).and("updatedAt").lt(updatedBefore))
+                  .limit(properties.getBatchSize()),
+              Game.class);
+      if (games.isEmpty()) break;
+
+      BulkOperations archive =
+          mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, ArchivedGame.class);
+      for (Game game : games)
+        archive.replaceOne(
+            query(where("gameId").is(game.getGameId())),
+            ArchivedGame.of(game, now),
+            FindAndReplaceOptions.options().upsert());
+      archive.execute();
+
+      List<String> gameIds = games.stream().map(Game::getGameId).toList();
+      long removedGames =
+          mongoOperations
+              .remove(
+                  query(
+                      where("gameId")
+                          .in(gameIds)
+                          .and("gameStatus")
+                          .in(statuses)
+                          .and("updatedAt")
+                          .lt(updatedBefore)),
+                  Game.class)
+              .getDeletedCount();
+      if (removedGames < gameIds.size()) unarchiveKeptGames(gameIds);
+      archivedGames += removedGames;
+      if (statuses == UNFINISHED) gameIds.forEach(gameService::evictGame);
+      if (games.size() < properties.getBatchSize()) break;
+    }
+    return archivedGames;
+  }
+
+  private void unarchiveKeptGames(List<String> gameIds) {
+    Query keptGamesQuery = query(where("gameId").in(gameIds));
+    keptGamesQuery.fields().include("gameId");
+    List<String> keptGameIds =
+        mongoOperations.find(keptGamesQuery, Game.class).stream().map(Game::getGameId).toList();
+    if (!keptGameIds.isEmpty())
+      mongoOperations.remove(query(where("gameId").in(keptGameIds)), ArchivedGame.class);
+  }
+
+  private void archiveSafely() {
+    try {
+      long archivedGames = archive();
+      if (archivedGames > 0) log.info("archived " + archivedGames + " games");
+    } catch (RuntimeException e) {
+      log.error("could not archive games", e);
+    }
+  }
+}
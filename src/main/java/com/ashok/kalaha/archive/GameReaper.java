@@ -0,0 +1,134 @@
+package com.ashok.kalaha.archive;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import com.ashok.kalaha.api.GameService;
+import com.ashok.kalaha.config.KalahaProperties;
+import com.ashok.kalaha.model.Game;
+import com.ashok.kalaha.model.GameStatus;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Marks created and in progress games nobody wrote for {@code idle-timeout} as {@link
+ * GameStatus#ABANDONED}, in batches over the {@code gameStatus, updatedAt} index, and evicts them
+ * from the local and redis caches. The revision is incremented too, so a lane still holding such a
+ * game drops it on its next flush instead of reviving it.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "kalaha.reaper", name = "enabled", havingValue = "true")
+public class GameReaper implements MeterBinder {
+  private final MongoOperations mongoOperations;
+  private final GameService gameService;
+  private final KalahaProperties.Reaper properties;
+  private final AtomicLong abandonedGames = new AtomicLong();
+  private final AtomicLong runs = new AtomicLong();
+  private final ScheduledExecutorService executor =
+      Executors.newSingleThreadScheduledExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "kalaha-reaper");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  public GameReaper(
+      MongoOperations mongoOperations, GameService gameService, KalahaProperties kalahaProperties) {
+    this.mongoOperations = mongoOperations;
+    this.gameService = gameService;
+    this.properties = kalahaProperties.getReaper();
+  }
+
+  @PostConstruct
+  void start() {
+    mongoOperations
+        .indexOps(Game.class)
+        .ensureIndex(
+            new Index().on("gameStatus", Sort.Direction.ASC).on("updatedAt", Sort.Direction.ASC));
+
+    long interval = properties.getInterval().toMillis();
+    executor.scheduleWithFixedDelay(this::reapSafely, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    executor.shutdown();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("kalaha.reaper.abandoned.games", abandonedGames, AtomicLong::get)
+        .description("idle games marked as abandoned")
+        .register(registry);
+    FunctionCounter.builder("kalaha.reaper.runs", runs, AtomicLong::get)
+        .description("runs of the abandoned game reaper")
+        .register(registry);
+  }
+
+  /** Abandons at most {@code max-batches-per-run} batches of idle games and returns the count. */
+  public long reap() {
+    Instant now = Instant.now();
+    Instant idleSince = now.minus(properties.getIdleTimeout());
+    long reapedGames = 0;
+    for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+      Query idleGames =
+          query(where("gameStatus").in(GameArchiver.UNFINISHED).and("updatedAt").lt(idleSince))
+              .limit(properties.getBatchSize());
+      idleGames.fields().include("gameId");
+      List<String> gameIds =
+          mongoOperations.find(idleGames, Game.class).stream().map(Game::getGameId).toList();
+      if (gameIds.isEmpty()) break;
+
+      reapedGames +=
+          mongoOperations
+              .updateMulti(
+                  query(
+                      where("gameId")
+                          .in(gameIds)
+                          .and("gameStatus")
+                          .in(GameArchiver.UNFINISHED)
+                          .and("updatedAt")
+                          .lt(idleSince)),
+                  new Update()
+                      .set("gameStatus", GameStatus.ABANDONED)
+                      .set("updatedAt", now)
+                      .inc("revision", 1),
+                  Game.class)
+              .getModifiedCount();
+      gameIds.forEach(gameService::evictGame);
+      if (gameIds.size() < properties.getBatchSize()) break;
+    }
+
+    abandonedGames.addAndGet(reapedGames);
+    runs.incrementAndGet();
+    return reapedGames;
+  }
+
+  private void reapSafely() {
+    try {
+      long reapedGames = reap();
+      if (reapedGames > 0) log.info("marked " + reapedGames + " idle games as abandoned");
+    } catch (RuntimeException e) {
+      log.error("could not reap idle games", e);
+    }
+  }
+}
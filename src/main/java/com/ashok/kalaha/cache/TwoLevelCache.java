@@ -0,0 +1,119 @@
+package com.ashok.kalaha.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import lombok.Getter;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+/**
+ * Cache with an in-process {@link CaffeineCache} in front of a shared remote cache. Every write
+ * goes to both tiers and is announced through {@code invalidationPublisher}, so other nodes can
+ * drop their local copy. Filling the tiers after a miss, from the remote tier or from {@code
+ * valueLoader}, doesn't change the value and is not announced. Values pass through {@code
+ * valueCopier} on their way in and out of the local tier, callers never share an instance they
+ * may mutate.
+ */
+@Getter
+public class TwoLevelCache implements Cache {
+  public static final String CLEAR_ALL = "*";
+
+  private final String name;
+  private final CaffeineCache localCache;
+  private final Cache remoteCache;
+  private final Consumer<Object> invalidationPublisher;
+  private final UnaryOperator<Object> valueCopier;
+  private final LongAdder remoteReads = new LongAdder();
+  private final LongAdder remoteReadNanos = new LongAdder();
+
+  public TwoLevelCache(
+      String name,
+      CaffeineCache localCache,
+      Cache remoteCache,
+      Consumer<Object> invalidationPublisher,
+      UnaryOperator<Object> valueCopier) {
+    this.name = name;
+    this.localCache = localCache;
+    this.remoteCache = remoteCache;
+    this.invalidationPublisher = invalidationPublisher;
+    this.valueCopier = valueCopier;
+  }
+
+  @Override
+  public Object getNativeCache() {
+    return this;
+  }
+
+  @Override
+  public ValueWrapper get(Object key) {
+    ValueWrapper localValue = localCache.get(key);
+    if (localValue != null) return new SimpleValueWrapper(valueCopier.apply(localValue.get()));
+
+    long start = System.nanoTime();
+    ValueWrapper remoteValue = remoteCache.get(key);
+    remoteReadNanos.add(System.nanoTime() - start);
+    remoteReads.increment();
+    if (remoteValue != null && remoteValue.get() != null)
+      localCache.put(key, valueCopier.apply(remoteValue.get()));
+    return remoteValue;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Class<T> type) {
+    ValueWrapper valueWrapper = get(key);
+    Object value = valueWrapper != null ? valueWrapper.get() : null;
+    if (value != null && type != null && !type.isInstance(value))
+      throw new IllegalStateException(
+          "Cached value is not of required type [" + type.getName() + "]: " + value);
+    return (T) value;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    ValueWrapper valueWrapper = get(key);
+    if (valueWrapper != null) return (T) valueWrapper.get();
+
+    T value;
+    try {
+      value = valueLoader.call();
+    } catch (Exception e) {
+      throw new ValueRetrievalException(key, valueLoader, e);
+    }
+    if (value != null) {
+      remoteCache.put(key, value);
+      localCache.put(key, valueCopier.apply(value));
+    }
+    return value;
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    remoteCache.put(key, value);
+    localCache.put(key, valueCopier.apply(value));
+    invalidationPublisher.accept(key);
+  }
+
+  @Override
+  public void evict(Object key) {
+    remoteCache.evict(key);
+    localCache.evict(key);
+    invalidationPublisher.accept(key);
+  }
+
+  @Override
+  public void clear() {
+    remoteCache.clear();
+    localCache.clear();
+    invalidationPublisher.accept(CLEAR_ALL);
+  }
+
+  public void invalidateLocal(String key) {
+    if (CLEAR_ALL.equals(key)) localCache.clear();
+    else localCache.evict(key);
+  }
+}
@@ -0,0 +1,99 @@
+package com.ashok.kalaha.cache;
+
+import com.ashok.kalaha.config.KalahaProperties;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.AbstractCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Builds {@link TwoLevelCache}s over a remote {@link CacheManager} and keeps the local tiers of all
+ * nodes consistent through a redis pub/sub channel. Messages are {@code nodeId|cacheName|key} and
+ * are ignored by the node that sent them.
+ */
+@Slf4j
+public class TwoLevelCacheManager extends AbstractCacheManager implements MessageListener {
+  private static final String SEPARATOR = "|";
+
+  private final String nodeId = UUID.randomUUID().toString();
+  private final AtomicLong receivedInvalidations = new AtomicLong();
+  private final CacheManager remoteCacheManager;
+  private final StringRedisTemplate redisTemplate;
+  private final KalahaProperties.Cache properties;
+  private final UnaryOperator<Object> valueCopier;
+
+  public TwoLevelCacheManager(
+      CacheManager remoteCacheManager,
+      StringRedisTemplate redisTemplate,
+      KalahaProperties.Cache properties,
+      UnaryOperator<Object> valueCopier) {
+    this.remoteCacheManager = remoteCacheManager;
+    this.redisTemplate = redisTemplate;
+    this.properties = properties;
+    this.valueCopier = valueCopier;
+  }
+
+  @Override
+  protected Collection<? extends Cache> loadCaches() {
+    return properties.getNames().stream().map(this::createCache).toList();
+  }
+
+  @Override
+  protected Cache getMissingCache(String name) {
+    return createCache(name);
+  }
+
+  private TwoLevelCache createCache(String name) {
+    var localCache =
+        new CaffeineCache(
+            name,
+            Caffeine.newBuilder()
+                .maximumSize(properties.getLocalMaximumSize())
+                .expireAfterWrite(properties.getLocalTimeToLive())
+                .recordStats()
+                .build(),
+            false);
+    return new TwoLevelCache(
+        name,
+        localCache,
+        remoteCacheManager.getCache(name),
+        key -> publish(name, key),
+        valueCopier);
+  }
+
+  private void publish(String cacheName, Object key) {
+    redisTemplate.convertAndSend(
+        properties.getInvalidationChannel(), invalidation(nodeId, cacheName, key));
+  }
+
+  /** Message announcing that {@code key} of {@code cacheName} was written by {@code nodeId}. */
+  public static String invalidation(String nodeId, String cacheName, Object key) {
+    return nodeId + SEPARATOR + cacheName + SEPARATOR + key;
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String[] invalidation = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+    if (invalidation.length != 3 || nodeId.equals(invalidation[0])) return;
+
+    if (lookupCache(invalidation[1]) instanceof TwoLevelCache cache) {
+      receivedInvalidations.incrementAndGet();
+      cache.invalidateLocal(invalidation[2]);
+      log.debug("invalidated local cache " + invalidation[1] + " key: " + invalidation[2]);
+    }
+  }
+
+  public long getReceivedInvalidations() {
+    return receivedInvalidations.get();
+  }
+}
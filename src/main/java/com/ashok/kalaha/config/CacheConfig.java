@@ -0,0 +1,110 @@
+package com.ashok.kalaha.config;
+
+import com.ashok.kalaha.cache.TwoLevelCache;
+import com.ashok.kalaha.cache.TwoLevelCacheManager;
+import com.ashok.kalaha.model.Game;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.concurrent.TimeUnit;
+import org.springframework.boot.actuate.metrics.cache.RedisCacheMetrics;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
+@ConditionalOnProperty(prefix = "kalaha.cache", name = "enabled", havingValue = "true")
+public class CacheConfig {
+
+  @Bean
+  public TwoLevelCacheManager cacheManager(
+      RedisConnectionFactory redisConnectionFactory,
+      StringRedisTemplate redisTemplate,
+      ObjectMapper objectMapper,
+      CacheProperties cacheProperties,
+      KalahaProperties kalahaProperties) {
+    CacheProperties.Redis redisProperties = cacheProperties.getRedis();
+    var redisCacheConfiguration =
+        RedisCacheConfiguration.defaultCacheConfig()
+            .serializeValuesWith(
+                SerializationPair.fromSerializer(
+                    new Jackson2JsonRedisSerializer<>(objectMapper, Game.class)));
+    if (redisProperties.getTimeToLive() != null)
+      redisCacheConfiguration = redisCacheConfiguration.entryTtl(redisProperties.getTimeToLive());
+    if (!redisProperties.isCacheNullValues())
+      redisCacheConfiguration = redisCacheConfiguration.disableCachingNullValues();
+    if (!redisProperties.isUseKeyPrefix())
+      redisCacheConfiguration = redisCacheConfiguration.disableKeyPrefix();
+
+    var redisCacheManager =
+        RedisCacheManager.builder(redisConnectionFactory)
+            .cacheDefaults(redisCacheConfiguration)
+            .enableStatistics()
+            .build();
+    redisCacheManager.initializeCaches();
+
+    return new TwoLevelCacheManager(
+        redisCacheManager,
+        redisTemplate,
+        kalahaProperties.getCache(),
+        value -> value instanceof Game game ? new Game(game) : value);
+  }
+
+  @Bean
+  public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+      RedisConnectionFactory redisConnectionFactory,
+      TwoLevelCacheManager cacheManager,
+      KalahaProperties kalahaProperties) {
+    var container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(redisConnectionFactory);
+    container.addMessageListener(
+        cacheManager, new ChannelTopic(kalahaProperties.getCache().getInvalidationChannel()));
+    return container;
+  }
+
+  @Bean
+  public MeterBinder twoLevelCacheMetrics(TwoLevelCacheManager cacheManager) {
+    return registry -> {
+      for (String cacheName : cacheManager.getCacheNames()) {
+        if (!(cacheManager.getCache(cacheName) instanceof TwoLevelCache cache)) continue;
+
+        CaffeineCacheMetrics.monitor(
+            registry, cache.getLocalCache().getNativeCache(), cacheName, Tags.of("tier", "local"));
+        if (cache.getRemoteCache() instanceof RedisCache redisCache)
+          new RedisCacheMetrics(redisCache, Tags.of("tier", "redis")).bindTo(registry);
+        FunctionTimer.builder(
+                "kalaha.cache.remote.reads",
+                cache,
+                twoLevelCache -> twoLevelCache.getRemoteReads().sum(),
+                twoLevelCache -> twoLevelCache.getRemoteReadNanos().sum(),
+                TimeUnit.NANOSECONDS)
+            .description("reads of the remote tier after a local miss")
+            .tag("cache", cacheName)
+            .register(registry);
+      }
+      FunctionCounter.builder(
+              "kalaha.cache.invalidations",
+              cacheManager,
+              TwoLevelCacheManager::getReceivedInvalidations)
+          .description("local cache entries invalidated by updates on other nodes")
+          .register(registry);
+    };
+  }
+}
@@ -0,0 +1,28 @@
+package com.ashok.kalaha.config;
+
+import com.ashok.kalaha.service.SseGameEventService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "kalaha.events", name = "redis-fanout", havingValue = "true")
+public class GameEventConfig {
+
+  @Bean
+  public RedisMessageListenerContainer gameEventListenerContainer(
+      RedisConnectionFactory redisConnectionFactory,
+      SseGameEventService gameEventService,
+      KalahaProperties kalahaProperties) {
+    var container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(redisConnectionFactory);
+    container.addMessageListener(
+        gameEventService, new ChannelTopic(kalahaProperties.getEvents().getChannel()));
+    return container;
+  }
+}
@@ -0,0 +1,137 @@
+package com.ashok.kalaha.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Data
+@ConfigurationProperties(prefix = "kalaha")
+public class KalahaProperties {
+  private int maxUpdateAttempts = 3;
+  private int maxBatchMoves = 500;
+  private int maxBatchGames = 10_000;
+  private int gameInsertBatchSize = 1_000;
+  private MoveMode moveMode = MoveMode.REPLACE;
+  private Cache cache = new Cache();
+  private Events events = new Events();
+  private Threads threads = new Threads();
+  private Lanes lanes = new Lanes();
+  private MoveLog moveLog = new MoveLog();
+  private Archive archive = new Archive();
+  private Reaper reaper = new Reaper();
+  private Metrics metrics = new Metrics();
+  private Tracing tracing = new Tracing();
+  private Search search = new Search();
+  private Analysis analysis = new Analysis();
+  private Tablebase tablebase = new Tablebase();
+
+  public enum MoveMode {
+    REPLACE,
+    ATOMIC
+  }
+
+  @Data
+  public static class Cache {
+    private boolean enabled = false;
+    private List<String> names = List.of("games");
+    private long localMaximumSize = 10_000;
+    private Duration localTimeToLive = Duration.ofMinutes(1);
+    private String invalidationChannel = "kalaha:cache:invalidation";
+  }
+
+  @Data
+  public static class Events {
+    private boolean redisFanout = false;
+    private String channel = "kalaha:game:events";
+    private Duration emitterTimeout = Duration.ofMinutes(30);
+  }
+
+  @Data
+  public static class Threads {
+    private boolean virtual = false;
+  }
+
+  @Data
+  public static class Lanes {
+    private boolean enabled = false;
+    private int count = Runtime.getRuntime().availableProcessors();
+    private Duration flushInterval = Duration.ofMillis(100);
+    private Duration idleTimeout = Duration.ofMinutes(5);
+    private Journal journal = new Journal();
+  }
+
+  @Data
+  public static class Journal {
+    private boolean enabled = false;
+    private Path directory = Path.of("journal");
+    private DataSize size = DataSize.ofMegabytes(64);
+    private boolean forceOnAppend = false;
+  }
+
+  @Data
+  public static class MoveLog {
+    private boolean enabled = false;
+    private int snapshotInterval = 20;
+  }
+
+  @Data
+  public static class Archive {
+    private boolean enabled = false;
+    private Duration interval = Duration.ofMinutes(1);
+    private Duration completedRetention = Duration.ofHours(1);
+    private Duration abandonedAfter = Duration.ofDays(7);
+    private int batchSize = 500;
+    private int maxBatchesPerRun = 20;
+    private Duration timeToLive;
+  }
+
+  @Data
+  public static class Reaper {
+    private boolean enabled = false;
+    private Duration interval = Duration.ofMinutes(1);
+    private Duration idleTimeout = Duration.ofHours(1);
+    private int batchSize = 500;
+    private int maxBatchesPerRun = 20;
+  }
+
+  @Data
+  public static class Metrics {
+    private Duration gameStatusRefreshInterval = Duration.ofSeconds(30);
+  }
+
+  @Data
+  public static class Tracing {
+    private boolean enabled = false;
+    private double sampleRate = 0.1;
+    private Duration slowThreshold = Duration.ofMillis(100);
+  }
+
+  @Data
+  public static class Search {
+    private boolean enabled = false;
+    private Duration timeBudget = Duration.ofMillis(5);
+    private int maxDepth = 24;
+    private int tableSize = 1 << 20;
+  }
+
+  @Data
+  public static class Analysis {
+    private boolean enabled = false;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private Duration timeBudget = Duration.ofSeconds(2);
+    private int maxDepth = 32;
+    private int tableSize = 1 << 22;
+    private int maxConcurrent = 2;
+  }
+
+  @Data
+  public static class Tablebase {
+    private boolean enabled = false;
+    private Path path = Path.of("tablebase/kalaha.tb");
+    private int maxStones = 12;
+    private boolean generate = false;
+  }
+}
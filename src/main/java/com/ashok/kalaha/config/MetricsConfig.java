@@ -0,0 +1,19 @@
+package com.ashok.kalaha.config;
+
+import com.ashok.kalaha.metrics.GameMetrics;
+import com.ashok.kalaha.metrics.GameMetricsPostProcessor;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfig {
+
+  @Bean
+  public static GameMetricsPostProcessor gameMetricsPostProcessor(
+      ObjectProvider<GameMetrics> gameMetrics,
+      ObjectProvider<ObservationRegistry> observationRegistry) {
+    return new GameMetricsPostProcessor(gameMetrics, observationRegistry);
+  }
+}
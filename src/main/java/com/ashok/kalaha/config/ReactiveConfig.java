@@ -0,0 +1,42 @@
+package com.ashok.kalaha.config;
+
+import com.ashok.kalaha.model.Game;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+/**
+ * Redis template of the reactive stack. Games are stored under the same keys and in the same json
+ * as the blocking cache manager writes them, so both stacks can share one redis. Lanes own games on
+ * blocking threads and are not available with the reactive stack.
+ */
+@Configuration
+@Profile("reactive")
+@EnableConfigurationProperties(CacheProperties.class)
+public class ReactiveConfig {
+
+  public ReactiveConfig(KalahaProperties kalahaProperties) {
+    if (kalahaProperties.getLanes().isEnabled())
+      throw new IllegalStateException(
+          "kalaha.lanes.enabled is not supported with the reactive profile");
+  }
+
+  @Bean
+  public ReactiveRedisTemplate<String, Game> reactiveGameRedisTemplate(
+      ReactiveRedisConnectionFactory reactiveRedisConnectionFactory, ObjectMapper objectMapper) {
+    var serializationContext =
+        RedisSerializationContext.<String, Game>newSerializationContext(
+                new StringRedisSerializer())
+            .value(new Jackson2JsonRedisSerializer<>(objectMapper, Game.class))
+            .build();
+    return new ReactiveRedisTemplate<>(reactiveRedisConnectionFactory, serializationContext);
+  }
+}
@@ -0,0 +1,49 @@
+package com.ashok.kalaha.config;
+
+import com.ashok.kalaha.engine.EndgameTablebase;
+import com.ashok.kalaha.engine.EndgameTablebaseGenerator;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Maps the {@link EndgameTablebase} used by move suggestions, analysis and the sowing services,
+ * which end live games once it covers their position. With {@code kalaha.tablebase.generate} the
+ * stone counts up to {@code max-stones} missing from the file are generated on startup first, on
+ * all cores, continuing where an interrupted generation stopped.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "kalaha.tablebase", name = "enabled", havingValue = "true")
+public class TablebaseConfig {
+
+  @Bean
+  public EndgameTablebase endgameTablebase(KalahaProperties kalahaProperties) throws IOException {
+    KalahaProperties.Tablebase properties = kalahaProperties.getTablebase();
+    Path path = properties.getPath();
+    if (properties.isGenerate()) {
+      if (path.getParent() != null) Files.createDirectories(path.getParent());
+      long start = System.nanoTime();
+      int generated =
+          new EndgameTablebaseGenerator(ForkJoinPool.commonPool())
+              .generate(path, properties.getMaxStones());
+      if (generated > 0)
+        log.info(
+            "generated "
+                + generated
+                + " stone counts of endgame tablebase "
+                + path
+                + " in "
+                + (System.nanoTime() - start) / 1_000_000
+                + "ms");
+    }
+    EndgameTablebase tablebase = EndgameTablebase.open(path);
+    log.info("mapped endgame tablebase " + path + " up to " + tablebase.maxStones() + " stones");
+    return tablebase;
+  }
+}
@@ -0,0 +1,39 @@
+package com.ashok.kalaha.config;
+
+import com.ashok.kalaha.tracing.MoveTracingInterceptor;
+import com.ashok.kalaha.tracing.SlowMoveLog;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Traces a sampled share of move requests, see {@link MoveTracingInterceptor}, and logs the stages
+ * of the slow ones through {@link SlowMoveLog}, which spring boot registers with the observation
+ * registry.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "kalaha.tracing", name = "enabled", havingValue = "true")
+public class TracingConfig implements WebMvcConfigurer {
+  private final MoveTracingInterceptor moveTracingInterceptor;
+
+  public TracingConfig(ObservationRegistry observationRegistry, KalahaProperties kalahaProperties) {
+    this.moveTracingInterceptor = new MoveTracingInterceptor(observationRegistry, kalahaProperties);
+  }
+
+  @Bean
+  public SlowMoveLog slowMoveLog(KalahaProperties kalahaProperties) {
+    return new SlowMoveLog(kalahaProperties);
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry
+        .addInterceptor(moveTracingInterceptor)
+        .addPathPatterns("/v1/api/games/*/pits/*", "/v1/api/games/*/moves");
+  }
+}
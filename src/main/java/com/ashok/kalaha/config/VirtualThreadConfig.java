@@ -0,0 +1,38 @@
+package com.ashok.kalaha.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+/**
+ * Runs every tomcat request, and with it the blocking mongo and redis calls of the request, on its
+ * own virtual thread instead of the bounded platform thread pool. Async work of spring mvc, like
+ * server sent events, goes to virtual threads as well.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "kalaha.threads", name = "virtual", havingValue = "true")
+public class VirtualThreadConfig {
+
+  @Bean(destroyMethod = "close")
+  public ExecutorService virtualThreadExecutor() {
+    return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("kalaha-vt-", 0).factory());
+  }
+
+  @Bean
+  public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer(
+      ExecutorService virtualThreadExecutor) {
+    return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+  }
+
+  @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+  public AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor) {
+    return new TaskExecutorAdapter(virtualThreadExecutor);
+  }
+}
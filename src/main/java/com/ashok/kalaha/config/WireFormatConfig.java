@@ -0,0 +1,57 @@
+package com.ashok.kalaha.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.swagger.v3.oas.models.media.Content;
+import io.swagger.v3.oas.models.media.MediaType;
+import org.springdoc.core.customizers.OpenApiCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Lets every endpoint speak CBOR ({@code application/cbor}) next to JSON with the same Jackson
+ * configuration, and documents the CBOR variant of each JSON body in the OpenAPI specification.
+ */
+@Configuration
+public class WireFormatConfig {
+  public static final String APPLICATION_CBOR = "application/cbor";
+
+  @Bean
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(
+      Jackson2ObjectMapperBuilder objectMapperBuilder) {
+    return new MappingJackson2CborHttpMessageConverter(
+        objectMapperBuilder.factory(new CBORFactory()).build());
+  }
+
+  @Bean
+  public OpenApiCustomizer cborContentCustomizer() {
+    return openApi -> {
+      if (openApi.getPaths() == null) return;
+      openApi
+          .getPaths()
+          .values()
+          .forEach(
+              pathItem ->
+                  pathItem
+                      .readOperations()
+                      .forEach(
+                          operation -> {
+                            if (operation.getRequestBody() != null)
+                              addCborContent(operation.getRequestBody().getContent());
+                            if (operation.getResponses() != null)
+                              operation
+                                  .getResponses()
+                                  .values()
+                                  .forEach(response -> addCborContent(response.getContent()));
+                          }));
+    };
+  }
+
+  private static void addCborContent(Content content) {
+    if (content == null) return;
+    MediaType json = content.get("application/json");
+    if (json != null)
+      content.putIfAbsent(APPLICATION_CBOR, new MediaType().schema(json.getSchema()));
+  }
+}
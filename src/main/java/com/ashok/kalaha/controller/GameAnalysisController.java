@@ -0,0 +1,87 @@
+package com.ashok.kalaha.controller;
+
+import com.ashok.kalaha.api.GameAnalysisService;
+import com.ashok.kalaha.api.GameService;
+import com.ashok.kalaha.dto.ErrorDetails;
+import com.ashok.kalaha.dto.GameAnalysis;
+import com.ashok.kalaha.lane.GameLanes;
+import com.ashok.kalaha.model.Game;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import java.util.Optional;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RestController
+@RequestMapping("/v1/api/games")
+@CrossOrigin
+@Profile("!reactive")
+@AllArgsConstructor
+@ConditionalOnProperty(prefix = "kalaha.analysis", name = "enabled", havingValue = "true")
+public class GameAnalysisController {
+  private GameService gameService;
+  private GameAnalysisService gameAnalysisService;
+  private Optional<GameLanes> gameLanes;
+
+  @Operation(
+      summary =
+          "Evaluate every legal move of the player whose turn it is with a deep search on all cores")
+  @Parameter(
+      in = ParameterIn.QUERY,
+      description =
+          "also search the position with a single thread, to report the speedup of the threads",
+      name = "baseline",
+      content = @Content(schema = @Schema(type = "boolean")))
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Responds with the score of every legal move and the search statistics",
+            content = {
+              @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = GameAnalysis.class))
+            }),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Game not found with given id",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ErrorDetails.class))),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Game is already finished",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ErrorDetails.class))),
+        @ApiResponse(
+            responseCode = "503",
+            description = "As many analyses as allowed are already running",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ErrorDetails.class)))
+      })
+  @GetMapping(value = "/{gameId}/analysis")
+  public ResponseEntity<GameAnalysis> analyseGame(
+      @PathVariable(value = "gameId") String gameId,
+      @RequestParam(value = "baseline", required = false, defaultValue = "false")
+          boolean baseline) {
+    log.info("analysing gameId: " + gameId);
+    Game game =
+        gameLanes.isPresent() ? gameLanes.get().read(gameId) : gameService.loadGame(gameId);
+    return ResponseEntity.ok(gameAnalysisService.analyse(game, baseline));
+  }
+}
@@ -1,12 +1,23 @@
 package com.ashok.kalaha.controller;
 
+import static com.ashok.kalaha.controller.GameRequestValidator.*;
+
+import com.ashok.kalaha.api.GameEventService;
 import com.ashok.kalaha.api.GameService;
+import com.ashok.kalaha.api.MoveLogService;
 import com.ashok.kalaha.api.SowingService;
+import com.ashok.kalaha.config.KalahaProperties;
 import com.ashok.kalaha.dto.ErrorDetails;
+import com.ashok.kalaha.dto.GameBatchRequest;
+import com.ashok.kalaha.dto.GameBatchResponse;
+import com.ashok.kalaha.dto.GameDelta;
+import com.ashok.kalaha.dto.MoveBatchRequest;
 import com.ashok.kalaha.exceptions.GameException;
+import com.ashok.kalaha.exceptions.GameUpdateConflictException;
+import com.ashok.kalaha.exceptions.IllegalBatchMoveException;
+import com.ashok.kalaha.lane.GameLanes;
 import com.ashok.kalaha.model.Game;
 import com.ashok.kalaha.model.GameConstants;
-import com.ashok.kalaha.service.TwoPlayerSowingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -14,19 +25,32 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Slf4j
 @RestController
 @RequestMapping("/v1/api/games")
 @CrossOrigin
+@Profile("!reactive")
 @AllArgsConstructor
 public class GameController {
   private GameService gameService;
   private SowingService sowingService;
+  private KalahaProperties kalahaProperties;
+  private GameEventService gameEventService;
+  private Optional<GameLanes> gameLanes;
+  private Optional<MoveLogService> moveLogService;
 
   @Operation(summary = "Creates new kalaha game with 6 pit stones by default.")
   @Parameter(
@@ -74,16 +98,71 @@ public class GameController {
     int pitStones = stones != null ? stones : GameConstants.defaultPitStones;
     int players = numberOfPlayers != null ? numberOfPlayers : GameConstants.defaultNumberOfPlayers;
 
-    if (pitStones <= 0) throw new GameException("pit stones can't be zero or negative.");
-    if (players <= 0 || players > 10)
-      throw new GameException(
-          "number of players can't be zero or negative and can't be greater than 10");
+    validateNewGame(pitStones, players);
 
     int currentlySupportedNumberOfPlayers = GameConstants.defaultNumberOfPlayers;
 
     return ResponseEntity.ok(gameService.createGame(pitStones, currentlySupportedNumberOfPlayers));
   }
 
+  @Operation(
+      summary =
+          "Creates many kalaha games at once, built in memory and inserted in bulk. "
+              + "Responds with the ids of the created games.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Responds with the ids of the newly created games",
+            content = {
+              @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = GameBatchResponse.class))
+            }),
+        @ApiResponse(
+            responseCode = "400",
+            description = "client error, responds with all required error information",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ErrorDetails.class))),
+        @ApiResponse(
+            responseCode = "500",
+            description = "server error, responds with all required error information",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ErrorDetails.class)))
+      })
+  @PostMapping(value = "/batch")
+  public ResponseEntity<GameBatchResponse> createGames(
+      @RequestBody GameBatchRequest gameBatchRequest) {
+    int maxBatchGames = kalahaProperties.getMaxBatchGames();
+    List<Integer> stonesPerGame = gameBatchRequest.getStonesPerGame();
+    if (stonesPerGame == null) {
+      Integer numberOfGames = gameBatchRequest.getNumberOfGames();
+      Integer stones = gameBatchRequest.getStones();
+      if (numberOfGames == null || numberOfGames <= 0)
+        throw new GameException("number of games can't be empty, zero or negative.");
+      if (numberOfGames > maxBatchGames)
+        throw new GameException(
+            "Between 1 and " + maxBatchGames + " games can be created at once.");
+      stonesPerGame =
+          Collections.nCopies(
+              numberOfGames, stones != null ? stones : GameConstants.defaultPitStones);
+    }
+
+    if (stonesPerGame.isEmpty() || stonesPerGame.size() > maxBatchGames)
+      throw new GameException("Between 1 and " + maxBatchGames + " games can be created at once.");
+    if (stonesPerGame.stream().anyMatch(stones -> stones == null || stones <= 0))
+      throw new GameException("pit stones can't be zero or negative.");
+
+    log.info("Invoking createGames() endpoint for " + stonesPerGame.size() + " games... ");
+    return ResponseEntity.ok(
+        new GameBatchResponse(
+            gameService.createGames(stonesPerGame, GameConstants.defaultNumberOfPlayers)));
+  }
+
   @Operation(summary = "Get a game by its id")
   @ApiResponses(
       value = {
@@ -113,9 +192,38 @@ public class GameController {
   @GetMapping(value = "/{gameId}")
   public ResponseEntity<Game> loadGame(@PathVariable(value = "gameId") String gameId) {
     log.info("loading game with gameId: " + gameId);
+    if (gameLanes.isPresent()) return ResponseEntity.ok(gameLanes.get().read(gameId));
     return ResponseEntity.ok(gameService.loadGame(gameId));
   }
 
+  @Operation(
+      summary =
+          "Subscribe to moves of a game, every move is pushed as a server sent event named move")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Stream of changed pits, turn, status and revision after every move",
+            content = {
+              @Content(
+                  mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                  schema = @Schema(implementation = GameDelta.class))
+            }),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Game not found with given id",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ErrorDetails.class)))
+      })
+  @GetMapping(value = "/{gameId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter subscribe(@PathVariable(value = "gameId") String gameId) {
+    log.info("subscribing to moves of gameId: " + gameId);
+    gameService.loadGame(gameId);
+    return gameEventService.subscribe(gameId);
+  }
+
   @Operation(summary = "Sow stones from pit of the game")
   @ApiResponses(
       value = {
@@ -126,7 +234,10 @@ public class GameController {
             content = {
               @Content(
                   mediaType = "application/json",
-                  schema = @Schema(implementation = Game.class))
+                  schema = @Schema(implementation = Game.class)),
+              @Content(
+                  mediaType = GameDelta.MEDIA_TYPE,
+                  schema = @Schema(implementation = GameDelta.class))
             }),
         @ApiResponse(
             responseCode = "404",
@@ -142,6 +253,13 @@ public class GameController {
                 @Content(
                     mediaType = "application/json",
                     schema = @Schema(implementation = ErrorDetails.class))),
+        @ApiResponse(
+            responseCode = "409",
+            description = "Game kept being updated concurrently, sowing can be retried",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ErrorDetails.class))),
         @ApiResponse(
             responseCode = "500",
             description = "server error, responds with all required error information",
@@ -160,27 +278,207 @@ public class GameController {
       description = "pitId of the game from which you want to sow the stones",
       name = "pitId",
       content = @Content(schema = @Schema(type = "string")))
+  @Parameter(
+      in = ParameterIn.QUERY,
+      description =
+          "delta responds with only the changed pits, turn, status, revision and the board as an array. "
+              + "Same as Accept: "
+              + GameDelta.MEDIA_TYPE,
+      name = "view",
+      content = @Content(schema = @Schema(type = "string", allowableValues = GameDelta.VIEW)))
   @PutMapping(value = "/{gameId}/pits/{pitId}")
-  public ResponseEntity<Game> sowStone(
-      @PathVariable(value = "gameId") String gameId, @PathVariable(value = "pitId") Integer pitId) {
+  public ResponseEntity<?> sowStone(
+      @PathVariable(value = "gameId") String gameId,
+      @PathVariable(value = "pitId") Integer pitId,
+      @RequestParam(value = "view", required = false) String view,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
     log.info("sowing for GameId: " + gameId + "  , pit Index: " + pitId);
+    boolean isDeltaView =
+        GameDelta.VIEW.equals(view) || (accept != null && accept.contains(GameDelta.MEDIA_TYPE));
+
+    validatePitId(pitId);
+    if (gameLanes.isPresent())
+      return ResponseEntity.ok(playMoveOnLane(gameLanes.get(), gameId, pitId, isDeltaView));
+    return ResponseEntity.ok(retryOnConflict(gameId, () -> playMove(gameId, pitId, isDeltaView)));
+  }
+
+  @Operation(
+      summary =
+          "Sow stones from several pits of the game in one request, all moves are applied or none")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Responds with game data after all moves were applied",
+            content = {
+              @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = Game.class))
+            }),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Game not found with given id",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ErrorDetails.class))),
+        @ApiResponse(
+            responseCode = "400",
+            description =
+                "client error, moveIndex and exceptionType tell which move was rejected and why",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ErrorDetails.class))),
+        @ApiResponse(
+            responseCode = "409",
+            description = "Game kept being updated concurrently, moves can be retried",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ErrorDetails.class))),
+        @ApiResponse(
+            responseCode = "500",
+            description = "server error, responds with all required error information",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ErrorDetails.class)))
+      })
+  @Parameter(
+      in = ParameterIn.PATH,
+      description = "id of the game for which you want to sow the stones",
+      name = "gameId",
+      content = @Content(schema = @Schema(type = "string")))
+  @PostMapping(value = "/{gameId}/moves")
+  public ResponseEntity<Game> sowStones(
+      @PathVariable(value = "gameId") String gameId,
+      @RequestBody MoveBatchRequest moveBatchRequest) {
+    List<Integer> pitIds = moveBatchRequest.getPitIds();
+    log.info("sowing batch of moves for GameId: " + gameId + "  , pit Indexes: " + pitIds);
 
-    if (pitId == null || pitId < 1 || pitId % 7 == 0)
+    if (pitIds == null || pitIds.isEmpty())
+      throw new GameException("At least one pit should be selected to sow from.");
+    if (pitIds.size() > kalahaProperties.getMaxBatchMoves())
       throw new GameException(
-          "Invalid pit selected. The pit should be selected between 1 to 6 or 8 to 13 or etc..");
+          "At most " + kalahaProperties.getMaxBatchMoves() + " moves can be sown at once.");
+
+    if (gameLanes.isPresent())
+      return ResponseEntity.ok(playMovesOnLane(gameLanes.get(), gameId, pitIds));
+    return ResponseEntity.ok(retryOnConflict(gameId, () -> playMoves(gameId, pitIds)));
+  }
 
+  private <T> T retryOnConflict(String gameId, Supplier<T> action) {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return action.get();
+      } catch (GameUpdateConflictException e) {
+        if (attempt >= kalahaProperties.getMaxUpdateAttempts()) throw e;
+        log.warn("retrying sowing for GameId: " + gameId + " after conflict, attempt " + attempt);
+        gameService.evictGame(gameId);
+      }
+    }
+  }
+
+  private Game playMoves(String gameId, List<Integer> pitIds) {
     Game game = gameService.loadGame(gameId);
+    int[] previousStones = GameDelta.stonesOf(game);
+    long seq = nextRevision(game);
 
-    if (pitId >= game.getPits().size())
-      throw new GameException(
-          "Invalid pit selected. The pitId should be one of existing valid pit");
+    Game updatedGame = gameService.updateGame(sowAll(game, pitIds));
+    moveLogService.ifPresent(moveLog -> moveLog.record(updatedGame, seq, pitIds, previousStones));
+    gameEventService.publish(
+        GameDelta.of(updatedGame, pitIds.get(pitIds.size() - 1), previousStones));
+    return updatedGame;
+  }
+
+  private Game playMovesOnLane(GameLanes lanes, String gameId, List<Integer> pitIds) {
+    LaneMove laneMove =
+        lanes.call(
+            gameId,
+            game -> {
+              int[] previousStones = GameDelta.stonesOf(game);
+              Game playedGame = sowAll(game, pitIds);
+              return new LaneMove(
+                  GameDelta.of(playedGame, pitIds.get(pitIds.size() - 1), previousStones),
+                  new Game(playedGame),
+                  previousStones);
+            },
+            written -> recordLaneMove(written, pitIds));
+    gameEventService.publish(laneMove.gameDelta());
+    return laneMove.game();
+  }
+
+  private Game sowAll(Game game, List<Integer> pitIds) {
+    SowingService gameSowingService = getSowingServiceByNumberOfPlayers(game);
+    for (int moveIndex = 0; moveIndex < pitIds.size(); moveIndex++) {
+      Integer pitId = pitIds.get(moveIndex);
+      try {
+        validatePitId(pitId);
+        validatePitOfGame(game, pitId);
+        game = gameSowingService.sow(game, pitId);
+      } catch (RuntimeException e) {
+        throw new IllegalBatchMoveException(moveIndex, pitId, e);
+      }
+    }
+    return game;
+  }
+
+  private Object playMove(String gameId, Integer pitId, boolean isDeltaView) {
+    Game game = gameService.loadGame(gameId);
+    validatePitOfGame(game, pitId);
+
+    int[] previousStones = GameDelta.stonesOf(game);
+    long seq = nextRevision(game);
+    SowingService gameSowingService = getSowingServiceByNumberOfPlayers(game);
+    Game updatedGame =
+        kalahaProperties.getMoveMode() == KalahaProperties.MoveMode.ATOMIC
+            ? gameService.sowAndUpdate(game, pitId, gameSowingService)
+            : gameService.updateGame(gameSowingService.sow(game, pitId));
 
-    game = getSowingServiceByNumberOfPlayers(game).sow(game, pitId);
-    return ResponseEntity.ok(gameService.updateGame(game));
+    moveLogService.ifPresent(
+        moveLog -> moveLog.record(updatedGame, seq, List.of(pitId), previousStones));
+    GameDelta gameDelta = GameDelta.of(updatedGame, pitId, previousStones);
+    gameEventService.publish(gameDelta);
+    return isDeltaView ? gameDelta : updatedGame;
+  }
+
+  private Object playMoveOnLane(
+      GameLanes lanes, String gameId, Integer pitId, boolean isDeltaView) {
+    LaneMove laneMove =
+        lanes.call(
+            gameId,
+            game -> {
+              validatePitOfGame(game, pitId);
+              int[] previousStones = GameDelta.stonesOf(game);
+              Game playedGame = getSowingServiceByNumberOfPlayers(game).sow(game, pitId);
+              GameDelta gameDelta = GameDelta.of(playedGame, pitId, previousStones);
+              return new LaneMove(gameDelta, new Game(playedGame), previousStones);
+            },
+            written -> recordLaneMove(written, List.of(pitId)));
+    gameEventService.publish(laneMove.gameDelta());
+    return isDeltaView ? laneMove.gameDelta() : laneMove.game();
+  }
+
+  /** Lanes write behind, so their moves are recorded once the game is written, not on return. */
+  private void recordLaneMove(LaneMove laneMove, List<Integer> pitIds) {
+    moveLogService.ifPresent(
+        moveLog ->
+            moveLog.record(
+                laneMove.game(),
+                laneMove.game().getRevision(),
+                pitIds,
+                laneMove.previousStones()));
+  }
+
+  private static long nextRevision(Game game) {
+    return game.getRevision() != null ? game.getRevision() + 1 : 1L;
   }
 
   public SowingService getSowingServiceByNumberOfPlayers(Game game) {
-    if (game.getNumberOfPlayers() == 2) return new TwoPlayerSowingService();
+    if (game.getNumberOfPlayers() == 2) return sowingService;
     else throw new GameException("currently only two players are supported");
   }
+
+  private record LaneMove(GameDelta gameDelta, Game game, int[] previousStones) {}
 }
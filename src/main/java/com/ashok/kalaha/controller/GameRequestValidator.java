@@ -0,0 +1,28 @@
+package com.ashok.kalaha.controller;
+
+import com.ashok.kalaha.exceptions.GameException;
+import com.ashok.kalaha.model.Game;
+
+final class GameRequestValidator {
+
+  private GameRequestValidator() {}
+
+  static void validateNewGame(int pitStones, int players) {
+    if (pitStones <= 0) throw new GameException("pit stones can't be zero or negative.");
+    if (players <= 0 || players > 10)
+      throw new GameException(
+          "number of players can't be zero or negative and can't be greater than 10");
+  }
+
+  static void validatePitId(Integer pitId) {
+    if (pitId == null || pitId < 1 || pitId % 7 == 0)
+      throw new GameException(
+          "Invalid pit selected. The pit should be selected between 1 to 6 or 8 to 13 or etc..");
+  }
+
+  static void validatePitOfGame(Game game, Integer pitId) {
+    if (pitId >= game.getPits().size())
+      throw new GameException(
+          "Invalid pit selected. The pitId should be one of existing valid pit");
+  }
+}
@@ -0,0 +1,75 @@
+package com.ashok.kalaha.controller;
+
+import com.ashok.kalaha.api.MoveLogService;
+import com.ashok.kalaha.dto.ErrorDetails;
+import com.ashok.kalaha.model.Game;
+import com.ashok.kalaha.model.MoveEvent;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RestController
+@RequestMapping("/v1/api/games")
+@CrossOrigin
+@Profile("!reactive")
+@AllArgsConstructor
+@ConditionalOnProperty(prefix = "kalaha.move-log", name = "enabled", havingValue = "true")
+public class MoveLogController {
+  private MoveLogService moveLogService;
+
+  @Operation(summary = "Get every move of a game in the order they were played")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Responds with the moves of the game, empty when no move was recorded",
+            content = {
+              @Content(
+                  mediaType = "application/json",
+                  array = @ArraySchema(schema = @Schema(implementation = MoveEvent.class)))
+            })
+      })
+  @GetMapping(value = "/{gameId}/moves")
+  public ResponseEntity<List<MoveEvent>> loadMoves(@PathVariable(value = "gameId") String gameId) {
+    log.info("loading moves of gameId: " + gameId);
+    return ResponseEntity.ok(moveLogService.loadMoves(gameId));
+  }
+
+  @Operation(summary = "Rebuild a game as it was at a revision, from its snapshots and moves")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Responds with the game at the revision",
+            content = {
+              @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = Game.class))
+            }),
+        @ApiResponse(
+            responseCode = "404",
+            description = "No move log found for the game at the revision",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ErrorDetails.class)))
+      })
+  @GetMapping(value = "/{gameId}/revisions/{revision}")
+  public ResponseEntity<Game> rebuildGame(
+      @PathVariable(value = "gameId") String gameId,
+      @PathVariable(value = "revision") Long revision) {
+    log.info("rebuilding gameId: " + gameId + " at revision: " + revision);
+    return ResponseEntity.ok(moveLogService.rebuildGame(gameId, revision));
+  }
+}
@@ -0,0 +1,67 @@
+package com.ashok.kalaha.controller;
+
+import com.ashok.kalaha.api.GameService;
+import com.ashok.kalaha.api.MoveSearchService;
+import com.ashok.kalaha.dto.ErrorDetails;
+import com.ashok.kalaha.dto.MoveHint;
+import com.ashok.kalaha.lane.GameLanes;
+import com.ashok.kalaha.model.Game;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import java.util.Optional;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RestController
+@RequestMapping("/v1/api/games")
+@CrossOrigin
+@Profile("!reactive")
+@AllArgsConstructor
+@ConditionalOnProperty(prefix = "kalaha.search", name = "enabled", havingValue = "true")
+public class MoveSearchController {
+  private GameService gameService;
+  private MoveSearchService moveSearchService;
+  private Optional<GameLanes> gameLanes;
+
+  @Operation(summary = "Suggest the best pit to sow from for the player whose turn it is")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Responds with the suggested pit and how deep it was searched",
+            content = {
+              @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = MoveHint.class))
+            }),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Game not found with given id",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ErrorDetails.class))),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Game is already finished",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ErrorDetails.class)))
+      })
+  @GetMapping(value = "/{gameId}/hint")
+  public ResponseEntity<MoveHint> suggestMove(@PathVariable(value = "gameId") String gameId) {
+    log.info("suggesting move for gameId: " + gameId);
+    Game game =
+        gameLanes.isPresent() ? gameLanes.get().read(gameId) : gameService.loadGame(gameId);
+    return ResponseEntity.ok(moveSearchService.suggestMove(game));
+  }
+}
@@ -0,0 +1,135 @@
+package com.ashok.kalaha.controller;
+
+import static com.ashok.kalaha.controller.GameRequestValidator.*;
+
+import com.ashok.kalaha.api.MoveLogService;
+import com.ashok.kalaha.api.ReactiveGameEventService;
+import com.ashok.kalaha.api.ReactiveGameService;
+import com.ashok.kalaha.api.SowingService;
+import com.ashok.kalaha.config.KalahaProperties;
+import com.ashok.kalaha.dto.GameDelta;
+import com.ashok.kalaha.exceptions.GameException;
+import com.ashok.kalaha.exceptions.GameUpdateConflictException;
+import com.ashok.kalaha.model.Game;
+import com.ashok.kalaha.model.GameConstants;
+import io.swagger.v3.oas.annotations.Operation;
+import java.util.List;
+import java.util.Optional;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+/**
+ * Non blocking variant of {@link GameController}, active with the {@code reactive} profile. Same
+ * paths, same rules through the same {@link SowingService}, same responses, and moves go through
+ * the same move mode and move log.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/v1/api/games")
+@CrossOrigin
+@Profile("reactive")
+@AllArgsConstructor
+public class ReactiveGameController {
+  private ReactiveGameService gameService;
+  private SowingService sowingService;
+  private KalahaProperties kalahaProperties;
+  private ReactiveGameEventService gameEventService;
+  private Optional<MoveLogService> moveLogService;
+
+  @Operation(summary = "Creates new kalaha game with 6 pit stones by default.")
+  @PostMapping
+  public Mono<Game> createGame(
+      @RequestParam(value = "stones", required = false) Integer stones,
+      @RequestParam(value = "numberOfPlayers", required = false) Integer numberOfPlayers) {
+    log.info("Invoking createGame() endpoint... ");
+    int pitStones = stones != null ? stones : GameConstants.defaultPitStones;
+    int players = numberOfPlayers != null ? numberOfPlayers : GameConstants.defaultNumberOfPlayers;
+
+    validateNewGame(pitStones, players);
+    return gameService.createGame(pitStones, GameConstants.defaultNumberOfPlayers);
+  }
+
+  @Operation(summary = "Get a game by its id")
+  @GetMapping(value = "/{gameId}")
+  public Mono<Game> loadGame(@PathVariable(value = "gameId") String gameId) {
+    log.info("loading game with gameId: " + gameId);
+    return gameService.loadGame(gameId);
+  }
+
+  @Operation(
+      summary =
+          "Subscribe to moves of a game, every move is pushed as a server sent event named move")
+  @GetMapping(value = "/{gameId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public Flux<ServerSentEvent<GameDelta>> subscribe(@PathVariable(value = "gameId") String gameId) {
+    log.info("subscribing to moves of gameId: " + gameId);
+    return gameService.loadGame(gameId).thenMany(gameEventService.subscribe(gameId));
+  }
+
+  @Operation(summary = "Sow stones from pit of the game")
+  @PutMapping(value = "/{gameId}/pits/{pitId}")
+  public Mono<?> sowStone(
+      @PathVariable(value = "gameId") String gameId,
+      @PathVariable(value = "pitId") Integer pitId,
+      @RequestParam(value = "view", required = false) String view,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+    log.info("sowing for GameId: " + gameId + "  , pit Index: " + pitId);
+    boolean isDeltaView =
+        GameDelta.VIEW.equals(view) || (accept != null && accept.contains(GameDelta.MEDIA_TYPE));
+
+    validatePitId(pitId);
+    return Mono.defer(() -> playMove(gameId, pitId, isDeltaView))
+        .retryWhen(
+            Retry.max(kalahaProperties.getMaxUpdateAttempts() - 1)
+                .filter(GameUpdateConflictException.class::isInstance)
+                .doBeforeRetryAsync(retry -> gameService.evictGame(gameId))
+                .onRetryExhaustedThrow((retrySpec, retry) -> retry.failure()));
+  }
+
+  private Mono<Object> playMove(String gameId, Integer pitId, boolean isDeltaView) {
+    return gameService
+        .loadGame(gameId)
+        .flatMap(
+            game -> {
+              validatePitOfGame(game, pitId);
+              int[] previousStones = GameDelta.stonesOf(game);
+              long seq = game.getRevision() != null ? game.getRevision() + 1 : 1L;
+              SowingService gameSowingService = getSowingServiceByNumberOfPlayers(game);
+              Mono<Game> updatedGame =
+                  kalahaProperties.getMoveMode() == KalahaProperties.MoveMode.ATOMIC
+                      ? gameService.sowAndUpdate(game, pitId, gameSowingService)
+                      : gameService.updateGame(gameSowingService.sow(game, pitId));
+              return updatedGame.flatMap(
+                  playedGame -> {
+                    GameDelta gameDelta = GameDelta.of(playedGame, pitId, previousStones);
+                    return recordMove(playedGame, seq, pitId, previousStones)
+                        .then(gameEventService.publish(gameDelta))
+                        .thenReturn(isDeltaView ? gameDelta : playedGame);
+                  });
+            });
+  }
+
+  /** The move log writes blocking to mongo, so it is kept off the event loop. */
+  private Mono<Void> recordMove(Game playedGame, long seq, int pitId, int[] previousStones) {
+    return moveLogService
+        .map(
+            moveLog ->
+                Mono.<Void>fromRunnable(
+                        () -> moveLog.record(playedGame, seq, List.of(pitId), previousStones))
+                    .subscribeOn(Schedulers.boundedElastic()))
+        .orElseGet(Mono::empty);
+  }
+
+  public SowingService getSowingServiceByNumberOfPlayers(Game game) {
+    if (game.getNumberOfPlayers() == 2) return sowingService;
+    else throw new GameException("currently only two players are supported");
+  }
+}
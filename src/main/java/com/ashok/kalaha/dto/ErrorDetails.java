@@ -1,5 +1,6 @@
 package com.ashok.kalaha.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import java.time.LocalDateTime;
 import lombok.AllArgsConstructor;
@@ -32,4 +33,11 @@ public class ErrorDetails {
       description = "Indicates when the exception occurred",
       example = "2023-10-20T17:24:04.763643091")
   private LocalDateTime timestamp;
+
+  @Schema(
+      name = "moveIndex",
+      description = "Index of the rejected move within a batch of moves, absent otherwise",
+      example = "2")
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private Integer moveIndex;
 }
@@ -0,0 +1,43 @@
+package com.ashok.kalaha.dto;
+
+import com.ashok.kalaha.model.PlayerTurn;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameAnalysis {
+  @Schema(name = "playerTurn", description = "player the moves are evaluated for")
+  private PlayerTurn playerTurn;
+
+  @Schema(name = "moves", description = "every legal move, best first")
+  private List<MoveEvaluation> moves;
+
+  @Schema(name = "depth", description = "plies searched, extra turns count as a ply", example = "16")
+  private int depth;
+
+  @Schema(name = "threads", description = "threads that searched in parallel", example = "8")
+  private int threads;
+
+  @Schema(name = "nodes", description = "positions visited by all threads", example = "12000000")
+  private long nodes;
+
+  @Schema(name = "searchMillis", description = "time spent searching", example = "2000.0")
+  private double searchMillis;
+
+  @Schema(name = "nodesPerSecond", description = "positions visited per second by all threads")
+  private long nodesPerSecond;
+
+  @Schema(
+      name = "baselineMillis",
+      description =
+          "time a single thread took to search as deep, only when asked for and when it got there")
+  private Double baselineMillis;
+
+  @Schema(name = "speedup", description = "baselineMillis divided by searchMillis")
+  private Double speedup;
+}
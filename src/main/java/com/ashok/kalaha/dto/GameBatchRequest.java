@@ -0,0 +1,29 @@
+package com.ashok.kalaha.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameBatchRequest {
+  @Schema(name = "numberOfGames", description = "how many games to create", example = "1000")
+  private Integer numberOfGames;
+
+  @Schema(
+      name = "stones",
+      description = "pit stones of every game, 6 by default",
+      example = "6")
+  private Integer stones;
+
+  @Schema(
+      name = "stonesPerGame",
+      description =
+          "pit stones of each game, one game is created per entry. "
+              + "Takes precedence over numberOfGames and stones",
+      example = "[4, 6, 6]")
+  private List<Integer> stonesPerGame;
+}
@@ -0,0 +1,18 @@
+package com.ashok.kalaha.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameBatchResponse {
+  @Schema(
+      name = "gameIds",
+      description = "ids of the created games, in the order they were requested",
+      example = "[\"gh45fdfdg3534ytenda\"]")
+  private List<String> gameIds;
+}
@@ -0,0 +1,97 @@
+package com.ashok.kalaha.dto;
+
+import com.ashok.kalaha.model.*;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameDelta {
+  public static final String MEDIA_TYPE = "application/vnd.kalaha.delta+json";
+  public static final String VIEW = "delta";
+
+  @Schema(name = "gameId", description = "id of the game", example = "gh45fdfdg3534ytenda")
+  private String gameId;
+
+  @Schema(name = "revision", description = "revision of the game after the move", example = "3")
+  private Long revision;
+
+  @Schema(name = "pitId", description = "pit the stones were sown from", example = "3")
+  private Integer pitId;
+
+  @Schema(
+      name = "pits",
+      description = "Only the pits whose stones changed with the move, by pitId",
+      example = "{\"3\":0,\"4\":7,\"5\":7}")
+  private Map<Integer, Integer> pits;
+
+  @Schema(
+      name = "board",
+      description = "Stones of all pits in pitId order",
+      example = "[6,6,0,7,7,7,1,7,7,6,6,6,6,0]")
+  private int[] board;
+
+  @Schema(name = "playerTurn", description = "player to play next", example = "PLAYER_TWO_TURN")
+  private PlayerTurn playerTurn;
+
+  @Schema(name = "gameStatus", description = "status after the move", example = "IN_PROGRESS")
+  private GameStatus gameStatus;
+
+  @Schema(name = "winner", description = "winner when game is completed.", example = "PLAYER_ONE")
+  private Player winner;
+
+  @Schema(
+      name = "correction",
+      description = "true when moves sent before were lost, pits then holds the whole stored board",
+      example = "false")
+  private boolean correction;
+
+  public static int[] stonesOf(Game game) {
+    List<Pit> pits = game.getPits();
+    int[] stones = new int[pits.size()];
+    for (int i = 0; i < stones.length; i++) stones[i] = pits.get(i).getStones();
+    return stones;
+  }
+
+  public static GameDelta of(Game game, int pitId, int[] previousStones) {
+    int[] board = stonesOf(game);
+    Map<Integer, Integer> changedPits = new LinkedHashMap<>();
+    for (int i = 0; i < previousStones.length; i++)
+      if (board[i] != previousStones[i]) changedPits.put(i + 1, board[i]);
+
+    return new GameDelta(
+        game.getGameId(),
+        game.getRevision(),
+        pitId,
+        changedPits,
+        board,
+        game.getPlayerTurn(),
+        game.getGameStatus(),
+        game.getWinner(),
+        false);
+  }
+
+  /** Whole stored board of the game, replaces every delta sent before it whatever its revision. */
+  public static GameDelta correctionOf(Game game) {
+    int[] board = stonesOf(game);
+    Map<Integer, Integer> pits = new LinkedHashMap<>();
+    for (int i = 0; i < board.length; i++) pits.put(i + 1, board[i]);
+
+    return new GameDelta(
+        game.getGameId(),
+        game.getRevision(),
+        null,
+        pits,
+        board,
+        game.getPlayerTurn(),
+        game.getGameStatus(),
+        game.getWinner(),
+        true);
+  }
+}
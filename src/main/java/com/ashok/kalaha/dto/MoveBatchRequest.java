@@ -0,0 +1,18 @@
+package com.ashok.kalaha.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MoveBatchRequest {
+  @Schema(
+      name = "pitIds",
+      description = "pitIds to sow from, played in the given order",
+      example = "[3, 9, 6]")
+  private List<Integer> pitIds;
+}
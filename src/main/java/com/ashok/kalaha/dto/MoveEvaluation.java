@@ -0,0 +1,20 @@
+package com.ashok.kalaha.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MoveEvaluation {
+  @Schema(name = "pitId", description = "pit to sow from", example = "3")
+  private int pitId;
+
+  @Schema(
+      name = "score",
+      description = "stones the player ends up ahead of the opponent after this move",
+      example = "2")
+  private int score;
+}
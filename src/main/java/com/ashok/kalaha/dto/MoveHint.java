@@ -0,0 +1,53 @@
+package com.ashok.kalaha.dto;
+
+import com.ashok.kalaha.model.GameStatus;
+import com.ashok.kalaha.model.Player;
+import com.ashok.kalaha.model.PlayerTurn;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MoveHint {
+  @Schema(name = "pitId", description = "pit to sow from", example = "3")
+  private int pitId;
+
+  @Schema(name = "playerTurn", description = "player the move is suggested for")
+  private PlayerTurn playerTurn;
+
+  @Schema(
+      name = "score",
+      description = "stones the player ends up ahead of the opponent, as far as the search looked",
+      example = "2")
+  private int score;
+
+  @Schema(name = "depth", description = "plies searched, extra turns count as a ply", example = "9")
+  private int depth;
+
+  @Schema(name = "nodes", description = "positions visited by the search", example = "30720")
+  private long nodes;
+
+  @Schema(name = "searchMillis", description = "time spent searching", example = "5.02")
+  private double searchMillis;
+
+  @Schema(
+      name = "pliesToEnd",
+      description =
+          "moves left until the game is over with perfect play, only for positions in the endgame"
+              + " tablebase, the score is exact then",
+      example = "7")
+  private Integer pliesToEnd;
+
+  @Schema(
+      name = "predictedStatus",
+      description = "status the game ends with under perfect play, with pliesToEnd")
+  private GameStatus predictedStatus;
+
+  @Schema(
+      name = "predictedWinner",
+      description = "winner under perfect play, with pliesToEnd unless it ends in a draw")
+  private Player predictedWinner;
+}
@@ -0,0 +1,242 @@
+package com.ashok.kalaha.engine;
+
+import static com.ashok.kalaha.engine.KalahaBoard.*;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Iterative deepening alpha-beta search over {@link KalahaBoard} positions. Extra turns are
+ * searched as a further ply of the same player, and positions are scored by the difference of the
+ * stores, or of the final scores once the game is over. The best move of a position is remembered
+ * in the {@link TranspositionTable} and tried first on the next iteration, followed by moves ending
+ * in the store, captures and the pits closest to the store. Positions covered by an {@link
+ * EndgameTablebase} are not searched but scored exactly by it.
+ *
+ * <p>A search allocates its boards up front and nothing while searching. It is not thread safe, a
+ * search is created per request or per thread and only the table and the stop flag are shared.
+ */
+public final class AlphaBetaSearch {
+  public static final int MAX_DEPTH = 64;
+
+  private static final int INFINITY = Integer.MAX_VALUE / 2;
+  private static final int NODES_PER_DEADLINE_CHECK = 1024;
+  private static final int TABLE_MOVE_PRIORITY = 1 << 20;
+  private static final int EXTRA_TURN_PRIORITY = 1 << 16;
+  private static final int CAPTURE_PRIORITY = 1 << 8;
+
+  private final TranspositionTable table;
+  private final AtomicBoolean stopped;
+  private final EndgameTablebase tablebase;
+  private final int[][] boards = new int[MAX_DEPTH + 1][TOTAL_PITS];
+  private final int[][] moves = new int[MAX_DEPTH][PITS_PER_SIDE];
+  private final int[][] priorities = new int[MAX_DEPTH][PITS_PER_SIDE];
+
+  private long nodes;
+  private long deadlineNanos;
+  private boolean isAborted;
+  private boolean mayAbort;
+  private int rootBestMove;
+
+  public AlphaBetaSearch(TranspositionTable table) {
+    this(table, new AtomicBoolean(), null);
+  }
+
+  public AlphaBetaSearch(TranspositionTable table, EndgameTablebase tablebase) {
+    this(table, new AtomicBoolean(), tablebase);
+  }
+
+  /**
+   * Creates a search that also gives up, like at its deadline, once {@code stopped} is set, and
+   * scores positions with {@code tablebase} when it isn't null.
+   */
+  public AlphaBetaSearch(
+      TranspositionTable table, AtomicBoolean stopped, EndgameTablebase tablebase) {
+    this.table = table;
+    this.stopped = stopped;
+    this.tablebase = tablebase;
+  }
+
+  public long getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Searches the best move of {@code player} one ply deeper at a time until {@code maxDepth} or
+   * the deadline. The deadline is checked every few nodes; an iteration cut short by it is thrown
+   * away, except for the first one, which always completes so there is a move to return.
+   */
+  public SearchResult search(int[] board, int player, int maxDepth, long deadlineNanos) {
+    if (isGameOver(board))
+      throw new IllegalArgumentException("no move can be searched on a finished game");
+
+    long start = System.nanoTime();
+    this.nodes = 0;
+    this.deadlineNanos = deadlineNanos;
+    this.isAborted = false;
+    this.mayAbort = false;
+    System.arraycopy(board, 0, boards[0], 0, TOTAL_PITS);
+
+    int bestMove = -1;
+    int bestScore = 0;
+    int completedDepth = 0;
+    for (int depth = 1; depth <= Math.min(maxDepth, MAX_DEPTH); depth++) {
+      int score = negamax(0, depth, -INFINITY, INFINITY, player);
+      if (isAborted) break;
+      bestMove = rootBestMove;
+      bestScore = score;
+      completedDepth = depth;
+      mayAbort = true;
+      if (System.nanoTime() - deadlineNanos >= 0) break;
+    }
+    return new SearchResult(bestMove, bestScore, completedDepth, nodes, System.nanoTime() - start);
+  }
+
+  /**
+   * Scores every legal move of {@code player} searched {@code depth} plies deep, each with a full
+   * window so every score is exact rather than a bound. Moves are searched most promising first,
+   * starting {@code rotation} moves later, so threads scoring the same board start on different
+   * moves. Scores are indexed by pit, other pits are left untouched. Returns false, with the scores
+   * incomplete, when the deadline passed or the search was stopped while {@code mayAbort}.
+   */
+  public boolean scoreMoves(
+      int[] board,
+      int player,
+      int depth,
+      int rotation,
+      long deadlineNanos,
+      boolean mayAbort,
+      int[] scores) {
+    if (isGameOver(board))
+      throw new IllegalArgumentException("no move can be searched on a finished game");
+    if (depth < 1 || depth > MAX_DEPTH)
+      throw new IllegalArgumentException("depth must be between 1 and " + MAX_DEPTH);
+
+    this.deadlineNanos = deadlineNanos;
+    this.isAborted = false;
+    this.mayAbort = mayAbort;
+    System.arraycopy(board, 0, boards[0], 0, TOTAL_PITS);
+
+    long hash = Zobrist.hash(board, player);
+    long entry = table.probe(hash);
+    int tableMove = entry == TranspositionTable.MISS ? -1 : TranspositionTable.moveOf(entry);
+    int[] rootMoves = moves[0];
+    int moveCount = orderMoves(board, player, tableMove, rootMoves, priorities[0]);
+    int[] child = boards[1];
+    int bestScore = -INFINITY;
+    int bestMove = rootMoves[0];
+    for (int i = 0; i < moveCount; i++) {
+      int pit = rootMoves[(i + rotation) % moveCount];
+      System.arraycopy(board, 0, child, 0, TOTAL_PITS);
+      int result = sow(child, player, pit);
+      ++nodes;
+
+      int score;
+      if ((result & GAME_OVER) != 0) score = score(child, player) - score(child, opponent(player));
+      else if ((result & EXTRA_TURN) != 0)
+        score = negamax(1, depth - 1, -INFINITY, INFINITY, player);
+      else score = -negamax(1, depth - 1, -INFINITY, INFINITY, opponent(player));
+      if (isAborted) return false;
+      scores[pit] = score;
+      if (score > bestScore) {
+        bestScore = score;
+        bestMove = pit;
+      }
+    }
+    table.store(hash, depth, bestScore, TranspositionTable.EXACT, bestMove);
+    return true;
+  }
+
+  private int negamax(int ply, int depth, int alpha, int beta, int player) {
+    if ((++nodes & (NODES_PER_DEADLINE_CHECK - 1)) == 0
+        && mayAbort
+        && (stopped.get() || System.nanoTime() - deadlineNanos >= 0)) isAborted = true;
+    if (isAborted) return 0;
+
+    int[] board = boards[ply];
+    if (tablebase != null && ply > 0) {
+      int entry = tablebase.probe(board, player);
+      if (entry != EndgameTablebase.MISS)
+        return board[store(player)]
+            - board[store(opponent(player))]
+            + EndgameTablebase.valueOf(entry);
+    }
+    if (depth == 0) return board[store(player)] - board[store(opponent(player))];
+
+    long hash = Zobrist.hash(board, player);
+    long entry = table.probe(hash);
+    int tableMove = -1;
+    if (entry != TranspositionTable.MISS) {
+      tableMove = TranspositionTable.moveOf(entry);
+      if (ply > 0 && TranspositionTable.depthOf(entry) >= depth) {
+        int score = TranspositionTable.scoreOf(entry);
+        int bound = TranspositionTable.boundOf(entry);
+        if (bound == TranspositionTable.EXACT
+            || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+            || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) return score;
+      }
+    }
+
+    int originalAlpha = alpha;
+    int[] plyMoves = moves[ply];
+    int moveCount = orderMoves(board, player, tableMove, plyMoves, priorities[ply]);
+    int[] child = boards[ply + 1];
+    int bestScore = -INFINITY;
+    int bestMove = plyMoves[0];
+    for (int i = 0; i < moveCount; i++) {
+      int pit = plyMoves[i];
+      System.arraycopy(board, 0, child, 0, TOTAL_PITS);
+      int result = sow(child, player, pit);
+
+      int score;
+      if ((result & GAME_OVER) != 0) score = score(child, player) - score(child, opponent(player));
+      else if ((result & EXTRA_TURN) != 0) score = negamax(ply + 1, depth - 1, alpha, beta, player);
+      else score = -negamax(ply + 1, depth - 1, -beta, -alpha, opponent(player));
+      if (isAborted) return 0;
+
+      if (score > bestScore) {
+        bestScore = score;
+        bestMove = pit;
+        if (ply == 0) rootBestMove = pit;
+      }
+      if (bestScore > alpha) alpha = bestScore;
+      if (alpha >= beta) break;
+    }
+
+    int bound =
+        bestScore <= originalAlpha
+            ? TranspositionTable.UPPER_BOUND
+            : bestScore >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+    table.store(hash, depth, bestScore, bound, bestMove);
+    return bestScore;
+  }
+
+  /** Fills {@code moves} with the legal pits of {@code player}, most promising first. */
+  static int orderMoves(int[] board, int player, int tableMove, int[] moves, int[] priorities) {
+    int first = firstPit(player);
+    int store = store(player);
+    int moveCount = 0;
+    for (int pit = first + PITS_PER_SIDE - 1; pit >= first; pit--) {
+      int stones = board[pit];
+      if (stones == 0) continue;
+
+      int priority = pit - first;
+      int distance = store - pit;
+      if (pit == tableMove) priority += TABLE_MOVE_PRIORITY;
+      else if (stones == distance) priority += EXTRA_TURN_PRIORITY;
+      else if (stones < distance) {
+        int lastPit = pit + stones;
+        if (board[lastPit] == 0 && board[oppositePit(lastPit)] != 0)
+          priority += CAPTURE_PRIORITY + board[oppositePit(lastPit)];
+      }
+
+      int i = moveCount++;
+      for (; i > 0 && priorities[i - 1] < priority; i--) {
+        moves[i] = moves[i - 1];
+        priorities[i] = priorities[i - 1];
+      }
+      moves[i] = pit;
+      priorities[i] = priority;
+    }
+    return moveCount;
+  }
+}
@@ -0,0 +1,12 @@
+package com.ashok.kalaha.engine;
+
+/**
+ * Outcome of an analysis. {@code scores} holds the score of every legal move indexed by pit, and
+ * {@link Integer#MIN_VALUE} for the other pits, all searched {@code depth} plies deep by {@code
+ * threads} threads visiting {@code nodes} positions in {@code nanos}.
+ */
+public record AnalysisResult(int depth, int[] scores, long nodes, long nanos, int threads) {
+  public long nodesPerSecond() {
+    return nanos == 0 ? 0 : (long) (nodes * 1_000_000_000.0 / nanos);
+  }
+}
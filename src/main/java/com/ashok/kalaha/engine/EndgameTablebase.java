@@ -0,0 +1,145 @@
+package com.ashok.kalaha.engine;
+
+import static com.ashok.kalaha.engine.KalahaBoard.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Memory mapped perfect play results of every position with at most {@link #maxStones()} stones
+ * left in the small pits, written by {@link EndgameTablebaseGenerator}. The stores don't matter for
+ * the rest of a game, so a position is the 12 small pits seen from the player to move, and it is
+ * indexed by its number of stones and its rank among all ways to spread them over the pits.
+ *
+ * <p>An entry holds the value of the position, the stones the player to move gains over the
+ * opponent from there until the game is over, and the number of plies that takes when both
+ * players play for the best value and, among equal values, for the fastest end. Lookups are
+ * computed from the board in place and don't allocate.
+ */
+public final class EndgameTablebase {
+  public static final int MISS = 0;
+
+  static final int MAGIC = 0x4B544231;
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 64;
+  static final int MAX_STONES_OFFSET = 8;
+  static final int GENERATED_STONES_OFFSET = 12;
+  static final int ENTRY_BYTES = 2;
+
+  private static final int PITS = 2 * PITS_PER_SIDE;
+  private static final long[][] BINOMIAL =
+      new long[EndgameTablebaseGenerator.MAX_STONES + PITS + 1][PITS + 1];
+
+  static {
+    for (int n = 0; n < BINOMIAL.length; n++) {
+      BINOMIAL[n][0] = 1;
+      for (int r = 1; r <= Math.min(n, PITS); r++)
+        BINOMIAL[n][r] = BINOMIAL[n - 1][r - 1] + (r <= n - 1 ? BINOMIAL[n - 1][r] : 0);
+    }
+  }
+
+  private final ByteBuffer buffer;
+  private final int maxStones;
+
+  private EndgameTablebase(ByteBuffer buffer, int maxStones) {
+    this.buffer = buffer;
+    this.maxStones = maxStones;
+  }
+
+  /** Maps the tablebase at {@code path}, covering the stone counts generated completely. */
+  public static EndgameTablebase open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (channel.size() < HEADER_BYTES
+          || buffer.getInt(0) != MAGIC
+          || buffer.getInt(4) != VERSION)
+        throw new IOException(path + " is not an endgame tablebase");
+      int generatedStones = buffer.getInt(GENERATED_STONES_OFFSET);
+      if (channel.size() < HEADER_BYTES + ENTRY_BYTES * positions(generatedStones))
+        throw new IOException(path + " is truncated");
+      return new EndgameTablebase(buffer, generatedStones);
+    }
+  }
+
+  public int maxStones() {
+    return maxStones;
+  }
+
+  /**
+   * Returns the entry of the position with {@code player} to move, or {@link #MISS} when more
+   * stones are left than the tablebase covers.
+   */
+  public int probe(int[] board, int player) {
+    int stones = 0;
+    for (int pit = 0; pit < TOTAL_PITS; pit++) if (!isStore(pit)) stones += board[pit];
+    if (stones > maxStones) return MISS;
+    return buffer.getShort(HEADER_BYTES + ENTRY_BYTES * (int) indexOf(board, player, stones))
+        & 0xFFFF;
+  }
+
+  public static int valueOf(int entry) {
+    return (entry >>> 8) - 128;
+  }
+
+  public static int distanceOf(int entry) {
+    return entry & 0xFF;
+  }
+
+  static int entry(int value, int distance) {
+    return ((value + 128) << 8) | Math.min(distance, 0xFF);
+  }
+
+  /** Number of positions with at most {@code stones} stones in the small pits. */
+  static long positions(int stones) {
+    return stones < 0 ? 0 : BINOMIAL[stones + PITS][PITS];
+  }
+
+  /** Number of positions with exactly {@code stones} stones in the small pits. */
+  static long layerSize(int stones) {
+    return BINOMIAL[stones + PITS - 1][PITS - 1];
+  }
+
+  static long indexOf(int[] board, int player, int stones) {
+    return positions(stones - 1) + rankOf(board, player, stones);
+  }
+
+  /**
+   * Ranks the position among the positions with as many stones in lexicographic order of the
+   * pits, own pits first, each side from the pit farthest from its store.
+   */
+  static long rankOf(int[] board, int player, int stones) {
+    int own = firstPit(player);
+    int opponent = firstPit(opponent(player));
+    long rank = 0;
+    int remaining = stones;
+    for (int i = 0; i < PITS - 1; i++) {
+      int pitStones = board[i < PITS_PER_SIDE ? own + i : opponent + i - PITS_PER_SIDE];
+      int parts = PITS - 1 - i;
+      rank += BINOMIAL[remaining + parts][parts] - BINOMIAL[remaining - pitStones + parts][parts];
+      remaining -= pitStones;
+    }
+    return rank;
+  }
+
+  /** Fills the pits of {@code board} with the position of {@code rank}, player one to move. */
+  static void unrank(long rank, int stones, int[] board) {
+    int remaining = stones;
+    for (int i = 0; i < PITS - 1; i++) {
+      int parts = PITS - 1 - i;
+      int pitStones = 0;
+      for (long block; rank >= (block = BINOMIAL[remaining - pitStones + parts - 1][parts - 1]); ) {
+        rank -= block;
+        pitStones++;
+      }
+      board[i < PITS_PER_SIDE ? i : i + 1] = pitStones;
+      remaining -= pitStones;
+    }
+    board[PLAYER_TWO_STORE - 1] = remaining;
+    board[PLAYER_ONE_STORE] = 0;
+    board[PLAYER_TWO_STORE] = 0;
+  }
+}
@@ -0,0 +1,178 @@
+package com.ashok.kalaha.engine;
+
+import static com.ashok.kalaha.engine.EndgameTablebase.*;
+import static com.ashok.kalaha.engine.KalahaBoard.*;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Writes the {@link EndgameTablebase} of every position with up to a number of stones in the small
+ * pits. Stones that reach a store never leave it, so positions are solved by increasing number of
+ * stones, and a move that keeps every stone in the small pits only moves the player's own stones
+ * towards its store, so positions with as many stones never lead back to themselves and are solved
+ * by recursion.
+ *
+ * <p>The positions of one stone count are solved in parallel on a {@link ForkJoinPool} into memory,
+ * then written to the file, which is forced to disk before its header counts them as generated. An
+ * interrupted generation therefore resumes with the first stone count not yet counted.
+ */
+public final class EndgameTablebaseGenerator {
+  /** Largest stone count whose tablebase, 2 bytes per position, still fits one mapped file. */
+  public static final int MAX_STONES = 23;
+
+  private static final int POSITIONS_PER_TASK = 4096;
+
+  private final ForkJoinPool pool;
+
+  public EndgameTablebaseGenerator(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * Generates the stone counts of the tablebase at {@code path} not generated yet, up to {@code
+   * maxStones}, and returns how many it generated.
+   */
+  public int generate(Path path, int maxStones) throws IOException {
+    if (maxStones < 0 || maxStones > MAX_STONES)
+      throw new IllegalArgumentException("max stones must be between 0 and " + MAX_STONES);
+
+    long size = HEADER_BYTES + ENTRY_BYTES * positions(maxStones);
+    try (FileChannel channel =
+        FileChannel.open(
+            path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      boolean isNew = channel.size() == 0;
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+      if (isNew) {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(MAX_STONES_OFFSET, maxStones);
+        buffer.putInt(GENERATED_STONES_OFFSET, -1);
+        buffer.force();
+      } else if (buffer.getInt(0) != MAGIC
+          || buffer.getInt(4) != VERSION
+          || buffer.getInt(MAX_STONES_OFFSET) != maxStones)
+        throw new IOException(path + " is not an endgame tablebase of " + maxStones + " stones");
+
+      int generated = 0;
+      for (int stones = buffer.getInt(GENERATED_STONES_OFFSET) + 1; stones <= maxStones; stones++) {
+        short[] layer = new short[(int) layerSize(stones)];
+        pool.invoke(new LayerTask(buffer, stones, layer, 0, layer.length));
+        int layerOffset = HEADER_BYTES + ENTRY_BYTES * (int) positions(stones - 1);
+        buffer.slice(layerOffset, ENTRY_BYTES * layer.length).asShortBuffer().put(layer);
+        buffer.force();
+        buffer.putInt(GENERATED_STONES_OFFSET, stones);
+        buffer.force();
+        generated++;
+      }
+      return generated;
+    }
+  }
+
+  private static final class LayerTask extends RecursiveAction {
+    private final MappedByteBuffer buffer;
+    private final int stones;
+    private final short[] layer;
+    private final int from;
+    private final int to;
+
+    private LayerTask(MappedByteBuffer buffer, int stones, short[] layer, int from, int to) {
+      this.buffer = buffer;
+      this.stones = stones;
+      this.layer = layer;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > POSITIONS_PER_TASK) {
+        int middle = (from + to) >>> 1;
+        invokeAll(
+            new LayerTask(buffer, stones, layer, from, middle),
+            new LayerTask(buffer, stones, layer, middle, to));
+        return;
+      }
+      Solver solver = new Solver(buffer, stones, layer);
+      for (int rank = from; rank < to; rank++) solver.solve(rank, 0);
+    }
+  }
+
+  /**
+   * Solves positions of one stone count, looking up positions with fewer stones in the file. Tasks
+   * share the layer and may solve the same position twice, when they don't see each other's
+   * writes yet; both write the same entry, and short writes don't tear.
+   */
+  private static final class Solver {
+    private final MappedByteBuffer buffer;
+    private final int stones;
+    private final short[] layer;
+    private final int[][] boards;
+    private final int[][] children;
+
+    private Solver(MappedByteBuffer buffer, int stones, short[] layer) {
+      this.buffer = buffer;
+      this.stones = stones;
+      this.layer = layer;
+      // every move within the layer takes stones at least one pit closer to their store
+      int maxChain = PITS_PER_SIDE * stones + 2;
+      this.boards = new int[maxChain][TOTAL_PITS];
+      this.children = new int[maxChain][TOTAL_PITS];
+    }
+
+    private int solve(int rank, int depth) {
+      int solved = layer[rank] & 0xFFFF;
+      if (solved != MISS) return solved;
+
+      int[] board = boards[depth];
+      unrank(rank, stones, board);
+      int entry;
+      if (isGameOver(board))
+        entry = entry(score(board, PLAYER_ONE) - score(board, PLAYER_TWO), 0);
+      else {
+        int[] child = children[depth];
+        int bestValue = Integer.MIN_VALUE;
+        int bestDistance = 0;
+        for (int pit = 0; pit < PITS_PER_SIDE; pit++) {
+          if (board[pit] == 0) continue;
+          System.arraycopy(board, 0, child, 0, TOTAL_PITS);
+          int result = sow(child, PLAYER_ONE, pit);
+          int gain = child[PLAYER_ONE_STORE];
+
+          int value;
+          int distance;
+          if ((result & GAME_OVER) != 0) {
+            value = score(child, PLAYER_ONE) - score(child, PLAYER_TWO);
+            distance = 1;
+          } else {
+            int next = (result & EXTRA_TURN) != 0 ? PLAYER_ONE : PLAYER_TWO;
+            int nextEntry =
+                gain > 0
+                    ? lookup(child, next, stones - gain)
+                    : solve((int) rankOf(child, next, stones), depth + 1);
+            value = gain + (next == PLAYER_ONE ? valueOf(nextEntry) : -valueOf(nextEntry));
+            distance = 1 + distanceOf(nextEntry);
+          }
+          if (value > bestValue || (value == bestValue && distance < bestDistance)) {
+            bestValue = value;
+            bestDistance = distance;
+          }
+        }
+        entry = entry(bestValue, bestDistance);
+      }
+      layer[rank] = (short) entry;
+      return entry;
+    }
+
+    private int lookup(int[] board, int player, int boardStones) {
+      return buffer.getShort(
+              HEADER_BYTES + ENTRY_BYTES * (int) indexOf(board, player, boardStones))
+          & 0xFFFF;
+    }
+  }
+}
@@ -0,0 +1,136 @@
+package com.ashok.kalaha.engine;
+
+/**
+ * Allocation free two player kalaha rules over a flat {@code int[14]} board. Index {@code i} holds
+ * the stones of pitId {@code i + 1}, so indexes 0-5 and 7-12 are the small pits and 6 and 13 are
+ * the larger pits of player one and player two.
+ */
+public final class KalahaBoard {
+  public static final int TOTAL_PITS = 14;
+  public static final int PITS_PER_SIDE = 6;
+
+  public static final int PLAYER_ONE = 0;
+  public static final int PLAYER_TWO = 1;
+
+  public static final int PLAYER_ONE_STORE = 6;
+  public static final int PLAYER_TWO_STORE = 13;
+
+  public static final int EXTRA_TURN = 1;
+  public static final int CAPTURE = 1 << 1;
+  public static final int GAME_OVER = 1 << 2;
+
+  private static final int[] STORE = {PLAYER_ONE_STORE, PLAYER_TWO_STORE};
+  private static final int[] FIRST_PIT = {0, PLAYER_ONE_STORE + 1};
+  private static final int[][] NEXT_PIT = new int[2][TOTAL_PITS];
+  private static final int[] OPPOSITE_PIT = new int[TOTAL_PITS];
+  private static final int[] OWNER = new int[TOTAL_PITS];
+
+  static {
+    for (int pit = 0; pit < TOTAL_PITS; pit++) {
+      int next = (pit + 1) % TOTAL_PITS;
+      NEXT_PIT[PLAYER_ONE][pit] = next == PLAYER_TWO_STORE ? 0 : next;
+      NEXT_PIT[PLAYER_TWO][pit] = next == PLAYER_ONE_STORE ? next + 1 : next;
+      OPPOSITE_PIT[pit] = isStore(pit) ? pit : PLAYER_TWO_STORE - 1 - pit;
+      OWNER[pit] = pit <= PLAYER_ONE_STORE ? PLAYER_ONE : PLAYER_TWO;
+    }
+  }
+
+  private KalahaBoard() {}
+
+  public static int[] newBoard(int stones) {
+    int[] board = new int[TOTAL_PITS];
+    reset(board, stones);
+    return board;
+  }
+
+  public static void reset(int[] board, int stones) {
+    for (int pit = 0; pit < TOTAL_PITS; pit++) board[pit] = isStore(pit) ? 0 : stones;
+  }
+
+  public static boolean isStore(int pit) {
+    return pit == PLAYER_ONE_STORE || pit == PLAYER_TWO_STORE;
+  }
+
+  public static int store(int player) {
+    return STORE[player];
+  }
+
+  public static int firstPit(int player) {
+    return FIRST_PIT[player];
+  }
+
+  public static int ownerOf(int pit) {
+    return OWNER[pit];
+  }
+
+  public static int nextPit(int player, int pit) {
+    return NEXT_PIT[player][pit];
+  }
+
+  public static int oppositePit(int pit) {
+    return OPPOSITE_PIT[pit];
+  }
+
+  public static int opponent(int player) {
+    return player ^ 1;
+  }
+
+  public static boolean isLegalMove(int[] board, int player, int pit) {
+    return pit >= 0
+        && pit < TOTAL_PITS
+        && !isStore(pit)
+        && OWNER[pit] == player
+        && board[pit] != 0;
+  }
+
+  /**
+   * Sows the stones of {@code pit} for {@code player} in place and returns a combination of
+   * {@link #EXTRA_TURN}, {@link #CAPTURE} and {@link #GAME_OVER}. The move is assumed to be legal.
+   * Stones that wrap around into the emptied pit extend the sowing, exactly like {@code
+   * TwoPlayerSowingService}.
+   */
+  public static int sow(int[] board, int player, int pit) {
+    int[] next = NEXT_PIT[player];
+    int currentPit = pit;
+    for (int i = 1; i <= board[pit] - 1; i++) {
+      currentPit = next[currentPit];
+      board[currentPit]++;
+    }
+    board[pit] = 0;
+
+    int lastPit = next[currentPit];
+    int result;
+    if (isStore(lastPit)) {
+      board[lastPit]++;
+      result = EXTRA_TURN;
+    } else if (board[lastPit] == 0
+        && OWNER[lastPit] == player
+        && board[OPPOSITE_PIT[lastPit]] != 0) {
+      board[STORE[player]] += board[OPPOSITE_PIT[lastPit]] + 1;
+      board[OPPOSITE_PIT[lastPit]] = 0;
+      result = CAPTURE;
+    } else {
+      board[lastPit]++;
+      result = 0;
+    }
+
+    return isGameOver(board) ? result | GAME_OVER : result;
+  }
+
+  public static boolean isSideEmpty(int[] board, int player) {
+    int first = FIRST_PIT[player];
+    for (int pit = first; pit < first + PITS_PER_SIDE; pit++) if (board[pit] != 0) return false;
+    return true;
+  }
+
+  public static boolean isGameOver(int[] board) {
+    return isSideEmpty(board, PLAYER_ONE) || isSideEmpty(board, PLAYER_TWO);
+  }
+
+  public static int score(int[] board, int player) {
+    int first = FIRST_PIT[player];
+    int score = 0;
+    for (int pit = first; pit <= first + PITS_PER_SIDE; pit++) score += board[pit];
+    return score;
+  }
+}
@@ -0,0 +1,141 @@
+package com.ashok.kalaha.engine;
+
+import static com.ashok.kalaha.engine.KalahaBoard.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Scores every move of a position with all threads of a {@link ForkJoinPool}, lazy SMP style. Each
+ * thread runs its own iterative deepening {@link AlphaBetaSearch#scoreMoves} of the same position
+ * and all of them share one {@link TranspositionTable}, so a thread mostly finds what the others
+ * already searched. Threads start on different moves, and every other thread one ply deeper, to
+ * spread them over the tree. The deepest iteration completed by any thread is the result.
+ */
+public final class ParallelAnalysis {
+  private final ForkJoinPool pool;
+  private final EndgameTablebase tablebase;
+
+  public ParallelAnalysis(ForkJoinPool pool) {
+    this(pool, null);
+  }
+
+  /** Creates an analysis scoring positions with {@code tablebase} when it isn't null. */
+  public ParallelAnalysis(ForkJoinPool pool, EndgameTablebase tablebase) {
+    this.pool = pool;
+    this.tablebase = tablebase;
+  }
+
+  /**
+   * Scores the moves with all threads of the pool sharing {@code table}. The table is used as it
+   * is, callers reusing a table clear it first when earlier results shouldn't count.
+   */
+  public AnalysisResult analyse(
+      int[] board, int player, int maxDepth, long deadlineNanos, TranspositionTable table) {
+    return run(board, player, maxDepth, deadlineNanos, table, pool.getParallelism());
+  }
+
+  /**
+   * Scores the moves like {@link #analyse} on the calling thread only, the baseline the speedup of
+   * the parallel analysis is measured against.
+   */
+  public AnalysisResult analyseSerially(
+      int[] board, int player, int maxDepth, long deadlineNanos, TranspositionTable table) {
+    return new Analysis(board, player, Math.min(maxDepth, AlphaBetaSearch.MAX_DEPTH), 1, tablebase)
+        .run(table, deadlineNanos, System.nanoTime());
+  }
+
+  private AnalysisResult run(
+      int[] board,
+      int player,
+      int maxDepth,
+      long deadlineNanos,
+      TranspositionTable table,
+      int threads) {
+    Analysis analysis =
+        new Analysis(
+            board, player, Math.min(maxDepth, AlphaBetaSearch.MAX_DEPTH), threads, tablebase);
+    long start = System.nanoTime();
+    pool.invoke(
+        new RecursiveAction() {
+          @Override
+          protected void compute() {
+            List<RecursiveAction> workers = new ArrayList<>(threads);
+            for (int worker = 0; worker < threads; worker++)
+              workers.add(analysis.worker(worker, table, deadlineNanos));
+            invokeAll(workers);
+          }
+        });
+    return analysis.result(start);
+  }
+
+  private static final class Analysis {
+    private final int[] board;
+    private final int player;
+    private final int maxDepth;
+    private final int threads;
+    private final EndgameTablebase tablebase;
+    private final AtomicBoolean stopped = new AtomicBoolean();
+    private final AtomicReference<Iteration> deepest = new AtomicReference<>();
+    private final long[] nodes;
+
+    private Analysis(
+        int[] board, int player, int maxDepth, int threads, EndgameTablebase tablebase) {
+      if (isGameOver(board))
+        throw new IllegalArgumentException("no move can be searched on a finished game");
+      this.board = board.clone();
+      this.player = player;
+      this.maxDepth = maxDepth;
+      this.threads = threads;
+      this.tablebase = tablebase;
+      this.nodes = new long[threads];
+    }
+
+    private AnalysisResult run(TranspositionTable table, long deadlineNanos, long start) {
+      worker(0, table, deadlineNanos).invoke();
+      return result(start);
+    }
+
+    private RecursiveAction worker(int index, TranspositionTable table, long deadlineNanos) {
+      return new RecursiveAction() {
+        @Override
+        protected void compute() {
+          AlphaBetaSearch search = new AlphaBetaSearch(table, stopped, tablebase);
+          int[] scores = new int[TOTAL_PITS];
+          for (int depth = 1 + index % 2; depth <= maxDepth && !stopped.get(); depth++) {
+            boolean mayAbort = index != 0 || depth > 1;
+            if (!search.scoreMoves(board, player, depth, index, deadlineNanos, mayAbort, scores))
+              break;
+            publish(depth, scores);
+            if (depth == maxDepth) stopped.set(true);
+          }
+          nodes[index] = search.getNodes();
+        }
+      };
+    }
+
+    private void publish(int depth, int[] scores) {
+      Iteration iteration = new Iteration(depth, scores.clone());
+      deepest.accumulateAndGet(
+          iteration,
+          (current, next) -> current == null || next.depth > current.depth ? next : current);
+    }
+
+    private AnalysisResult result(long start) {
+      Iteration iteration = deepest.get();
+      int[] scores = new int[TOTAL_PITS];
+      Arrays.fill(scores, Integer.MIN_VALUE);
+      for (int pit = firstPit(player); pit < firstPit(player) + PITS_PER_SIDE; pit++)
+        if (board[pit] != 0) scores[pit] = iteration.scores[pit];
+      return new AnalysisResult(
+          iteration.depth, scores, Arrays.stream(nodes).sum(), System.nanoTime() - start, threads);
+    }
+  }
+
+  private record Iteration(int depth, int[] scores) {}
+}
@@ -0,0 +1,8 @@
+package com.ashok.kalaha.engine;
+
+/**
+ * Outcome of a search. {@code pit} is the board index of the best move and {@code score} its value
+ * for the player to move, in stones ahead of the opponent, reached at {@code depth} plies after
+ * visiting {@code nodes} positions in {@code nanos}.
+ */
+public record SearchResult(int pit, int score, int depth, long nodes, long nanos) {}
@@ -0,0 +1,82 @@
+package com.ashok.kalaha.engine;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed size, lock free transposition table shared by any number of searching threads. Every slot
+ * is two longs, the packed entry and the position hash xor the entry. Slots are written without
+ * locks, so a slot can be torn by two concurrent writers, and a probe only accepts an entry whose
+ * second long still matches the hash, which throws torn slots away as misses.
+ */
+public final class TranspositionTable {
+  public static final long MISS = 0L;
+
+  public static final int EXACT = 1;
+  public static final int LOWER_BOUND = 2;
+  public static final int UPPER_BOUND = 3;
+
+  private final AtomicLongArray slots;
+  private final int mask;
+
+  /** Creates a table of {@code entries} entries, rounded up to a power of two. */
+  public TranspositionTable(int entries) {
+    int size = Integer.highestOneBit(Math.max(2, entries - 1)) << 1;
+    this.slots = new AtomicLongArray(2 * size);
+    this.mask = size - 1;
+  }
+
+  /** Returns the packed entry of the position or {@link #MISS}. */
+  public long probe(long hash) {
+    int slot = slotOf(hash);
+    long entry = slots.getOpaque(slot);
+    return entry != MISS && (slots.getOpaque(slot + 1) ^ entry) == hash ? entry : MISS;
+  }
+
+  /**
+   * Stores the result of a search of {@code depth} plies. An entry of another position is always
+   * replaced, an entry of the same position only by a search at least as deep.
+   */
+  public void store(long hash, int depth, int score, int bound, int move) {
+    int slot = slotOf(hash);
+    long existing = slots.getOpaque(slot);
+    if (existing != MISS
+        && (slots.getOpaque(slot + 1) ^ existing) == hash
+        && depthOf(existing) > depth) return;
+
+    long entry =
+        (score & 0xFFFFFFFFL)
+            | ((long) (depth & 0xFF) << 32)
+            | ((long) bound << 40)
+            | ((long) (move & 0xF) << 42);
+    slots.setOpaque(slot, entry);
+    slots.setOpaque(slot + 1, hash ^ entry);
+  }
+
+  public void clear() {
+    for (int slot = 0; slot < slots.length(); slot++) slots.setOpaque(slot, MISS);
+  }
+
+  public int size() {
+    return mask + 1;
+  }
+
+  public static int scoreOf(long entry) {
+    return (int) entry;
+  }
+
+  public static int depthOf(long entry) {
+    return (int) (entry >>> 32) & 0xFF;
+  }
+
+  public static int boundOf(long entry) {
+    return (int) (entry >>> 40) & 0x3;
+  }
+
+  public static int moveOf(long entry) {
+    return (int) (entry >>> 42) & 0xF;
+  }
+
+  private int slotOf(long hash) {
+    return ((int) (hash ^ (hash >>> 32)) & mask) << 1;
+  }
+}
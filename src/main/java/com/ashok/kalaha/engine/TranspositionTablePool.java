@@ -0,0 +1,36 @@
+package com.ashok.kalaha.engine;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * At most {@code capacity} transposition tables of {@code entries} entries, created when first
+ * needed and reused afterwards, so concurrent searches can't take more memory than the capacity
+ * allows. A borrowed table is cleared and belongs to the borrower until it is returned.
+ */
+public final class TranspositionTablePool {
+  private final int entries;
+  private final Semaphore available;
+  private final ConcurrentLinkedQueue<TranspositionTable> tables = new ConcurrentLinkedQueue<>();
+
+  public TranspositionTablePool(int capacity, int entries) {
+    if (capacity < 1) throw new IllegalArgumentException("capacity must be at least 1");
+    this.entries = entries;
+    this.available = new Semaphore(capacity);
+  }
+
+  /** Returns a cleared table, or null when all tables are borrowed. */
+  public TranspositionTable borrow() {
+    if (!available.tryAcquire()) return null;
+
+    TranspositionTable table = tables.poll();
+    if (table == null) return new TranspositionTable(entries);
+    table.clear();
+    return table;
+  }
+
+  public void giveBack(TranspositionTable table) {
+    tables.offer(table);
+    available.release();
+  }
+}
@@ -0,0 +1,42 @@
+package com.ashok.kalaha.engine;
+
+import static com.ashok.kalaha.engine.KalahaBoard.TOTAL_PITS;
+
+/**
+ * Zobrist hashing of {@link KalahaBoard} positions. Every pit and stone count has a fixed random
+ * key, and a position hashes to the xor of the keys of its pits and of the player to move. Stone
+ * counts beyond the precomputed keys are hashed on the fly, so any number of stones is supported.
+ */
+public final class Zobrist {
+  private static final int TABLE_STONES = 128;
+  private static final long[][] KEYS = new long[TOTAL_PITS][TABLE_STONES];
+  private static final long PLAYER_TWO_KEY = mix(-1L);
+
+  static {
+    for (int pit = 0; pit < TOTAL_PITS; pit++)
+      for (int stones = 0; stones < TABLE_STONES; stones++) KEYS[pit][stones] = key(pit, stones);
+  }
+
+  private Zobrist() {}
+
+  public static long hash(int[] board, int player) {
+    long hash = player == KalahaBoard.PLAYER_ONE ? 0L : PLAYER_TWO_KEY;
+    for (int pit = 0; pit < TOTAL_PITS; pit++) {
+      int stones = board[pit];
+      hash ^= stones < TABLE_STONES ? KEYS[pit][stones] : key(pit, stones);
+    }
+    return hash;
+  }
+
+  private static long key(int pit, int stones) {
+    return mix(((long) pit << 32) | stones);
+  }
+
+  /** The splitmix64 finalizer, spreads consecutive inputs over all 64 bits. */
+  private static long mix(long value) {
+    long z = value + 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
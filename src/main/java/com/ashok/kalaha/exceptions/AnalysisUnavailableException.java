@@ -0,0 +1,7 @@
+package com.ashok.kalaha.exceptions;
+
+public class AnalysisUnavailableException extends RuntimeException {
+  public AnalysisUnavailableException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,7 @@
+package com.ashok.kalaha.exceptions;
+
+public class GameUpdateConflictException extends RuntimeException {
+  public GameUpdateConflictException(String message) {
+    super(message);
+  }
+}
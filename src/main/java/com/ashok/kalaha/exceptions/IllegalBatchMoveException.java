@@ -0,0 +1,15 @@
+package com.ashok.kalaha.exceptions;
+
+import lombok.Getter;
+
+@Getter
+public class IllegalBatchMoveException extends RuntimeException {
+  private final int moveIndex;
+
+  public IllegalBatchMoveException(int moveIndex, Integer pitId, RuntimeException cause) {
+    super(
+        "move " + moveIndex + " sowing from pit " + pitId + " is not allowed: " + cause.getMessage(),
+        cause);
+    this.moveIndex = moveIndex;
+  }
+}
@@ -2,8 +2,11 @@ package com.ashok.kalaha.exceptions.handler;
 
 import com.ashok.kalaha.dto.ErrorDetails;
 import com.ashok.kalaha.exceptions.*;
+import com.ashok.kalaha.metrics.GameMetrics;
 import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -13,7 +16,10 @@ import org.springframework.web.context.request.WebRequest;
 
 @Slf4j
 @RestControllerAdvice
+@Profile("!reactive")
+@AllArgsConstructor
 public class GlobalExceptionHandler {
+  private GameMetrics gameMetrics;
 
   @ExceptionHandler(
       value = {
@@ -28,6 +34,22 @@ public class GlobalExceptionHandler {
     return logAndBuildResponseEntity(ex, request, HttpStatus.BAD_REQUEST);
   }
 
+  @ExceptionHandler(IllegalBatchMoveException.class)
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  public ResponseEntity<?> handleIllegalBatchMoveException(
+      IllegalBatchMoveException ex, WebRequest request) {
+    var errorDetails =
+        new ErrorDetails(
+            ex.getMessage(),
+            request.getDescription(false),
+            ex.getCause().getClass().getSimpleName(),
+            LocalDateTime.now(),
+            ex.getMoveIndex());
+    log.error(errorDetails.toString());
+    gameMetrics.countException(ex);
+    return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+  }
+
   @ExceptionHandler(GameNotFoundException.class)
   @ResponseStatus(HttpStatus.NOT_FOUND)
   public ResponseEntity<?> handleGameNotFoundException(
@@ -35,6 +57,20 @@ public class GlobalExceptionHandler {
     return logAndBuildResponseEntity(ex, request, HttpStatus.NOT_FOUND);
   }
 
+  @ExceptionHandler(GameUpdateConflictException.class)
+  @ResponseStatus(HttpStatus.CONFLICT)
+  public ResponseEntity<?> handleGameUpdateConflictException(
+      GameUpdateConflictException ex, WebRequest request) {
+    return logAndBuildResponseEntity(ex, request, HttpStatus.CONFLICT);
+  }
+
+  @ExceptionHandler(AnalysisUnavailableException.class)
+  @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+  public ResponseEntity<?> handleAnalysisUnavailableException(
+      AnalysisUnavailableException ex, WebRequest request) {
+    return logAndBuildResponseEntity(ex, request, HttpStatus.SERVICE_UNAVAILABLE);
+  }
+
   @ExceptionHandler(Exception.class)
   @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
   public ResponseEntity<?> handleUnhandledExceptions(Exception ex, WebRequest request) {
@@ -48,8 +84,10 @@ public class GlobalExceptionHandler {
             ex.getMessage(),
             request.getDescription(false),
             ex.getClass().getSimpleName(),
-            LocalDateTime.now());
+            LocalDateTime.now(),
+            null);
     log.error(errorDetails.toString());
+    gameMetrics.countException(ex);
     return new ResponseEntity<>(errorDetails, httpStatus);
   }
 }
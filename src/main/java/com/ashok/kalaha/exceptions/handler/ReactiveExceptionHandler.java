@@ -0,0 +1,66 @@
+package com.ashok.kalaha.exceptions.handler;
+
+import com.ashok.kalaha.dto.ErrorDetails;
+import com.ashok.kalaha.exceptions.*;
+import com.ashok.kalaha.metrics.GameMetrics;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/** Same error responses as {@link GlobalExceptionHandler}, for the reactive stack. */
+@Slf4j
+@RestControllerAdvice
+@Profile("reactive")
+@AllArgsConstructor
+public class ReactiveExceptionHandler {
+  private GameMetrics gameMetrics;
+
+  @ExceptionHandler(
+      value = {
+        GameException.class,
+        GameCompletedException.class,
+        SowingFromLargerPitException.class,
+        NotYourTurnException.class,
+        SowingFromEmptyPitException.class
+      })
+  public ResponseEntity<?> handleGameExceptions(Exception ex, ServerHttpRequest request) {
+    return logAndBuildResponseEntity(ex, request, HttpStatus.BAD_REQUEST);
+  }
+
+  @ExceptionHandler(GameNotFoundException.class)
+  public ResponseEntity<?> handleGameNotFoundException(
+      GameNotFoundException ex, ServerHttpRequest request) {
+    return logAndBuildResponseEntity(ex, request, HttpStatus.NOT_FOUND);
+  }
+
+  @ExceptionHandler(GameUpdateConflictException.class)
+  public ResponseEntity<?> handleGameUpdateConflictException(
+      GameUpdateConflictException ex, ServerHttpRequest request) {
+    return logAndBuildResponseEntity(ex, request, HttpStatus.CONFLICT);
+  }
+
+  @ExceptionHandler(Exception.class)
+  public ResponseEntity<?> handleUnhandledExceptions(Exception ex, ServerHttpRequest request) {
+    return logAndBuildResponseEntity(ex, request, HttpStatus.INTERNAL_SERVER_ERROR);
+  }
+
+  private ResponseEntity<?> logAndBuildResponseEntity(
+      Exception ex, ServerHttpRequest request, HttpStatus httpStatus) {
+    var errorDetails =
+        new ErrorDetails(
+            ex.getMessage(),
+            "uri=" + request.getPath().value(),
+            ex.getClass().getSimpleName(),
+            LocalDateTime.now(),
+            null);
+    log.error(errorDetails.toString());
+    gameMetrics.countException(ex);
+    return new ResponseEntity<>(errorDetails, httpStatus);
+  }
+}
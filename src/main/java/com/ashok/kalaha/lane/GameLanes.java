@@ -0,0 +1,381 @@
+package com.ashok.kalaha.lane;
+
+import com.ashok.kalaha.api.GameEventService;
+import com.ashok.kalaha.api.GameService;
+import com.ashok.kalaha.config.KalahaProperties;
+import com.ashok.kalaha.dto.GameDelta;
+import com.ashok.kalaha.exceptions.GameNotFoundException;
+import com.ashok.kalaha.exceptions.GameUpdateConflictException;
+import com.ashok.kalaha.lane.MoveJournal.JournaledGame;
+import com.ashok.kalaha.metrics.GameMetrics;
+import com.ashok.kalaha.model.Game;
+import com.ashok.kalaha.model.GameStatus;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Serializes the moves of every game without locks. Each gameId hashes to one single threaded lane
+ * that owns the game in memory, so moves of one game are applied one after another in arrival
+ * order while moves of games on other lanes run in parallel. Games are loaded on first use and
+ * written behind to mongo every flush interval, guarded by the revision last written. A game
+ * changed outside of its lane loses the moves since that revision; the lane then reloads it, counts
+ * the lost moves and sends the stored board to the subscribers as a correction.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "kalaha.lanes", name = "enabled", havingValue = "true")
+public class GameLanes {
+  private final GameService gameService;
+  private final GameEventService gameEventService;
+  private final GameMetrics gameMetrics;
+  private final KalahaProperties.Lanes properties;
+  private final Lane[] lanes;
+
+  public GameLanes(
+      GameService gameService,
+      GameEventService gameEventService,
+      GameMetrics gameMetrics,
+      KalahaProperties kalahaProperties) {
+    this.gameService = gameService;
+    this.gameEventService = gameEventService;
+    this.gameMetrics = gameMetrics;
+    this.properties = kalahaProperties.getLanes();
+    this.lanes = new Lane[Math.max(1, properties.getCount())];
+    for (int i = 0; i < lanes.length; i++) lanes[i] = new Lane(i);
+    if (properties.getJournal().isEnabled()) recoverJournals();
+    for (Lane lane : lanes) lane.start();
+  }
+
+  /**
+   * Applies {@code action} to a copy of the game on the game's lane with the revision already
+   * incremented. The copy replaces the owned game only when {@code action} completes, so a failing
+   * action leaves the game untouched.
+   */
+  public <T> T call(String gameId, Function<Game, T> action) {
+    return call(gameId, action, null);
+  }
+
+  /**
+   * Same as {@link #call(String, Function)}, and hands the result to {@code onWritten} on the lane
+   * once the game is written to mongo. Moves lost because the game changed outside of its lane
+   * never reach {@code onWritten}, nor do moves recovered from a journal after a restart.
+   */
+  public <T> T call(String gameId, Function<Game, T> action, Consumer<T> onWritten) {
+    Lane lane = laneOf(gameId);
+    return await(
+        CompletableFuture.supplyAsync(() -> lane.apply(gameId, action, onWritten), lane.executor));
+  }
+
+  public Game read(String gameId) {
+    Lane lane = laneOf(gameId);
+    return await(
+        CompletableFuture.supplyAsync(() -> new Game(lane.ownedGame(gameId).game), lane.executor));
+  }
+
+  public void flush() {
+    for (Lane lane : lanes) await(CompletableFuture.runAsync(lane::flush, lane.executor));
+  }
+
+  public int getOwnedGameCount() {
+    int ownedGames = 0;
+    for (Lane lane : lanes) ownedGames += lane.ownedGameCount;
+    return ownedGames;
+  }
+
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    for (Lane lane : lanes) {
+      try {
+        lane.executor.submit(lane::flush).get();
+      } catch (ExecutionException e) {
+        log.error("could not flush lane " + lane.index + " on shutdown", e.getCause());
+      }
+      lane.executor.shutdown();
+      lane.executor.awaitTermination(10, TimeUnit.SECONDS);
+      if (lane.journal != null) {
+        try {
+          lane.journal.close();
+        } catch (IOException e) {
+          log.error("could not close move journal of lane " + lane.index, e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Opens the journal of every lane and takes over the games journaled before a restart as changed
+   * games, so the next flush writes them. Journals of lanes that no longer exist are moved to the
+   * lane now owning their games and deleted.
+   */
+  private void recoverJournals() {
+    KalahaProperties.Journal journalProperties = properties.getJournal();
+    Map<String, JournaledGame> recoveredGames = new HashMap<>();
+    Map<String, Lane> journaledOn = new HashMap<>();
+    try {
+      Files.createDirectories(journalProperties.getDirectory());
+      for (Lane lane : lanes) {
+        lane.journal = openJournal(lane.index);
+        collect(lane.journal.replay(), lane, recoveredGames, journaledOn);
+      }
+
+      List<Path> orphanedJournals = new ArrayList<>();
+      try (DirectoryStream<Path> journals =
+          Files.newDirectoryStream(journalProperties.getDirectory(), "lane-*.journal")) {
+        for (Path path : journals) {
+          if (Arrays.stream(lanes).anyMatch(lane -> lane.journal.getPath().equals(path))) continue;
+          try (MoveJournal orphanedJournal = openJournal(path)) {
+            collect(orphanedJournal.replay(), null, recoveredGames, journaledOn);
+          }
+          orphanedJournals.add(path);
+        }
+      }
+
+      recoveredGames.forEach(
+          (gameId, journaledGame) ->
+              laneOf(gameId).recover(journaledGame, journaledOn.get(gameId) != laneOf(gameId)));
+      for (Path path : orphanedJournals) Files.delete(path);
+    } catch (IOException e) {
+      throw new UncheckedIOException("could not recover move journals", e);
+    }
+    if (!recoveredGames.isEmpty())
+      log.info("recovered " + recoveredGames.size() + " games from move journals");
+  }
+
+  private static void collect(
+      Map<String, JournaledGame> journaledGames,
+      Lane lane,
+      Map<String, JournaledGame> recoveredGames,
+      Map<String, Lane> journaledOn) {
+    journaledGames.forEach(
+        (gameId, journaledGame) -> {
+          JournaledGame recovered = recoveredGames.get(gameId);
+          if (recovered != null
+              && recovered.game().getRevision() >= journaledGame.game().getRevision()) return;
+          recoveredGames.put(gameId, journaledGame);
+          journaledOn.put(gameId, lane);
+        });
+  }
+
+  private MoveJournal openJournal(int laneIndex) throws IOException {
+    return openJournal(
+        properties.getJournal().getDirectory().resolve("lane-" + laneIndex + ".journal"));
+  }
+
+  private MoveJournal openJournal(Path path) throws IOException {
+    KalahaProperties.Journal journalProperties = properties.getJournal();
+    long size = journalProperties.getSize().toBytes();
+    if (Files.exists(path)) size = Math.max(size, Files.size(path));
+    return new MoveJournal(path, size, journalProperties.isForceOnAppend());
+  }
+
+  private Lane laneOf(String gameId) {
+    return lanes[Math.floorMod(gameId.hashCode(), lanes.length)];
+  }
+
+  private static <T> T await(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) throw cause;
+      throw e;
+    }
+  }
+
+  private static final class OwnedGame {
+    private Game game;
+    private long storedRevision;
+    private boolean dirty;
+    private long lastUsedNanos;
+    private final List<Runnable> onWritten = new ArrayList<>();
+
+    private boolean recovered;
+
+    private OwnedGame(Game game) {
+      own(game);
+    }
+
+    private OwnedGame(JournaledGame journaledGame) {
+      this.game = journaledGame.game();
+      this.storedRevision = journaledGame.storedRevision();
+      this.dirty = true;
+      this.recovered = true;
+      this.lastUsedNanos = System.nanoTime();
+    }
+
+    /** Takes over the game as stored, forgetting every move not written yet. */
+    private void own(Game storedGame) {
+      this.game = storedGame;
+      this.storedRevision = storedGame.getRevision() != null ? storedGame.getRevision() : 0L;
+      if (storedGame.getRevision() == null) storedGame.setRevision(storedRevision);
+      this.dirty = false;
+      this.recovered = false;
+      this.onWritten.clear();
+    }
+  }
+
+  private final class Lane {
+    private final int index;
+    private final ScheduledExecutorService executor;
+    private final Map<String, OwnedGame> games = new HashMap<>();
+    private MoveJournal journal;
+    private volatile int ownedGameCount;
+
+    private Lane(int index) {
+      this.index = index;
+      this.executor =
+          Executors.newSingleThreadScheduledExecutor(
+              runnable -> {
+                Thread thread = new Thread(runnable, "kalaha-lane-" + index);
+                thread.setDaemon(true);
+                return thread;
+              });
+    }
+
+    private void start() {
+      ownedGameCount = games.size();
+      long flushInterval = properties.getFlushInterval().toMillis();
+      executor.scheduleWithFixedDelay(
+          this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    private void recover(JournaledGame journaledGame, boolean isJournaledElsewhere) {
+      games.put(journaledGame.game().getGameId(), new OwnedGame(journaledGame));
+      if (isJournaledElsewhere) journal(journaledGame.game(), journaledGame.storedRevision());
+    }
+
+    private <T> T apply(String gameId, Function<Game, T> action, Consumer<T> onWritten) {
+      if (journal != null) makeRoomFor(gameId);
+      OwnedGame ownedGame = ownedGame(gameId);
+      Game game = new Game(ownedGame.game);
+      game.setRevision(game.getRevision() + 1);
+
+      T result = action.apply(game);
+      if (journal != null && !journal.append(game, ownedGame.storedRevision))
+        throw journalFull();
+      ownedGame.game = game;
+      ownedGame.dirty = true;
+      if (onWritten != null) ownedGame.onWritten.add(() -> onWritten.accept(result));
+      return result;
+    }
+
+    /**
+     * Flushes before the move rather than after it when the journal is full, a flush may write the
+     * game with a new stored revision or drop it, so the move must start from what is left.
+     */
+    private void makeRoomFor(String gameId) {
+      if (journal.hasRoomFor(ownedGame(gameId).game)) return;
+      flush();
+      if (!journal.hasRoomFor(ownedGame(gameId).game)) throw journalFull();
+    }
+
+    private void journal(Game game, long storedRevision) {
+      if (journal.append(game, storedRevision)) return;
+      flush();
+      if (!journal.append(game, storedRevision)) throw journalFull();
+    }
+
+    private IllegalStateException journalFull() {
+      return new IllegalStateException(
+          "move journal of lane " + index + " is full, games can't be written to mongo");
+    }
+
+    private OwnedGame ownedGame(String gameId) {
+      OwnedGame ownedGame = games.get(gameId);
+      if (ownedGame == null) {
+        ownedGame = new OwnedGame(gameService.loadGame(gameId));
+        games.put(gameId, ownedGame);
+        ownedGameCount = games.size();
+      }
+      ownedGame.lastUsedNanos = System.nanoTime();
+      return ownedGame;
+    }
+
+    private void flush() {
+      long idleBefore = System.nanoTime() - properties.getIdleTimeout().toNanos();
+      boolean isJournalWritten = true;
+      Iterator<Map.Entry<String, OwnedGame>> it = games.entrySet().iterator();
+      while (it.hasNext()) {
+        Map.Entry<String, OwnedGame> entry = it.next();
+        OwnedGame ownedGame = entry.getValue();
+        if (ownedGame.dirty && !write(entry.getKey(), ownedGame)) it.remove();
+        else if (ownedGame.dirty) isJournalWritten = false;
+        else if (isCompleted(ownedGame.game) || ownedGame.lastUsedNanos < idleBefore) it.remove();
+      }
+      ownedGameCount = games.size();
+      if (journal != null && isJournalWritten && journal.size() > 0) journal.reset();
+    }
+
+    private boolean write(String gameId, OwnedGame ownedGame) {
+      try {
+        gameService.saveGame(ownedGame.game, ownedGame.storedRevision);
+      } catch (GameUpdateConflictException | GameNotFoundException e) {
+        if (!ownedGame.recovered) return reload(gameId, ownedGame, e);
+        log.info("journaled gameId: " + gameId + " was already written");
+        return false;
+      } catch (RuntimeException e) {
+        log.error("could not write gameId: " + gameId + ", retrying on next flush", e);
+        return true;
+      }
+      ownedGame.storedRevision = ownedGame.game.getRevision();
+      ownedGame.dirty = false;
+      ownedGame.recovered = false;
+      for (Runnable onWritten : ownedGame.onWritten) {
+        try {
+          onWritten.run();
+        } catch (RuntimeException e) {
+          log.error("could not complete written moves of gameId: " + gameId, e);
+        }
+      }
+      ownedGame.onWritten.clear();
+      return true;
+    }
+
+    /**
+     * The moves since the stored revision were acknowledged and sent to subscribers but can't be
+     * written, so subscribers get the stored board as a correction. Returns false when the game is
+     * gone.
+     */
+    private boolean reload(String gameId, OwnedGame ownedGame, RuntimeException cause) {
+      long lostMoves = ownedGame.game.getRevision() - ownedGame.storedRevision;
+      gameMetrics.countLostLaneMoves(lostMoves);
+      log.error(
+          "lost " + lostMoves + " moves of gameId: " + gameId + " changed outside of its lane",
+          cause);
+      try {
+        gameService.evictGame(gameId);
+        ownedGame.own(gameService.loadGame(gameId));
+      } catch (RuntimeException e) {
+        log.error("could not reload gameId: " + gameId + " changed outside of its lane", e);
+        return false;
+      }
+      gameEventService.publish(GameDelta.correctionOf(ownedGame.game));
+      return true;
+    }
+
+    private boolean isCompleted(Game game) {
+      return game.getGameStatus() == GameStatus.COMPLETED
+          || game.getGameStatus() == GameStatus.COMPLETED_DRAW;
+    }
+  }
+}
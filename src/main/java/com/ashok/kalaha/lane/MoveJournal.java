@@ -0,0 +1,223 @@
+package com.ashok.kalaha.lane;
+
+import com.ashok.kalaha.model.Game;
+import com.ashok.kalaha.model.GameStatus;
+import com.ashok.kalaha.model.Pit;
+import com.ashok.kalaha.model.Player;
+import com.ashok.kalaha.model.PlayerTurn;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Append only journal of game states in a memory mapped file, written by a single lane thread.
+ * Every record holds the whole game after a move together with the revision stored in mongo, so
+ * replaying keeps the last record per game. A record is {@code length, crc32c, payload}; a zero
+ * length or a checksum mismatch, as left by a torn write, ends the journal.
+ *
+ * <p>The file starts with {@code magic, version}, files with another magic or version are refused
+ * rather than read as moves.
+ */
+public class MoveJournal implements Closeable {
+  private static final int MAGIC = 0x4b4a524e;
+  private static final int VERSION = 2;
+  private static final int FILE_HEADER_BYTES = 2 * Integer.BYTES;
+  private static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+  private final Path path;
+  private final FileChannel channel;
+  private final MappedByteBuffer buffer;
+  private final boolean forceOnAppend;
+  private final CRC32C crc = new CRC32C();
+
+  public MoveJournal(Path path, long size, boolean forceOnAppend) throws IOException {
+    this.path = path;
+    this.channel =
+        FileChannel.open(
+            path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    this.forceOnAppend = forceOnAppend;
+
+    int magic = buffer.getInt(0);
+    if (magic == 0) {
+      writeFileHeader();
+    } else if (magic != MAGIC) {
+      channel.close();
+      throw new IOException(path + " is not a move journal");
+    } else if (buffer.getInt(Integer.BYTES) != VERSION) {
+      channel.close();
+      throw new IOException(
+          "move journal " + path + " has unknown version " + buffer.getInt(Integer.BYTES));
+    } else {
+      buffer.position(FILE_HEADER_BYTES);
+    }
+  }
+
+  public record JournaledGame(Game game, long storedRevision) {}
+
+  /** Reads the journal from the start and positions it after the last intact record. */
+  public Map<String, JournaledGame> replay() {
+    Map<String, JournaledGame> games = new LinkedHashMap<>();
+    buffer.position(FILE_HEADER_BYTES);
+    while (buffer.remaining() > HEADER_BYTES) {
+      int start = buffer.position();
+      int length = buffer.getInt();
+      int checksum = buffer.getInt();
+      if (length <= 0 || length > buffer.remaining() || checksum != checksum(start, length)) {
+        buffer.position(start);
+        break;
+      }
+      try {
+        JournaledGame journaledGame = read(buffer.slice(buffer.position(), length));
+        games.put(journaledGame.game().getGameId(), journaledGame);
+      } catch (BufferUnderflowException | IllegalArgumentException e) {
+        buffer.position(start);
+        break;
+      }
+      buffer.position(start + HEADER_BYTES + length);
+    }
+    return games;
+  }
+
+  /**
+   * Appends the game, returns false when the journal has no room left for it. The record is
+   * visible to a replay after a crash of the process once this returns, and after a crash of the
+   * machine only with force on append.
+   */
+  public boolean append(Game game, long storedRevision) {
+    int start = buffer.position();
+    try {
+      buffer.position(start + HEADER_BYTES);
+      write(buffer, game, storedRevision);
+      int length = buffer.position() - start - HEADER_BYTES;
+      if (buffer.remaining() >= Integer.BYTES) buffer.putInt(buffer.position(), 0);
+      buffer.putInt(start + Integer.BYTES, checksum(start, length));
+      buffer.putInt(start, length);
+    } catch (BufferOverflowException | IllegalArgumentException e) {
+      buffer.position(start);
+      return false;
+    }
+    if (forceOnAppend) buffer.force();
+    return true;
+  }
+
+  /** Returns whether a record of the game fits, records of one game always have the same length. */
+  public boolean hasRoomFor(Game game) {
+    return buffer.remaining() >= HEADER_BYTES + recordBytes(game);
+  }
+
+  /** Discards every record, called once all journaled games are written to mongo. */
+  public void reset() {
+    buffer.putInt(FILE_HEADER_BYTES, 0);
+    buffer.position(FILE_HEADER_BYTES);
+    if (forceOnAppend) buffer.force();
+  }
+
+  /** Returns the bytes taken by records. */
+  public int size() {
+    return buffer.position() - FILE_HEADER_BYTES;
+  }
+
+  public Path getPath() {
+    return path;
+  }
+
+  @Override
+  public void close() throws IOException {
+    buffer.force();
+    channel.close();
+  }
+
+  private void writeFileHeader() {
+    buffer.putInt(0, MAGIC).putInt(Integer.BYTES, VERSION).putInt(FILE_HEADER_BYTES, 0);
+    buffer.position(FILE_HEADER_BYTES);
+  }
+
+  private int checksum(int start, int length) {
+    crc.reset();
+    crc.update(buffer.slice(start + HEADER_BYTES, length));
+    return (int) crc.getValue();
+  }
+
+  private static void write(ByteBuffer buffer, Game game, long storedRevision) {
+    byte[] gameId = game.getGameId().getBytes(StandardCharsets.UTF_8);
+    buffer.putShort((short) gameId.length).put(gameId);
+    buffer.putLong(game.getRevision()).putLong(storedRevision);
+    buffer.put(ordinal(game.getPlayerTurn()));
+    buffer.put(ordinal(game.getGameStatus()));
+    buffer.put(ordinal(game.getWinner()));
+    buffer.put(game.getNumberOfPlayers().byteValue());
+    buffer.putLong(epochMilli(game.getCreatedAt())).putLong(epochMilli(game.getUpdatedAt()));
+
+    List<Pit> pits = game.getPits();
+    buffer.putShort((short) pits.size());
+    for (Pit pit : pits) buffer.putInt(pit.getStones());
+  }
+
+  private static int recordBytes(Game game) {
+    return Short.BYTES
+        + game.getGameId().getBytes(StandardCharsets.UTF_8).length
+        + 4 * Long.BYTES
+        + 4 * Byte.BYTES
+        + Short.BYTES
+        + game.getPits().size() * Integer.BYTES;
+  }
+
+  private static JournaledGame read(ByteBuffer buffer) {
+    byte[] gameId = new byte[buffer.getShort()];
+    buffer.get(gameId);
+    long revision = buffer.getLong();
+    long storedRevision = buffer.getLong();
+    byte playerTurn = buffer.get();
+    byte gameStatus = buffer.get();
+    byte winner = buffer.get();
+    int numberOfPlayers = buffer.get();
+    Instant createdAt = instant(buffer.getLong());
+    Instant updatedAt = instant(buffer.getLong());
+
+    Game game = new Game(0, numberOfPlayers);
+    List<Pit> pits = game.getPits();
+    if (buffer.getShort() != pits.size()) throw new IllegalArgumentException("pits don't match");
+    for (Pit pit : pits) pit.setStones(buffer.getInt());
+
+    game.setGameId(new String(gameId, StandardCharsets.UTF_8));
+    game.setRevision(revision);
+    game.setPlayerTurn(valueOf(PlayerTurn.values(), playerTurn));
+    game.setGameStatus(valueOf(GameStatus.values(), gameStatus));
+    game.setWinner(valueOf(Player.values(), winner));
+    game.setCreatedAt(createdAt);
+    game.setUpdatedAt(updatedAt);
+    return new JournaledGame(game, storedRevision);
+  }
+
+  private static long epochMilli(Instant instant) {
+    return instant == null ? Long.MIN_VALUE : instant.toEpochMilli();
+  }
+
+  private static Instant instant(long epochMilli) {
+    return epochMilli == Long.MIN_VALUE ? null : Instant.ofEpochMilli(epochMilli);
+  }
+
+  private static byte ordinal(Enum<?> value) {
+    return (byte) (value == null ? -1 : value.ordinal());
+  }
+
+  private static <E extends Enum<E>> E valueOf(E[] values, byte ordinal) {
+    if (ordinal == -1) return null;
+    if (ordinal < 0 || ordinal >= values.length)
+      throw new IllegalArgumentException("unknown ordinal " + ordinal);
+    return values[ordinal];
+  }
+}
@@ -0,0 +1,83 @@
+package com.ashok.kalaha.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Meters of the game domain. Tags are limited to engine, operation and exception type names, and
+ * every meter is registered once and then looked up by class or name, so recording costs a map
+ * lookup and an increment.
+ */
+@Component
+public class GameMetrics {
+  private final MeterRegistry registry;
+  private final DistributionSummary stonesSown;
+  private final Counter lostLaneMoves;
+  private final Map<Class<?>, Timer> sowTimers = new ConcurrentHashMap<>();
+  private final Map<String, Timer> gameServiceTimers = new ConcurrentHashMap<>();
+  private final Map<Class<?>, Counter> exceptionCounters = new ConcurrentHashMap<>();
+
+  public GameMetrics(MeterRegistry registry) {
+    this.registry = registry;
+    this.stonesSown =
+        DistributionSummary.builder("kalaha.sow.stones")
+            .description("stones picked up from the selected pit per move")
+            .baseUnit("stones")
+            .register(registry);
+    this.lostLaneMoves =
+        Counter.builder("kalaha.lanes.lost.moves")
+            .description("acknowledged moves lost as their game changed outside of its lane")
+            .baseUnit("moves")
+            .register(registry);
+  }
+
+  public void recordSow(Class<?> engine, long nanos) {
+    sowTimers
+        .computeIfAbsent(
+            engine,
+            type ->
+                Timer.builder("kalaha.sow")
+                    .description("time to sow one move, without any io")
+                    .tag("engine", type.getSimpleName())
+                    .register(registry))
+        .record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void recordStonesSown(int stones) {
+    stonesSown.record(stones);
+  }
+
+  public void countLostLaneMoves(long moves) {
+    lostLaneMoves.increment(moves);
+  }
+
+  public void recordGameService(String operation, long nanos) {
+    gameServiceTimers
+        .computeIfAbsent(
+            operation,
+            name ->
+                Timer.builder("kalaha.game.service")
+                    .description("time of a game service call, cache and mongo included")
+                    .tag("operation", name)
+                    .register(registry))
+        .record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void countException(Throwable exception) {
+    exceptionCounters
+        .computeIfAbsent(
+            exception.getClass(),
+            type ->
+                Counter.builder("kalaha.exceptions")
+                    .description("exceptions answered by the exception handler")
+                    .tag("exception", type.getSimpleName())
+                    .register(registry))
+        .increment();
+  }
+}
@@ -0,0 +1,117 @@
+package com.ashok.kalaha.metrics;
+
+import com.ashok.kalaha.api.GameService;
+import com.ashok.kalaha.api.SowingService;
+import com.ashok.kalaha.model.Game;
+import com.ashok.kalaha.model.Pit;
+import com.ashok.kalaha.tracing.MoveTracing;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Set;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Times {@link SowingService#sow} and the game service calls that reach the cache or mongo. The
+ * advice is put in front of any existing advice, like the caching proxy of {@link GameService}, so
+ * the game service timers include cache hits, and {@link GameMetrics} is only resolved on the first
+ * call to keep the meter registry out of bean post processing. Calls made while a move is traced
+ * are observed as {@link MoveTracing#STAGE}s of it as well.
+ */
+public class GameMetricsPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+  static final Set<String> TIMED_GAME_SERVICE_OPERATIONS =
+      Set.of("createGame", "createGames", "loadGame", "updateGame", "saveGame", "sowAndUpdate");
+
+  public GameMetricsPostProcessor(
+      ObjectProvider<GameMetrics> gameMetrics,
+      ObjectProvider<ObservationRegistry> observationRegistry) {
+    this.advisor =
+        new DefaultPointcutAdvisor(
+            new TimedPointcut(), new TimingInterceptor(gameMetrics, observationRegistry));
+    this.beforeExistingAdvisors = true;
+    setProxyTargetClass(true);
+  }
+
+  private static final class TimedPointcut extends StaticMethodMatcherPointcut {
+    @Override
+    public boolean matches(Method method, Class<?> targetClass) {
+      if (SowingService.class.isAssignableFrom(targetClass)) return method.getName().equals("sow");
+      return GameService.class.isAssignableFrom(targetClass)
+          && TIMED_GAME_SERVICE_OPERATIONS.contains(method.getName());
+    }
+  }
+
+  private static final class TimingInterceptor implements MethodInterceptor {
+    private final ObjectProvider<GameMetrics> gameMetricsProvider;
+    private final ObjectProvider<ObservationRegistry> observationRegistryProvider;
+    private volatile GameMetrics gameMetrics;
+    private volatile ObservationRegistry observationRegistry;
+
+    private TimingInterceptor(
+        ObjectProvider<GameMetrics> gameMetricsProvider,
+        ObjectProvider<ObservationRegistry> observationRegistryProvider) {
+      this.gameMetricsProvider = gameMetricsProvider;
+      this.observationRegistryProvider = observationRegistryProvider;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+      GameMetrics metrics = gameMetrics;
+      if (metrics == null) gameMetrics = metrics = gameMetricsProvider.getObject();
+      ObservationRegistry registry = observationRegistry;
+      if (registry == null)
+        observationRegistry =
+            registry = observationRegistryProvider.getIfAvailable(() -> ObservationRegistry.NOOP);
+
+      if (!MoveTracing.isTraced(registry.getCurrentObservation()))
+        return timed(invocation, metrics);
+
+      Observation stage =
+          Observation.createNotStarted(MoveTracing.STAGE, registry)
+              .lowCardinalityKeyValue("stage", invocation.getMethod().getName())
+              .start();
+      try (Observation.Scope scope = stage.openScope()) {
+        return timed(invocation, metrics);
+      } catch (Throwable e) {
+        stage.error(e);
+        throw e;
+      } finally {
+        stage.stop();
+      }
+    }
+
+    private static Object timed(MethodInvocation invocation, GameMetrics metrics) throws Throwable {
+      if (!(invocation.getThis() instanceof SowingService sowingService)) {
+        long start = System.nanoTime();
+        try {
+          return invocation.proceed();
+        } finally {
+          metrics.recordGameService(invocation.getMethod().getName(), System.nanoTime() - start);
+        }
+      }
+
+      int stones = stonesOf(invocation.getArguments());
+      long start = System.nanoTime();
+      try {
+        Object result = invocation.proceed();
+        metrics.recordStonesSown(stones);
+        return result;
+      } finally {
+        metrics.recordSow(sowingService.getClass(), System.nanoTime() - start);
+      }
+    }
+
+    private static int stonesOf(Object[] arguments) {
+      if (!(arguments[0] instanceof Game game) || !(arguments[1] instanceof Integer pitId))
+        return 0;
+      List<Pit> pits = game.getPits();
+      return pits == null || pitId < 1 || pitId > pits.size() ? 0 : pits.get(pitId - 1).getStones();
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package com.ashok.kalaha.metrics;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+
+import com.ashok.kalaha.config.KalahaProperties;
+import com.ashok.kalaha.model.Game;
+import com.ashok.kalaha.model.GameStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.EnumMap;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gauges the games of every {@link GameStatus} in the games collection. All counts come from one
+ * aggregation that runs at most once per {@code game-status-refresh-interval}, however often the
+ * gauges are scraped.
+ */
+@Slf4j
+@Component
+public class GameStatusMetrics implements MeterBinder {
+  private final MongoOperations mongoOperations;
+  private final long refreshIntervalNanos;
+  private Map<GameStatus, Long> counts = new EnumMap<>(GameStatus.class);
+  private long refreshedAtNanos;
+  private boolean isRefreshed;
+
+  public GameStatusMetrics(MongoOperations mongoOperations, KalahaProperties kalahaProperties) {
+    this.mongoOperations = mongoOperations;
+    this.refreshIntervalNanos =
+        kalahaProperties.getMetrics().getGameStatusRefreshInterval().toNanos();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    for (GameStatus gameStatus : GameStatus.values())
+      Gauge.builder("kalaha.games", this, metrics -> metrics.count(gameStatus))
+          .description("games in the games collection")
+          .tag("status", gameStatus.name())
+          .register(registry);
+  }
+
+  synchronized double count(GameStatus gameStatus) {
+    long now = System.nanoTime();
+    if (!isRefreshed || now - refreshedAtNanos >= refreshIntervalNanos) {
+      refresh();
+      refreshedAtNanos = now;
+      isRefreshed = true;
+    }
+    return counts.getOrDefault(gameStatus, 0L);
+  }
+
+  private void refresh() {
+    try {
+      Map<GameStatus, Long> freshCounts = new EnumMap<>(GameStatus.class);
+      for (Document statusCount :
+          mongoOperations
+              .aggregate(
+                  newAggregation(Game.class, group("gameStatus").count().as("count")),
+                  Document.class)
+              .getMappedResults()) {
+        if (statusCount.get("_id") instanceof String gameStatus)
+          freshCounts.put(
+              GameStatus.valueOf(gameStatus), ((Number) statusCount.get("count")).longValue());
+      }
+      counts = freshCounts;
+    } catch (DataAccessException e) {
+      log.warn("could not count games by status", e);
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package com.ashok.kalaha.model;
+
+import java.time.Instant;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/** Compact record of a game moved out of the games collection, without its pits. */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "archivedGames")
+public class ArchivedGame {
+  @Id private String gameId;
+  private GameStatus gameStatus;
+  private Player winner;
+  private List<Integer> stores;
+  private Long revision;
+  private Instant createdAt;
+  private Instant updatedAt;
+  private Instant archivedAt;
+
+  public static ArchivedGame of(Game game, Instant archivedAt) {
+    return new ArchivedGame(
+        game.getGameId(),
+        game.getGameStatus(),
+        game.getWinner(),
+        game.getPits().stream().filter(pit -> pit.getPitId() % 7 == 0).map(Pit::getStones).toList(),
+        game.getRevision(),
+        game.getCreatedAt(),
+        game.getUpdatedAt(),
+        archivedAt);
+  }
+}
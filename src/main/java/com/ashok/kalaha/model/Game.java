@@ -2,6 +2,7 @@ package com.ashok.kalaha.model;
 
 import com.ashok.kalaha.exceptions.GameException;
 import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.Instant;
 import java.util.List;
 import java.util.stream.IntStream;
 import lombok.Getter;
@@ -47,6 +48,24 @@ public class Game {
       example = "2")
   private Integer numberOfPlayers;
 
+  @Schema(
+      name = "revision",
+      description = "Incremented on every update of the game, stale revisions are rejected",
+      example = "3")
+  private Long revision;
+
+  @Schema(
+      name = "createdAt",
+      description = "When the game was created",
+      example = "2023-11-04T10:15:30Z")
+  private Instant createdAt;
+
+  @Schema(
+      name = "updatedAt",
+      description = "When the game was last written, finished and idle games are archived by it",
+      example = "2023-11-04T10:21:12Z")
+  private Instant updatedAt;
+
   public Game(int stones) {
     this(stones, 2);
   }
@@ -62,6 +81,18 @@ public class Game {
     this.numberOfPlayers = numOfPlayers;
   }
 
+  public Game(Game game) {
+    this.gameId = game.gameId;
+    this.pits = game.pits.stream().map(Pit::copy).toList();
+    this.playerTurn = game.playerTurn;
+    this.gameStatus = game.gameStatus;
+    this.winner = game.winner;
+    this.numberOfPlayers = game.numberOfPlayers;
+    this.revision = game.revision;
+    this.createdAt = game.createdAt;
+    this.updatedAt = game.updatedAt;
+  }
+
   public Pit getPit(int requestedPitId) {
     try {
       return this.pits.get(requestedPitId - 1);
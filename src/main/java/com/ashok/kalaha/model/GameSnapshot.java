@@ -0,0 +1,31 @@
+package com.ashok.kalaha.model;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "snapshots")
+public class GameSnapshot {
+  @Id private String id;
+  private String gameId;
+  private long seq;
+  private Game game;
+  private Instant timestamp;
+
+  public static GameSnapshot of(Game game, Instant timestamp) {
+    return new GameSnapshot(
+        game.getGameId() + ":" + game.getRevision(),
+        game.getGameId(),
+        game.getRevision(),
+        new Game(game),
+        timestamp);
+  }
+}
@@ -4,5 +4,6 @@ public enum GameStatus {
   CREATED,
   IN_PROGRESS,
   COMPLETED,
-  COMPLETED_DRAW
+  COMPLETED_DRAW,
+  ABANDONED
 }
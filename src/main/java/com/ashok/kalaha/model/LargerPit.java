@@ -4,4 +4,11 @@ public class LargerPit extends Pit {
   public LargerPit(Integer pitId) {
     super(pitId, 0);
   }
+
+  @Override
+  public Pit copy() {
+    Pit copy = new LargerPit(pitId);
+    copy.setStones(stones);
+    return copy;
+  }
 }
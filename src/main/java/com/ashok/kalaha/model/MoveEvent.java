@@ -0,0 +1,50 @@
+package com.ashok.kalaha.model;
+
+import com.ashok.kalaha.engine.KalahaBoard;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "moves")
+public class MoveEvent {
+  @Id private String id;
+
+  @Schema(name = "gameId", description = "id of the game", example = "gh45fdfdg3534ytenda")
+  private String gameId;
+
+  @Schema(name = "seq", description = "revision of the game the move was saved with", example = "3")
+  private long seq;
+
+  @Schema(
+      name = "moveIndex",
+      description = "order of the move among the moves saved with the same revision",
+      example = "0")
+  private int moveIndex;
+
+  @Schema(name = "pitId", description = "pit the stones were sown from", example = "3")
+  private Integer pitId;
+
+  @Schema(name = "player", description = "player who sowed", example = "PLAYER_ONE")
+  private Player player;
+
+  @Schema(name = "timestamp", description = "when the move was saved")
+  private Instant timestamp;
+
+  public static MoveEvent of(String gameId, long seq, int moveIndex, int pitId, Instant timestamp) {
+    Player player =
+        KalahaBoard.ownerOf(pitId - 1) == KalahaBoard.PLAYER_ONE
+            ? Player.PLAYER_ONE
+            : Player.PLAYER_TWO;
+    return new MoveEvent(
+        gameId + ":" + seq + ":" + moveIndex, gameId, seq, moveIndex, pitId, player, timestamp);
+  }
+}
@@ -25,6 +25,10 @@ public class Pit {
     this.stones += stones;
   }
 
+  public Pit copy() {
+    return new Pit(pitId, stones);
+  }
+
   @Override
   public String toString() {
     return pitId + ":" + stones;
@@ -0,0 +1,12 @@
+package com.ashok.kalaha.repository;
+
+import com.ashok.kalaha.model.GameSnapshot;
+import java.util.Optional;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface GameSnapshotRepository extends MongoRepository<GameSnapshot, String> {
+  Optional<GameSnapshot> findFirstByGameIdAndSeqLessThanEqualOrderBySeqDesc(
+      String gameId, long seq);
+}
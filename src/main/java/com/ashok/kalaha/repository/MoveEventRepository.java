@@ -0,0 +1,17 @@
+package com.ashok.kalaha.repository;
+
+import com.ashok.kalaha.model.MoveEvent;
+import java.util.List;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MoveEventRepository extends MongoRepository<MoveEvent, String> {
+  List<MoveEvent> findByGameIdOrderBySeqAscMoveIndexAsc(String gameId);
+
+  @Query(
+      value = "{ 'gameId': ?0, 'seq': { $gt: ?1, $lte: ?2 } }",
+      sort = "{ 'seq': 1, 'moveIndex': 1 }")
+  List<MoveEvent> findMovesAfter(String gameId, long afterSeq, long toSeq);
+}
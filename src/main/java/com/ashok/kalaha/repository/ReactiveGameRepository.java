@@ -0,0 +1,8 @@
+package com.ashok.kalaha.repository;
+
+import com.ashok.kalaha.model.Game;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReactiveGameRepository extends ReactiveMongoRepository<Game, String> {}
@@ -0,0 +1,128 @@
+package com.ashok.kalaha.service;
+
+import static com.ashok.kalaha.engine.KalahaBoard.*;
+
+import com.ashok.kalaha.api.SowingService;
+import com.ashok.kalaha.engine.EndgameTablebase;
+import com.ashok.kalaha.engine.KalahaBoard;
+import com.ashok.kalaha.exceptions.*;
+import com.ashok.kalaha.model.*;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+@Primary
+@Service
+@ConditionalOnProperty(name = "kalaha.sowing.engine", havingValue = "array", matchIfMissing = true)
+public class ArrayBoardSowingService implements SowingService {
+
+  private static final ThreadLocal<int[]> boards =
+      ThreadLocal.withInitial(() -> new int[TOTAL_PITS]);
+
+  private final EndgameTablebase tablebase;
+
+  public ArrayBoardSowingService() {
+    this(Optional.empty());
+  }
+
+  @Autowired
+  public ArrayBoardSowingService(Optional<EndgameTablebase> tablebase) {
+    this.tablebase = tablebase.orElse(null);
+  }
+
+  @Override
+  public Game sow(Game game, int requestedPitId) {
+    List<Pit> pits = game.getPits();
+    if (pits == null || requestedPitId < 1 || requestedPitId > pits.size())
+      throw new GameException("Invalid pitIndex:" + requestedPitId + " has given!");
+    if (pits.size() != TOTAL_PITS)
+      throw new GameException("currently only two players are supported");
+
+    int pit = requestedPitId - 1;
+    int[] board = boards.get();
+    readBoard(pits, board);
+    checkForExceptions(game, pit, board);
+
+    if (game.getGameStatus() == GameStatus.CREATED) game.setGameStatus(GameStatus.IN_PROGRESS);
+    int player = game.getPlayerTurn() == null ? ownerOf(pit) : toPlayer(game.getPlayerTurn());
+
+    int result = KalahaBoard.sow(board, player, pit);
+    writeBoard(board, pits);
+
+    game.setPlayerTurn(toPlayerTurn((result & EXTRA_TURN) != 0 ? player : opponent(player)));
+    if ((result & GAME_OVER) != 0) setWinnerAndCloseTheGame(game, board);
+    else if (tablebase != null) adjudicate(game, board, tablebase);
+
+    return game;
+  }
+
+  private void checkForExceptions(Game game, int pit, int[] board) {
+    if (game.getGameStatus() == GameStatus.COMPLETED
+        || game.getGameStatus() == GameStatus.COMPLETED_DRAW)
+      throw new GameCompletedException("Sowing not allowed on completed game.");
+    if (game.getGameStatus() == GameStatus.ABANDONED)
+      throw new GameCompletedException("Sowing not allowed on abandoned game.");
+
+    if (isStore(pit))
+      throw new SowingFromLargerPitException("sowing stones from larger pit is not allowed");
+
+    if (game.getPlayerTurn() != null && ownerOf(pit) != toPlayer(game.getPlayerTurn()))
+      throw new NotYourTurnException(
+          "It's not your turn, please wait until the opponent finish their turn");
+
+    if (board[pit] == 0) throw new SowingFromEmptyPitException("can't select empty pit for sowing");
+  }
+
+  private void setWinnerAndCloseTheGame(Game game, int[] board) {
+    int playerOneScore = score(board, PLAYER_ONE);
+    int playerTwoScore = score(board, PLAYER_TWO);
+
+    if (playerOneScore == playerTwoScore) game.setGameStatus(GameStatus.COMPLETED_DRAW);
+    else {
+      game.setWinner(playerOneScore > playerTwoScore ? Player.PLAYER_ONE : Player.PLAYER_TWO);
+      game.setGameStatus(GameStatus.COMPLETED);
+    }
+  }
+
+  /**
+   * Ends the game as soon as few enough stones are left for the tablebase to know how it ends with
+   * perfect play, the way {@code checkIfGameCompleted} ends it once a side is empty. The stones
+   * stay where they are and the winner is the player ahead at the end of perfect play.
+   */
+  static void adjudicate(Game game, int[] board, EndgameTablebase tablebase) {
+    int player = toPlayer(game.getPlayerTurn());
+    int entry = tablebase.probe(board, player);
+    if (entry == EndgameTablebase.MISS) return;
+
+    int finalDifference =
+        board[store(player)] - board[store(opponent(player))] + EndgameTablebase.valueOf(entry);
+    if (finalDifference == 0) game.setGameStatus(GameStatus.COMPLETED_DRAW);
+    else {
+      int winner = finalDifference > 0 ? player : opponent(player);
+      game.setWinner(winner == PLAYER_ONE ? Player.PLAYER_ONE : Player.PLAYER_TWO);
+      game.setGameStatus(GameStatus.COMPLETED);
+    }
+  }
+
+  static void readBoard(List<Pit> pits, int[] board) {
+    for (int pit = 0; pit < TOTAL_PITS; pit++) board[pit] = pits.get(pit).getStones();
+  }
+
+  static void writeBoard(int[] board, List<Pit> pits) {
+    for (int pit = 0; pit < TOTAL_PITS; pit++) {
+      Pit target = pits.get(pit);
+      if (target.getStones() != board[pit]) target.setStones(board[pit]);
+    }
+  }
+
+  static int toPlayer(PlayerTurn playerTurn) {
+    return playerTurn == PlayerTurn.PLAYER_ONE_TURN ? PLAYER_ONE : PLAYER_TWO;
+  }
+
+  static PlayerTurn toPlayerTurn(int player) {
+    return player == PLAYER_ONE ? PlayerTurn.PLAYER_ONE_TURN : PlayerTurn.PLAYER_TWO_TURN;
+  }
+}
@@ -0,0 +1,146 @@
+package com.ashok.kalaha.service;
+
+import static com.ashok.kalaha.engine.KalahaBoard.*;
+
+import com.ashok.kalaha.api.GameAnalysisService;
+import com.ashok.kalaha.config.KalahaProperties;
+import com.ashok.kalaha.dto.GameAnalysis;
+import com.ashok.kalaha.dto.MoveEvaluation;
+import com.ashok.kalaha.engine.AnalysisResult;
+import com.ashok.kalaha.engine.EndgameTablebase;
+import com.ashok.kalaha.engine.ParallelAnalysis;
+import com.ashok.kalaha.engine.TranspositionTable;
+import com.ashok.kalaha.engine.TranspositionTablePool;
+import com.ashok.kalaha.exceptions.AnalysisUnavailableException;
+import com.ashok.kalaha.model.Game;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Evaluates every move of a game with a {@link ParallelAnalysis} on a {@link ForkJoinPool} of
+ * {@code kalaha.analysis.threads}, for at most {@code time-budget} or {@code max-depth} plies.
+ * Every analysis borrows a cleared transposition table of {@code table-size} entries, shared by
+ * its threads, so the timing of one analysis doesn't depend on earlier ones. Tables are reused and
+ * at most {@code max-concurrent} analyses run at once, further ones are rejected rather than
+ * allocating another table. On request the same position is searched again by one thread to the
+ * depth the threads reached, to report the speedup.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "kalaha.analysis", name = "enabled", havingValue = "true")
+public class GameAnalysisServiceImpl implements GameAnalysisService {
+  private final KalahaProperties.Analysis properties;
+  private final ForkJoinPool pool;
+  private final ParallelAnalysis parallelAnalysis;
+  private final TranspositionTablePool tables;
+
+  public GameAnalysisServiceImpl(
+      KalahaProperties kalahaProperties, Optional<EndgameTablebase> tablebase) {
+    this.properties = kalahaProperties.getAnalysis();
+    this.pool =
+        new ForkJoinPool(
+            Math.max(1, properties.getThreads()),
+            pool -> {
+              ForkJoinWorkerThread thread =
+                  ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+              thread.setName("kalaha-analysis-" + thread.getPoolIndex());
+              return thread;
+            },
+            null,
+            false);
+    this.parallelAnalysis = new ParallelAnalysis(pool, tablebase.orElse(null));
+    this.tables =
+        new TranspositionTablePool(
+            Math.max(1, properties.getMaxConcurrent()), properties.getTableSize());
+  }
+
+  @Override
+  public GameAnalysis analyse(Game game, boolean withBaseline) {
+    int player = MoveSearchServiceImpl.playerToMove(game);
+    int[] board = MoveSearchServiceImpl.boardOf(game);
+    long timeBudget = properties.getTimeBudget().toNanos();
+
+    TranspositionTable table = tables.borrow();
+    if (table == null)
+      throw new AnalysisUnavailableException(
+          "All " + properties.getMaxConcurrent() + " analyses are running, retry later.");
+    try {
+      return analyse(game, board, player, timeBudget, table, withBaseline);
+    } finally {
+      tables.giveBack(table);
+    }
+  }
+
+  private GameAnalysis analyse(
+      Game game,
+      int[] board,
+      int player,
+      long timeBudget,
+      TranspositionTable table,
+      boolean withBaseline) {
+    AnalysisResult result =
+        parallelAnalysis.analyse(
+            board, player, properties.getMaxDepth(), System.nanoTime() + timeBudget, table);
+    log.info(
+        "analysed gameId: "
+            + game.getGameId()
+            + " to depth "
+            + result.depth()
+            + " with "
+            + result.threads()
+            + " threads at "
+            + result.nodesPerSecond()
+            + " nodes/s");
+
+    Double baselineMillis = null;
+    Double speedup = null;
+    if (withBaseline) {
+      table.clear();
+      AnalysisResult baseline =
+          parallelAnalysis.analyseSerially(
+              board,
+              player,
+              result.depth(),
+              System.nanoTime() + timeBudget * result.threads(),
+              table);
+      if (baseline.depth() == result.depth()) {
+        baselineMillis = baseline.nanos() / 1_000_000.0;
+        speedup = (double) baseline.nanos() / result.nanos();
+      }
+    }
+
+    return new GameAnalysis(
+        ArrayBoardSowingService.toPlayerTurn(player),
+        evaluationsOf(result, player),
+        result.depth(),
+        result.threads(),
+        result.nodes(),
+        result.nanos() / 1_000_000.0,
+        result.nodesPerSecond(),
+        baselineMillis,
+        speedup);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    pool.shutdownNow();
+  }
+
+  private static List<MoveEvaluation> evaluationsOf(AnalysisResult result, int player) {
+    List<MoveEvaluation> evaluations = new ArrayList<>(PITS_PER_SIDE);
+    int first = firstPit(player);
+    for (int pit = first; pit < first + PITS_PER_SIDE; pit++)
+      if (result.scores()[pit] != Integer.MIN_VALUE)
+        evaluations.add(new MoveEvaluation(pit + 1, result.scores()[pit]));
+    evaluations.sort(Comparator.comparingInt(MoveEvaluation::getScore).reversed());
+    return evaluations;
+  }
+}
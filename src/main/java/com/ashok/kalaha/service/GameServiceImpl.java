@@ -1,42 +1,209 @@
 package com.ashok.kalaha.service;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
 import com.ashok.kalaha.api.GameService;
+import com.ashok.kalaha.api.SowingService;
+import com.ashok.kalaha.config.KalahaProperties;
+import com.ashok.kalaha.dto.GameDelta;
 import com.ashok.kalaha.exceptions.GameNotFoundException;
+import com.ashok.kalaha.exceptions.GameUpdateConflictException;
 import com.ashok.kalaha.model.Game;
+import com.ashok.kalaha.model.Pit;
 import com.ashok.kalaha.repository.GameRepository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import lombok.AllArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 @Service
 @AllArgsConstructor
 public class GameServiceImpl implements GameService {
   private GameRepository gameRepository;
+  private MongoOperations mongoOperations;
+  private KalahaProperties kalahaProperties;
 
   @Override
   public Game createGame(int stones, int numOfPlayers) {
-    Game newGame = new Game(stones, numOfPlayers);
-    return gameRepository.save(newGame);
+    return gameRepository.save(newGame(stones, numOfPlayers, Instant.now()));
+  }
+
+  @Override
+  public List<String> createGames(List<Integer> stonesPerGame, int numOfPlayers) {
+    int batchSize = kalahaProperties.getGameInsertBatchSize();
+    List<String> gameIds = new ArrayList<>(stonesPerGame.size());
+    List<Game> batch = new ArrayList<>(Math.min(batchSize, stonesPerGame.size()));
+
+    Instant now = Instant.now();
+    for (int stones : stonesPerGame) {
+      batch.add(newGame(stones, numOfPlayers, now));
+      if (batch.size() == batchSize) insertGames(batch, gameIds);
+    }
+    if (!batch.isEmpty()) insertGames(batch, gameIds);
+    return gameIds;
   }
 
-  @CachePut(value = "games", key = "#game.gameId")
+  @CachePut(
+      value = "games",
+      key = "#game.gameId",
+      unless =
+          "#result.getGameStatus() == T(com.ashok.kalaha.model.GameStatus).COMPLETED || #result.getGameStatus() == T(com.ashok.kalaha.model.GameStatus).COMPLETED_DRAW")
   @CacheEvict(
       value = "games",
       beforeInvocation = true,
       condition =
-          "#game.getGameStatus() == GameStatus.COMPLETED || #game.getGameStatus() == GameStatus.COMPLETED_DRAW")
+          "#game.getGameStatus() == T(com.ashok.kalaha.model.GameStatus).COMPLETED || #game.getGameStatus() == T(com.ashok.kalaha.model.GameStatus).COMPLETED_DRAW")
   @Override
   public Game updateGame(Game game) {
-    return gameRepository.save(game);
+    Long revision = game.getRevision();
+    if (revision == null) {
+      game.setRevision(1L);
+      game.setUpdatedAt(Instant.now());
+      return gameRepository.save(game);
+    }
+
+    game.setRevision(revision + 1);
+    try {
+      return replaceGame(game, revision);
+    } catch (RuntimeException e) {
+      game.setRevision(revision);
+      throw e;
+    }
+  }
+
+  @CachePut(
+      value = "games",
+      key = "#game.gameId",
+      unless =
+          "#result.getGameStatus() == T(com.ashok.kalaha.model.GameStatus).COMPLETED || #result.getGameStatus() == T(com.ashok.kalaha.model.GameStatus).COMPLETED_DRAW")
+  @CacheEvict(
+      value = "games",
+      beforeInvocation = true,
+      condition =
+          "#game.getGameStatus() == T(com.ashok.kalaha.model.GameStatus).COMPLETED || #game.getGameStatus() == T(com.ashok.kalaha.model.GameStatus).COMPLETED_DRAW")
+  @Override
+  public Game saveGame(Game game, long storedRevision) {
+    return replaceGame(game, storedRevision);
   }
 
-  @Cacheable(value = "games", key = "#gameId", unless = "#result  == null")
+  private Game replaceGame(Game game, long storedRevision) {
+    game.setUpdatedAt(Instant.now());
+    Game previousGame =
+        mongoOperations.findAndReplace(
+            query(where("gameId").is(game.getGameId()).and("revision").is(storedRevision)), game);
+
+    if (previousGame == null) throw staleOrMissingGameException(game.getGameId(), storedRevision);
+    return game;
+  }
+
+  @Caching(
+      put =
+          @CachePut(
+              value = "games",
+              key = "#game.gameId",
+              unless =
+                  "#result.getGameStatus() == T(com.ashok.kalaha.model.GameStatus).COMPLETED || #result.getGameStatus() == T(com.ashok.kalaha.model.GameStatus).COMPLETED_DRAW"),
+      evict =
+          @CacheEvict(
+              value = "games",
+              key = "#game.gameId",
+              condition =
+                  "#result.getGameStatus() == T(com.ashok.kalaha.model.GameStatus).COMPLETED || #result.getGameStatus() == T(com.ashok.kalaha.model.GameStatus).COMPLETED_DRAW"))
+  @Override
+  public Game sowAndUpdate(Game game, int pitId, SowingService sowingService) {
+    Long revision = game.getRevision();
+    if (revision == null) return updateGame(sowingService.sow(game, pitId));
+
+    Query unsownGame = unsownGameQuery(game);
+    int[] previousStones = GameDelta.stonesOf(game);
+    sowingService.sow(game, pitId);
+
+    Game updatedGame =
+        mongoOperations.findAndModify(
+            unsownGame,
+            sowUpdate(game, previousStones),
+            FindAndModifyOptions.options().returnNew(true),
+            Game.class);
+
+    if (updatedGame == null) throw staleOrMissingGameException(game.getGameId(), revision);
+    return updatedGame;
+  }
+
+  /** Matches the game only while it is still at the revision and turn it was loaded with. */
+  static Query unsownGameQuery(Game game) {
+    return query(
+        where("gameId")
+            .is(game.getGameId())
+            .and("revision")
+            .is(game.getRevision())
+            .and("playerTurn")
+            .is(game.getPlayerTurn()));
+  }
+
+  /** Increments the revision and changes only the pits that differ from {@code previousStones}. */
+  static Update sowUpdate(Game sownGame, int[] previousStones) {
+    Update update =
+        new Update()
+            .inc("revision", 1)
+            .set("playerTurn", sownGame.getPlayerTurn())
+            .set("gameStatus", sownGame.getGameStatus())
+            .set("updatedAt", Instant.now());
+    if (sownGame.getWinner() != null) update.set("winner", sownGame.getWinner());
+    List<Pit> pits = sownGame.getPits();
+    for (int i = 0; i < previousStones.length; i++) {
+      int stones = pits.get(i).getStones();
+      if (stones == previousStones[i]) continue;
+
+      if (stones == 0) update.set("pits." + i + ".stones", 0);
+      else update.inc("pits." + i + ".stones", stones - previousStones[i]);
+    }
+    return update;
+  }
+
+  // sync loads through Cache.get(key, valueLoader), filling the cache after a miss isn't a write
+  @Cacheable(value = "games", key = "#gameId", sync = true)
   @Override
   public Game loadGame(String gameId) {
     return gameRepository
         .findById(gameId)
         .orElseThrow(() -> new GameNotFoundException("Game not found with gameId: " + gameId));
   }
+
+  @CacheEvict(value = "games", key = "#gameId")
+  @Override
+  public void evictGame(String gameId) {}
+
+  static Game newGame(int stones, int numOfPlayers, Instant now) {
+    Game newGame = new Game(stones, numOfPlayers);
+    newGame.setRevision(0L);
+    newGame.setCreatedAt(now);
+    newGame.setUpdatedAt(now);
+    return newGame;
+  }
+
+  private void insertGames(List<Game> batch, List<String> gameIds) {
+    for (Game game : mongoOperations.insert(batch, Game.class)) gameIds.add(game.getGameId());
+    batch.clear();
+  }
+
+  private RuntimeException staleOrMissingGameException(String gameId, long revision) {
+    if (!gameRepository.existsById(gameId))
+      return new GameNotFoundException("Game not found with gameId: " + gameId);
+    return new GameUpdateConflictException(
+        "Game with gameId: "
+            + gameId
+            + " has been updated concurrently, revision "
+            + revision
+            + " is stale");
+  }
 }
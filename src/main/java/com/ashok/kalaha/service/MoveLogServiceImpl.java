@@ -0,0 +1,158 @@
+package com.ashok.kalaha.service;
+
+import static com.ashok.kalaha.engine.KalahaBoard.*;
+
+import com.ashok.kalaha.api.MoveLogService;
+import com.ashok.kalaha.api.SowingService;
+import com.ashok.kalaha.config.KalahaProperties;
+import com.ashok.kalaha.exceptions.GameNotFoundException;
+import com.ashok.kalaha.model.Game;
+import com.ashok.kalaha.model.GameSnapshot;
+import com.ashok.kalaha.model.GameStatus;
+import com.ashok.kalaha.model.MoveEvent;
+import com.ashok.kalaha.model.Pit;
+import com.ashok.kalaha.repository.GameSnapshotRepository;
+import com.ashok.kalaha.repository.MoveEventRepository;
+import jakarta.annotation.PostConstruct;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps every move of a game as an immutable {@link MoveEvent} next to the game document, with a
+ * {@link GameSnapshot} of the board before the first move and every {@code snapshot-interval}
+ * revisions. Recording only inserts, and any revision of a game is rebuilt from the closest
+ * snapshot before it and the moves after it, sown with the same rules. A rebuild refuses to sow
+ * over missing moves rather than return a board the game never had.
+ */
+@Slf4j
+@Service
+@AllArgsConstructor
+@ConditionalOnProperty(prefix = "kalaha.move-log", name = "enabled", havingValue = "true")
+public class MoveLogServiceImpl implements MoveLogService {
+  private MoveEventRepository moveEventRepository;
+  private GameSnapshotRepository gameSnapshotRepository;
+  private MongoOperations mongoOperations;
+  private SowingService sowingService;
+  private KalahaProperties kalahaProperties;
+
+  @PostConstruct
+  void ensureIndexes() {
+    mongoOperations
+        .indexOps(MoveEvent.class)
+        .ensureIndex(
+            new Index()
+                .on("gameId", Sort.Direction.ASC)
+                .on("seq", Sort.Direction.ASC)
+                .on("moveIndex", Sort.Direction.ASC));
+    mongoOperations
+        .indexOps(GameSnapshot.class)
+        .ensureIndex(new Index().on("gameId", Sort.Direction.ASC).on("seq", Sort.Direction.DESC));
+  }
+
+  /**
+   * Records after the game is written, so a failure can't undo the move. Moves that can't be
+   * inserted are covered by a snapshot of the game at their revision instead, and a revision still
+   * left without either is refused by {@link #rebuildGame}.
+   */
+  @Override
+  public void record(Game playedGame, long seq, List<Integer> pitIds, int[] previousStones) {
+    Instant timestamp = Instant.now();
+    List<MoveEvent> moveEvents = new ArrayList<>(pitIds.size());
+    for (int moveIndex = 0; moveIndex < pitIds.size(); moveIndex++)
+      moveEvents.add(
+          MoveEvent.of(playedGame.getGameId(), seq, moveIndex, pitIds.get(moveIndex), timestamp));
+
+    if (seq == 1 && isInitialBoard(previousStones))
+      snapshot(initialGame(playedGame, previousStones), 0, timestamp);
+    try {
+      moveEventRepository.insert(moveEvents);
+    } catch (DataAccessException e) {
+      log.error(
+          "could not record moves "
+              + pitIds
+              + " of gameId: "
+              + playedGame.getGameId()
+              + " at revision "
+              + seq
+              + ", snapshotting the game instead",
+          e);
+      snapshot(playedGame, seq, timestamp);
+      return;
+    }
+    if (seq % kalahaProperties.getMoveLog().getSnapshotInterval() == 0)
+      snapshot(playedGame, seq, timestamp);
+  }
+
+  @Override
+  public List<MoveEvent> loadMoves(String gameId) {
+    return moveEventRepository.findByGameIdOrderBySeqAscMoveIndexAsc(gameId);
+  }
+
+  @Override
+  public Game rebuildGame(String gameId, long seq) {
+    GameSnapshot snapshot =
+        gameSnapshotRepository
+            .findFirstByGameIdAndSeqLessThanEqualOrderBySeqDesc(gameId, seq)
+            .orElseThrow(
+                () -> new GameNotFoundException("No move log found for gameId: " + gameId));
+
+    Game game = snapshot.getGame();
+    long lastSeq = snapshot.getSeq();
+    int nextMoveIndex = 0;
+    for (MoveEvent moveEvent : moveEventRepository.findMovesAfter(gameId, snapshot.getSeq(), seq)) {
+      boolean isNextMoveOfBatch =
+          moveEvent.getSeq() == lastSeq && moveEvent.getMoveIndex() == nextMoveIndex;
+      boolean isFirstMoveOfNextSeq =
+          moveEvent.getSeq() == lastSeq + 1 && moveEvent.getMoveIndex() == 0;
+      if (!isNextMoveOfBatch && !isFirstMoveOfNextSeq)
+        throw new IllegalStateException(
+            "move log of gameId: " + gameId + " misses moves after revision " + lastSeq);
+
+      sowingService.sow(game, moveEvent.getPitId());
+      game.setRevision(moveEvent.getSeq());
+      lastSeq = moveEvent.getSeq();
+      nextMoveIndex = moveEvent.getMoveIndex() + 1;
+    }
+    if (lastSeq != seq)
+      throw new GameNotFoundException(
+          "No move log found for gameId: " + gameId + " at revision " + seq);
+    return game;
+  }
+
+  private void snapshot(Game game, long seq, Instant timestamp) {
+    Game snapshotGame = new Game(game);
+    snapshotGame.setRevision(seq);
+    try {
+      gameSnapshotRepository.save(GameSnapshot.of(snapshotGame, timestamp));
+    } catch (DataAccessException e) {
+      log.error("could not snapshot gameId: " + game.getGameId() + " at revision " + seq, e);
+    }
+  }
+
+  private static boolean isInitialBoard(int[] stones) {
+    if (stones.length != TOTAL_PITS) return false;
+    for (int pit = 0; pit < TOTAL_PITS; pit++)
+      if (isStore(pit) ? stones[pit] != 0 : stones[pit] != stones[0]) return false;
+    return true;
+  }
+
+  private static Game initialGame(Game playedGame, int[] previousStones) {
+    Game game = new Game(playedGame);
+    List<Pit> pits = game.getPits();
+    for (int pit = 0; pit < pits.size(); pit++) pits.get(pit).setStones(previousStones[pit]);
+    game.setPlayerTurn(null);
+    game.setGameStatus(GameStatus.CREATED);
+    game.setWinner(null);
+    game.setRevision(0L);
+    return game;
+  }
+}
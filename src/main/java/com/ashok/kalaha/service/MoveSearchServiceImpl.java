@@ -0,0 +1,107 @@
+package com.ashok.kalaha.service;
+
+import static com.ashok.kalaha.engine.KalahaBoard.*;
+
+import com.ashok.kalaha.api.MoveSearchService;
+import com.ashok.kalaha.config.KalahaProperties;
+import com.ashok.kalaha.dto.MoveHint;
+import com.ashok.kalaha.engine.AlphaBetaSearch;
+import com.ashok.kalaha.engine.EndgameTablebase;
+import com.ashok.kalaha.engine.SearchResult;
+import com.ashok.kalaha.engine.TranspositionTable;
+import com.ashok.kalaha.exceptions.GameCompletedException;
+import com.ashok.kalaha.exceptions.GameException;
+import com.ashok.kalaha.model.Game;
+import com.ashok.kalaha.model.GameStatus;
+import com.ashok.kalaha.model.Player;
+import java.util.Optional;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Suggests moves with an {@link AlphaBetaSearch} bounded by {@code kalaha.search.time-budget} and
+ * {@code max-depth}. All searches share one {@link TranspositionTable}, so positions reached by
+ * earlier requests, of any game, are not searched again. Positions covered by the {@link
+ * EndgameTablebase}, when there is one, are scored exactly and the hint predicts how the game ends.
+ */
+@Service
+@ConditionalOnProperty(prefix = "kalaha.search", name = "enabled", havingValue = "true")
+public class MoveSearchServiceImpl implements MoveSearchService {
+  private final KalahaProperties.Search properties;
+  private final TranspositionTable table;
+  private final EndgameTablebase tablebase;
+
+  public MoveSearchServiceImpl(
+      KalahaProperties kalahaProperties, Optional<EndgameTablebase> tablebase) {
+    this.properties = kalahaProperties.getSearch();
+    this.table = new TranspositionTable(properties.getTableSize());
+    this.tablebase = tablebase.orElse(null);
+  }
+
+  @Override
+  public MoveHint suggestMove(Game game) {
+    int player = playerToMove(game);
+    int[] board = boardOf(game);
+
+    SearchResult result =
+        new AlphaBetaSearch(table, tablebase)
+            .search(
+                board,
+                player,
+                properties.getMaxDepth(),
+                System.nanoTime() + properties.getTimeBudget().toNanos());
+    MoveHint moveHint =
+        new MoveHint(
+            result.pit() + 1,
+            ArrayBoardSowingService.toPlayerTurn(player),
+            result.score(),
+            result.depth(),
+            result.nodes(),
+            result.nanos() / 1_000_000.0,
+            null,
+            null,
+            null);
+    if (tablebase != null) adjudicate(board, player, moveHint);
+    return moveHint;
+  }
+
+  /**
+   * Predicts the end of the game like {@code checkIfGameCompleted} would once it is over, when
+   * few enough stones are left for the tablebase to know the result of perfect play.
+   */
+  private void adjudicate(int[] board, int player, MoveHint moveHint) {
+    int entry = tablebase.probe(board, player);
+    if (entry == EndgameTablebase.MISS) return;
+
+    int finalDifference =
+        board[store(player)] - board[store(opponent(player))] + EndgameTablebase.valueOf(entry);
+    moveHint.setPliesToEnd(EndgameTablebase.distanceOf(entry));
+    if (finalDifference == 0) moveHint.setPredictedStatus(GameStatus.COMPLETED_DRAW);
+    else {
+      moveHint.setPredictedStatus(GameStatus.COMPLETED);
+      int winner = finalDifference > 0 ? player : opponent(player);
+      moveHint.setPredictedWinner(winner == PLAYER_ONE ? Player.PLAYER_ONE : Player.PLAYER_TWO);
+    }
+  }
+
+  /** The player whose turn it is, player one when nobody has moved yet. */
+  static int playerToMove(Game game) {
+    if (game.getGameStatus() == GameStatus.COMPLETED
+        || game.getGameStatus() == GameStatus.COMPLETED_DRAW
+        || game.getGameStatus() == GameStatus.ABANDONED)
+      throw new GameCompletedException("No move can be suggested for a finished game.");
+    if (game.getNumberOfPlayers() != 2 || game.getPits().size() != TOTAL_PITS)
+      throw new GameException("currently only two players are supported");
+    return game.getPlayerTurn() == null
+        ? PLAYER_ONE
+        : ArrayBoardSowingService.toPlayer(game.getPlayerTurn());
+  }
+
+  static int[] boardOf(Game game) {
+    int[] board = new int[TOTAL_PITS];
+    ArrayBoardSowingService.readBoard(game.getPits(), board);
+    if (isGameOver(board))
+      throw new GameCompletedException("No move can be suggested for a finished game.");
+    return board;
+  }
+}
@@ -0,0 +1,165 @@
+package com.ashok.kalaha.service;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import com.ashok.kalaha.api.ReactiveGameService;
+import com.ashok.kalaha.api.SowingService;
+import com.ashok.kalaha.cache.TwoLevelCacheManager;
+import com.ashok.kalaha.config.KalahaProperties;
+import com.ashok.kalaha.dto.GameDelta;
+import com.ashok.kalaha.exceptions.GameNotFoundException;
+import com.ashok.kalaha.exceptions.GameUpdateConflictException;
+import com.ashok.kalaha.model.Game;
+import com.ashok.kalaha.model.GameStatus;
+import com.ashok.kalaha.repository.ReactiveGameRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non blocking counterpart of {@link GameServiceImpl}. Games are cached aside in redis under the
+ * {@code games::<gameId>} keys of the blocking cache, completed games are evicted instead of
+ * cached, and updates are rejected when the stored revision moved on. Every cache write is
+ * announced on the invalidation channel, so blocking nodes sharing the redis drop their local copy.
+ */
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveGameServiceImpl implements ReactiveGameService {
+  static final String CACHE_NAME = "games";
+  static final String CACHE_KEY_PREFIX = CACHE_NAME + "::";
+
+  private final String nodeId = "reactive-" + UUID.randomUUID();
+  private final ReactiveGameRepository gameRepository;
+  private final ReactiveMongoOperations mongoOperations;
+  private final ReactiveRedisTemplate<String, Game> redisTemplate;
+  private final ReactiveStringRedisTemplate stringRedisTemplate;
+  private final KalahaProperties kalahaProperties;
+  private final CacheProperties cacheProperties;
+
+  @Override
+  public Mono<Game> createGame(int stones, int numOfPlayers) {
+    return gameRepository.save(GameServiceImpl.newGame(stones, numOfPlayers, Instant.now()));
+  }
+
+  @Override
+  public Mono<Game> loadGame(String gameId) {
+    Mono<Game> storedGame =
+        Mono.defer(() -> gameRepository.findById(gameId))
+            .switchIfEmpty(
+                Mono.error(new GameNotFoundException("Game not found with gameId: " + gameId)));
+    if (!isCacheEnabled()) return storedGame;
+
+    return redisTemplate
+        .opsForValue()
+        .get(CACHE_KEY_PREFIX + gameId)
+        .switchIfEmpty(storedGame.flatMap(this::cache));
+  }
+
+  @Override
+  public Mono<Game> updateGame(Game game) {
+    Long revision = game.getRevision();
+    if (revision == null) {
+      game.setRevision(1L);
+      game.setUpdatedAt(Instant.now());
+      return gameRepository.save(game).flatMap(this::cache);
+    }
+
+    game.setRevision(revision + 1);
+    game.setUpdatedAt(Instant.now());
+    return mongoOperations
+        .findAndReplace(
+            query(where("gameId").is(game.getGameId()).and("revision").is(revision)), game)
+        .switchIfEmpty(
+            Mono.defer(
+                () -> {
+                  game.setRevision(revision);
+                  return staleOrMissingGameException(game.getGameId(), revision);
+                }))
+        .then(Mono.defer(() -> cache(game)));
+  }
+
+  @Override
+  public Mono<Game> sowAndUpdate(Game game, int pitId, SowingService sowingService) {
+    Long revision = game.getRevision();
+    if (revision == null) return updateGame(sowingService.sow(game, pitId));
+
+    Query unsownGame = GameServiceImpl.unsownGameQuery(game);
+    int[] previousStones = GameDelta.stonesOf(game);
+    sowingService.sow(game, pitId);
+
+    return mongoOperations
+        .findAndModify(
+            unsownGame,
+            GameServiceImpl.sowUpdate(game, previousStones),
+            FindAndModifyOptions.options().returnNew(true),
+            Game.class)
+        .switchIfEmpty(Mono.defer(() -> staleOrMissingGameException(game.getGameId(), revision)))
+        .flatMap(this::cache);
+  }
+
+  @Override
+  public Mono<Void> evictGame(String gameId) {
+    if (!isCacheEnabled()) return Mono.empty();
+    return redisTemplate
+        .opsForValue()
+        .delete(CACHE_KEY_PREFIX + gameId)
+        .then(publishInvalidation(gameId));
+  }
+
+  private Mono<Game> cache(Game game) {
+    if (!isCacheEnabled()) return Mono.just(game);
+    if (game.getGameStatus() == GameStatus.COMPLETED
+        || game.getGameStatus() == GameStatus.COMPLETED_DRAW)
+      return evictGame(game.getGameId()).thenReturn(game);
+
+    Duration timeToLive = cacheProperties.getRedis().getTimeToLive();
+    var valueOperations = redisTemplate.opsForValue();
+    String key = CACHE_KEY_PREFIX + game.getGameId();
+    return (timeToLive != null
+            ? valueOperations.set(key, game, timeToLive)
+            : valueOperations.set(key, game))
+        .then(publishInvalidation(game.getGameId()))
+        .thenReturn(game);
+  }
+
+  private Mono<Void> publishInvalidation(String gameId) {
+    return Mono.defer(
+            () ->
+                stringRedisTemplate.convertAndSend(
+                    kalahaProperties.getCache().getInvalidationChannel(),
+                    TwoLevelCacheManager.invalidation(nodeId, CACHE_NAME, gameId)))
+        .then();
+  }
+
+  private boolean isCacheEnabled() {
+    return kalahaProperties.getCache().isEnabled();
+  }
+
+  private Mono<Game> staleOrMissingGameException(String gameId, long revision) {
+    return gameRepository
+        .existsById(gameId)
+        .flatMap(
+            exists ->
+                Mono.error(
+                    exists
+                        ? new GameUpdateConflictException(
+                            "Game with gameId: "
+                                + gameId
+                                + " has been updated concurrently, revision "
+                                + revision
+                                + " is stale")
+                        : new GameNotFoundException("Game not found with gameId: " + gameId)));
+  }
+}
@@ -0,0 +1,158 @@
+package com.ashok.kalaha.service;
+
+import com.ashok.kalaha.api.ReactiveGameEventService;
+import com.ashok.kalaha.config.KalahaProperties;
+import com.ashok.kalaha.dto.GameDelta;
+import com.ashok.kalaha.model.GameStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Reactive counterpart of {@link SseGameEventService}. Every game with subscribers has its own
+ * multicast sink, so an idle subscriber costs a subscription instead of a thread. Deltas go
+ * through the same redis channel and in the same json as the blocking stack, and a delta older
+ * than the last one emitted for the game is dropped the same way.
+ */
+@Slf4j
+@Service
+@Profile("reactive")
+public class ReactiveSseGameEventService implements ReactiveGameEventService {
+  private static final Sinks.EmitFailureHandler EMIT_FAILURE_HANDLER =
+      Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100));
+
+  private final Map<String, GameSink> sinks = new ConcurrentHashMap<>();
+  private final ReactiveStringRedisTemplate redisTemplate;
+  private final ObjectMapper objectMapper;
+  private final KalahaProperties.Events properties;
+  private Disposable redisSubscription;
+
+  public ReactiveSseGameEventService(
+      ReactiveStringRedisTemplate redisTemplate,
+      ObjectMapper objectMapper,
+      KalahaProperties kalahaProperties) {
+    this.redisTemplate = redisTemplate;
+    this.objectMapper = objectMapper;
+    this.properties = kalahaProperties.getEvents();
+  }
+
+  @PostConstruct
+  void listenToRedis() {
+    if (!properties.isRedisFanout()) return;
+    redisSubscription =
+        redisTemplate
+            .listenToChannel(properties.getChannel())
+            .subscribe(message -> dispatch(message.getMessage()));
+  }
+
+  @PreDestroy
+  void stopListeningToRedis() {
+    if (redisSubscription != null) redisSubscription.dispose();
+  }
+
+  @Override
+  public Flux<ServerSentEvent<GameDelta>> subscribe(String gameId) {
+    return Flux.defer(
+        () -> {
+          GameSink gameSink =
+              sinks.compute(
+                  gameId,
+                  (id, current) -> {
+                    GameSink sink = current != null ? current : new GameSink();
+                    sink.subscribers++;
+                    return sink;
+                  });
+
+          return gameSink
+              .sink
+              .asFlux()
+              .takeUntil(this::isGameCompleted)
+              .timeout(properties.getEmitterTimeout(), Flux.empty())
+              .map(
+                  gameDelta ->
+                      ServerSentEvent.builder(gameDelta)
+                          .event(SseGameEventService.MOVE_EVENT)
+                          .id(String.valueOf(gameDelta.getRevision()))
+                          .build())
+              .doFinally(signal -> unsubscribe(gameId));
+        });
+  }
+
+  @Override
+  public Mono<Void> publish(GameDelta gameDelta) {
+    if (!properties.isRedisFanout()) {
+      emit(gameDelta);
+      return Mono.empty();
+    }
+
+    String json;
+    try {
+      json = objectMapper.writeValueAsString(gameDelta);
+    } catch (JsonProcessingException e) {
+      log.error("could not serialize delta of gameId: " + gameDelta.getGameId(), e);
+      return Mono.empty();
+    }
+    return redisTemplate
+        .convertAndSend(properties.getChannel(), json)
+        .doOnError(e -> log.error("could not publish delta of gameId: " + gameDelta.getGameId(), e))
+        .onErrorResume(e -> Mono.empty())
+        .then();
+  }
+
+  private void dispatch(String json) {
+    try {
+      emit(objectMapper.readValue(json, GameDelta.class));
+    } catch (JsonProcessingException e) {
+      log.error("could not read game delta: " + json, e);
+    }
+  }
+
+  private void emit(GameDelta gameDelta) {
+    GameSink gameSink = sinks.get(gameDelta.getGameId());
+    if (gameSink == null) return;
+    synchronized (gameSink) {
+      if (gameSink.moveTo(gameDelta))
+        gameSink.sink.emitNext(gameDelta, EMIT_FAILURE_HANDLER);
+    }
+  }
+
+  private boolean isGameCompleted(GameDelta gameDelta) {
+    return gameDelta.getGameStatus() == GameStatus.COMPLETED
+        || gameDelta.getGameStatus() == GameStatus.COMPLETED_DRAW;
+  }
+
+  private void unsubscribe(String gameId) {
+    sinks.computeIfPresent(gameId, (id, gameSink) -> --gameSink.subscribers == 0 ? null : gameSink);
+  }
+
+  public int getSubscriberCount() {
+    return sinks.values().stream().mapToInt(gameSink -> gameSink.subscribers).sum();
+  }
+
+  private static final class GameSink {
+    private final Sinks.Many<GameDelta> sink = Sinks.many().multicast().directBestEffort();
+    private int subscribers;
+    private long emittedRevision = Long.MIN_VALUE;
+
+    private boolean moveTo(GameDelta gameDelta) {
+      Long revision = gameDelta.getRevision();
+      if (revision == null) return true;
+      if (revision <= emittedRevision && !gameDelta.isCorrection()) return false;
+      emittedRevision = revision;
+      return true;
+    }
+  }
+}
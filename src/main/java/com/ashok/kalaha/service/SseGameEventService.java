@@ -0,0 +1,235 @@
+package com.ashok.kalaha.service;
+
+import com.ashok.kalaha.api.GameEventService;
+import com.ashok.kalaha.config.KalahaProperties;
+import com.ashok.kalaha.dto.GameDelta;
+import com.ashok.kalaha.model.GameStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Streams {@link GameDelta}s to the server sent event subscribers of a game. With redis fan out
+ * enabled every delta goes through a redis channel, so subscribers connected to any node receive
+ * moves played on any other node. Deltas of one game can arrive out of order, from concurrent
+ * requests, lanes or redis, so a delta older than the last one dispatched for the game is dropped,
+ * unless it is a correction of moves that were lost.
+ *
+ * <p>Dispatching only queues the event for every subscriber, each subscriber is sent its events in
+ * order on a thread of its own while it has any, so a slow client holds neither the thread playing
+ * the move nor the other subscribers. A client falling too far behind is dropped.
+ */
+@Slf4j
+@Service
+@Profile("!reactive")
+public class SseGameEventService implements GameEventService, MessageListener {
+  public static final String MOVE_EVENT = "move";
+  static final int MAX_PENDING_EVENTS = 256;
+
+  private final Map<String, GameSubscribers> subscribers = new ConcurrentHashMap<>();
+  private final ExecutorService sender =
+      Executors.newCachedThreadPool(
+          runnable -> {
+            Thread thread = new Thread(runnable, "kalaha-events");
+            thread.setDaemon(true);
+            return thread;
+          });
+  private final StringRedisTemplate redisTemplate;
+  private final ObjectMapper objectMapper;
+  private final KalahaProperties.Events properties;
+
+  public SseGameEventService(
+      StringRedisTemplate redisTemplate,
+      ObjectMapper objectMapper,
+      KalahaProperties kalahaProperties) {
+    this.redisTemplate = redisTemplate;
+    this.objectMapper = objectMapper;
+    this.properties = kalahaProperties.getEvents();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    sender.shutdownNow();
+  }
+
+  @Override
+  public SseEmitter subscribe(String gameId) {
+    SseEmitter emitter = newEmitter(properties.getEmitterTimeout().toMillis());
+    Subscriber subscriber = new Subscriber(gameId, emitter);
+    subscribers.compute(
+        gameId,
+        (id, current) -> {
+          GameSubscribers gameSubscribers = current != null ? current : new GameSubscribers();
+          gameSubscribers.subscribers.add(subscriber);
+          return gameSubscribers;
+        });
+
+    Runnable unsubscribe = () -> unsubscribe(subscriber);
+    emitter.onCompletion(unsubscribe);
+    emitter.onTimeout(unsubscribe);
+    emitter.onError(e -> unsubscribe.run());
+    return emitter;
+  }
+
+  @Override
+  public void publish(GameDelta gameDelta) {
+    String json;
+    try {
+      json = objectMapper.writeValueAsString(gameDelta);
+    } catch (JsonProcessingException e) {
+      log.error("could not serialize delta of gameId: " + gameDelta.getGameId(), e);
+      return;
+    }
+
+    if (!properties.isRedisFanout()) {
+      dispatch(gameDelta, json);
+      return;
+    }
+    try {
+      redisTemplate.convertAndSend(properties.getChannel(), json);
+    } catch (DataAccessException e) {
+      log.error("could not publish delta of gameId: " + gameDelta.getGameId(), e);
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String json = new String(message.getBody(), StandardCharsets.UTF_8);
+    try {
+      dispatch(objectMapper.readValue(json, GameDelta.class), json);
+    } catch (IOException e) {
+      log.error("could not read game delta: " + json, e);
+    }
+  }
+
+  SseEmitter newEmitter(long timeout) {
+    return new SseEmitter(timeout);
+  }
+
+  private void dispatch(GameDelta gameDelta, String json) {
+    GameSubscribers gameSubscribers = subscribers.get(gameDelta.getGameId());
+    if (gameSubscribers == null) return;
+
+    PendingEvent event =
+        new PendingEvent(
+            String.valueOf(gameDelta.getRevision()),
+            json,
+            gameDelta.getGameStatus() == GameStatus.COMPLETED
+                || gameDelta.getGameStatus() == GameStatus.COMPLETED_DRAW);
+
+    // queueing under the lock keeps a newer delta from overtaking the one being queued
+    gameSubscribers.lock.lock();
+    try {
+      if (!gameSubscribers.moveTo(gameDelta)) return;
+      for (Subscriber subscriber : gameSubscribers.subscribers) subscriber.queue(event);
+    } finally {
+      gameSubscribers.lock.unlock();
+    }
+  }
+
+  private void unsubscribe(Subscriber subscriber) {
+    subscribers.computeIfPresent(
+        subscriber.gameId,
+        (id, gameSubscribers) -> {
+          gameSubscribers.subscribers.remove(subscriber);
+          return gameSubscribers.subscribers.isEmpty() ? null : gameSubscribers;
+        });
+  }
+
+  public int getSubscriberCount() {
+    return subscribers.values().stream()
+        .mapToInt(gameSubscribers -> gameSubscribers.subscribers.size())
+        .sum();
+  }
+
+  private record PendingEvent(String id, String json, boolean isLast) {}
+
+  private final class Subscriber {
+    private final String gameId;
+    private final SseEmitter emitter;
+    private final BlockingQueue<PendingEvent> pendingEvents =
+        new ArrayBlockingQueue<>(MAX_PENDING_EVENTS);
+    private final AtomicBoolean isSending = new AtomicBoolean();
+    private volatile boolean isDropped;
+
+    private Subscriber(String gameId, SseEmitter emitter) {
+      this.gameId = gameId;
+      this.emitter = emitter;
+    }
+
+    private void queue(PendingEvent event) {
+      if (isDropped) return;
+      if (!pendingEvents.offer(event)) {
+        log.debug("dropping subscriber of gameId: " + gameId + " falling behind");
+        drop();
+        sender.execute(emitter::complete);
+        return;
+      }
+      if (isSending.compareAndSet(false, true)) sender.execute(this::send);
+    }
+
+    /** Sends until nothing is pending, a queue racing the last poll starts sending again. */
+    private void send() {
+      do {
+        PendingEvent event;
+        while (!isDropped && (event = pendingEvents.poll()) != null) {
+          try {
+            // builders are mutable, every emitter gets its own event
+            emitter.send(
+                SseEmitter.event()
+                    .name(MOVE_EVENT)
+                    .id(event.id())
+                    .data(event.json(), MediaType.APPLICATION_JSON));
+            if (event.isLast()) emitter.complete();
+          } catch (IOException | IllegalStateException e) {
+            log.debug("dropping subscriber of gameId: " + gameId);
+            drop();
+          }
+        }
+        isSending.set(false);
+      } while (!isDropped && !pendingEvents.isEmpty() && isSending.compareAndSet(false, true));
+    }
+
+    private void drop() {
+      isDropped = true;
+      pendingEvents.clear();
+      unsubscribe(this);
+    }
+  }
+
+  private static final class GameSubscribers {
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private long dispatchedRevision = Long.MIN_VALUE;
+
+    /** Returns false for a delta older than the last one dispatched, corrections always pass. */
+    private boolean moveTo(GameDelta gameDelta) {
+      Long revision = gameDelta.getRevision();
+      if (revision == null) return true;
+      if (revision <= dispatchedRevision && !gameDelta.isCorrection()) return false;
+      dispatchedRevision = revision;
+      return true;
+    }
+  }
+}
@@ -3,10 +3,14 @@ package com.ashok.kalaha.service;
 import static com.ashok.kalaha.model.GameConstants.emptyStone;
 
 import com.ashok.kalaha.api.SowingService;
+import com.ashok.kalaha.engine.EndgameTablebase;
+import com.ashok.kalaha.engine.KalahaBoard;
 import com.ashok.kalaha.exceptions.*;
 import com.ashok.kalaha.model.*;
+import java.util.Optional;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -16,6 +20,17 @@ public class TwoPlayerSowingService implements SowingService {
   public static int playerOneLargerPit = 7;
   public static int playerTwoLargerPit = 14;
 
+  private final EndgameTablebase tablebase;
+
+  public TwoPlayerSowingService() {
+    this(Optional.empty());
+  }
+
+  @Autowired
+  public TwoPlayerSowingService(Optional<EndgameTablebase> tablebase) {
+    this.tablebase = tablebase.orElse(null);
+  }
+
   @Override
   public Game sow(Game game, int requestedPitId) {
     Pit selectedPit = game.getPit(requestedPitId);
@@ -26,6 +41,7 @@ public class TwoPlayerSowingService implements SowingService {
 
     boolean isGameCompleted = checkIfGameCompleted(game);
     if (isGameCompleted) setWinnerAncCloseTheGame(game);
+    else if (tablebase != null) adjudicate(game);
 
     return game;
   }
@@ -35,6 +51,8 @@ public class TwoPlayerSowingService implements SowingService {
     if (game.getGameStatus() == GameStatus.COMPLETED
         || game.getGameStatus() == GameStatus.COMPLETED_DRAW)
       throw new GameCompletedException("Sowing not allowed on completed game.");
+    if (game.getGameStatus() == GameStatus.ABANDONED)
+      throw new GameCompletedException("Sowing not allowed on abandoned game.");
 
     if (requestedPitId == playerOneLargerPit || requestedPitId == playerTwoLargerPit)
       throw new SowingFromLargerPitException("sowing stones from larger pit is not allowed");
@@ -141,6 +159,12 @@ public class TwoPlayerSowingService implements SowingService {
     }
   }
 
+  private void adjudicate(Game game) {
+    int[] board = new int[KalahaBoard.TOTAL_PITS];
+    ArrayBoardSowingService.readBoard(game.getPits(), board);
+    ArrayBoardSowingService.adjudicate(game, board, tablebase);
+  }
+
   private boolean checkIfGameCompleted(Game game) {
     Supplier<Stream<Pit>> normalPitsStreamSupplier =
         () -> game.getPits().stream().filter(pit -> pit.getPitId() != 7 && pit.getPitId() != 14);
@@ -0,0 +1,21 @@
+package com.ashok.kalaha.tracing;
+
+import io.micrometer.observation.Observation;
+
+/**
+ * Names of the observations of a traced move request. The {@value #MOVE} observation spans the
+ * whole request including rendering the response, {@value #STAGE} observations, tagged by {@code
+ * stage}, span the game service and sowing calls made while a move is traced.
+ */
+public final class MoveTracing {
+  public static final String MOVE = "kalaha.move";
+  public static final String STAGE = "kalaha.move.stage";
+
+  private MoveTracing() {}
+
+  public static boolean isTraced(Observation observation) {
+    if (observation == null) return false;
+    String name = observation.getContext().getName();
+    return MOVE.equals(name) || STAGE.equals(name);
+  }
+}
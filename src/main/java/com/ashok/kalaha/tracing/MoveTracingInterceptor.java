@@ -0,0 +1,62 @@
+package com.ashok.kalaha.tracing;
+
+import com.ashok.kalaha.config.KalahaProperties;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Starts a {@link MoveTracing#MOVE} observation for a sampled share of move requests and keeps it
+ * current until the response is written. Requests that are not sampled create no observations at
+ * all.
+ */
+public class MoveTracingInterceptor implements HandlerInterceptor {
+  private static final String SCOPE = MoveTracingInterceptor.class.getName() + ".scope";
+
+  private final ObservationRegistry observationRegistry;
+  private final double sampleRate;
+
+  public MoveTracingInterceptor(
+      ObservationRegistry observationRegistry, KalahaProperties kalahaProperties) {
+    this.observationRegistry = observationRegistry;
+    this.sampleRate = kalahaProperties.getTracing().getSampleRate();
+  }
+
+  @Override
+  public boolean preHandle(
+      HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (request.getMethod().equals("GET")) return true;
+    if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) return true;
+
+    @SuppressWarnings("unchecked")
+    Map<String, String> pathVariables =
+        (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+    Observation move =
+        Observation.createNotStarted(MoveTracing.MOVE, observationRegistry)
+            .contextualName(request.getMethod() + " move")
+            .lowCardinalityKeyValue("method", request.getMethod())
+            .highCardinalityKeyValue(
+                "gameId", pathVariables == null ? "unknown" : pathVariables.get("gameId"))
+            .start();
+    request.setAttribute(SCOPE, move.openScope());
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(
+      HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+    if (!(request.getAttribute(SCOPE) instanceof Observation.Scope scope)) return;
+
+    request.removeAttribute(SCOPE);
+    Observation move = scope.getCurrentObservation();
+    scope.close();
+    move.lowCardinalityKeyValue("status", String.valueOf(response.getStatus()));
+    if (ex != null) move.error(ex);
+    move.stop();
+  }
+}
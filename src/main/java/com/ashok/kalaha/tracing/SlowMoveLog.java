@@ -0,0 +1,120 @@
+package com.ashok.kalaha.tracing;
+
+import com.ashok.kalaha.config.KalahaProperties;
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Logs traced moves slower than {@code slow-threshold} with the time spent in every stage. Stages
+ * called from another stage are listed as {@code outer/inner}, and the time no top level stage
+ * accounts for, like rendering the response, filters or waiting for a lane, as {@code other}.
+ */
+@Slf4j
+public class SlowMoveLog implements ObservationHandler<Observation.Context> {
+  private final long slowThresholdNanos;
+  private final Consumer<String> sink;
+
+  public SlowMoveLog(KalahaProperties kalahaProperties) {
+    this(kalahaProperties, log::warn);
+  }
+
+  SlowMoveLog(KalahaProperties kalahaProperties, Consumer<String> sink) {
+    this.slowThresholdNanos = kalahaProperties.getTracing().getSlowThreshold().toNanos();
+    this.sink = sink;
+  }
+
+  @Override
+  public boolean supportsContext(Observation.Context context) {
+    return MoveTracing.MOVE.equals(context.getName())
+        || MoveTracing.STAGE.equals(context.getName());
+  }
+
+  @Override
+  public void onStart(Observation.Context context) {
+    boolean isMove = MoveTracing.MOVE.equals(context.getName());
+    Observation parent = context.getParentObservation();
+    Observation.ContextView parentContext = parent == null ? null : parent.getContextView();
+
+    Trace trace = isMove || parentContext == null ? null : parentContext.get(Trace.class);
+    Span parentSpan =
+        isMove || parentContext == null || MoveTracing.MOVE.equals(parentContext.getName())
+            ? null
+            : parentContext.get(Span.class);
+    String stage = stageOf(context);
+    context.put(Trace.class, trace == null ? new Trace() : trace);
+    context.put(
+        Span.class,
+        new Span(parentSpan == null ? stage : parentSpan.name + "/" + stage, parentSpan == null));
+  }
+
+  @Override
+  public void onStop(Observation.Context context) {
+    Trace trace = context.get(Trace.class);
+    Span span = context.get(Span.class);
+    if (trace == null || span == null) return;
+
+    long nanos = System.nanoTime() - span.startNanos;
+    if (MoveTracing.STAGE.equals(context.getName())) {
+      trace.stages.add(new Stage(span.name, nanos, span.isTopLevel));
+      return;
+    }
+    if (nanos >= slowThresholdNanos) sink.accept(describe(context, trace, nanos));
+  }
+
+  private static String describe(Observation.Context move, Trace trace, long nanos) {
+    StringBuilder description =
+        new StringBuilder("slow move of gameId: ")
+            .append(valueOf(move.getHighCardinalityKeyValue("gameId")))
+            .append(" took ")
+            .append(millis(nanos))
+            .append(", status ")
+            .append(valueOf(move.getLowCardinalityKeyValue("status")))
+            .append(" [");
+
+    long attributedNanos = 0;
+    for (Stage stage : trace.stages) {
+      description.append(stage.name).append(' ').append(millis(stage.nanos)).append(", ");
+      if (stage.isTopLevel) attributedNanos += stage.nanos;
+    }
+    description.append("other ").append(millis(nanos - attributedNanos)).append(']');
+    if (move.getError() != null)
+      description.append(" failed with ").append(move.getError().getClass().getSimpleName());
+    return description.toString();
+  }
+
+  private static String stageOf(Observation.Context context) {
+    KeyValue stage = context.getLowCardinalityKeyValue("stage");
+    return stage == null ? "move" : stage.getValue();
+  }
+
+  private static String valueOf(KeyValue keyValue) {
+    return keyValue == null ? "unknown" : keyValue.getValue();
+  }
+
+  private static String millis(long nanos) {
+    return String.format(Locale.ROOT, "%.2fms", nanos / 1_000_000.0);
+  }
+
+  private static final class Trace {
+    private final List<Stage> stages = new ArrayList<>(4);
+  }
+
+  private static final class Span {
+    private final String name;
+    private final boolean isTopLevel;
+    private final long startNanos = System.nanoTime();
+
+    private Span(String name, boolean isTopLevel) {
+      this.name = name;
+      this.isTopLevel = isTopLevel;
+    }
+  }
+
+  private record Stage(String name, long nanos, boolean isTopLevel) {}
+}
@@ -0,0 +1,95 @@
+package com.ashok.kalaha.simulation;
+
+import static com.ashok.kalaha.engine.KalahaBoard.*;
+
+import com.ashok.kalaha.engine.AlphaBetaSearch;
+import com.ashok.kalaha.engine.TranspositionTable;
+import java.util.SplittableRandom;
+
+/**
+ * Picks the pit a simulated player sows from. A policy belongs to one simulation thread, so it
+ * keeps its random generator and scratch boards to itself and doesn't allocate per move.
+ */
+public interface MovePolicy {
+  int choose(int[] board, int player);
+
+  /**
+   * Creates the policy {@code name}: {@code random} picks any legal pit, {@code greedy} takes an
+   * extra turn when it can and otherwise the pit that adds most to its store, and {@code search}
+   * plays the best move of an alpha-beta search {@code search-depth} plies deep.
+   */
+  static MovePolicy create(String name, SplittableRandom random, SimulationOptions options) {
+    return switch (name) {
+      case "random" -> new RandomPolicy(random);
+      case "greedy" -> new GreedyPolicy(random);
+      case "search" -> new SearchPolicy(options.searchDepth());
+      default -> throw new IllegalArgumentException("unknown policy: " + name);
+    };
+  }
+
+  final class RandomPolicy implements MovePolicy {
+    private final SplittableRandom random;
+
+    private RandomPolicy(SplittableRandom random) {
+      this.random = random;
+    }
+
+    @Override
+    public int choose(int[] board, int player) {
+      int first = firstPit(player);
+      int legalMoves = 0;
+      for (int pit = first; pit < first + PITS_PER_SIDE; pit++) if (board[pit] != 0) legalMoves++;
+
+      int move = random.nextInt(legalMoves);
+      for (int pit = first; ; pit++) if (board[pit] != 0 && move-- == 0) return pit;
+    }
+  }
+
+  final class GreedyPolicy implements MovePolicy {
+    private static final int EXTRA_TURN_BONUS = 1 << 16;
+
+    private final SplittableRandom random;
+    private final int[] scratch = new int[TOTAL_PITS];
+
+    private GreedyPolicy(SplittableRandom random) {
+      this.random = random;
+    }
+
+    @Override
+    public int choose(int[] board, int player) {
+      int first = firstPit(player);
+      int store = store(player);
+      int bestPit = -1;
+      int bestGain = Integer.MIN_VALUE;
+      int ties = 0;
+      for (int pit = first; pit < first + PITS_PER_SIDE; pit++) {
+        if (board[pit] == 0) continue;
+        System.arraycopy(board, 0, scratch, 0, TOTAL_PITS);
+        int result = sow(scratch, player, pit);
+        int gain = scratch[store] - board[store];
+        if ((result & EXTRA_TURN) != 0 && (result & GAME_OVER) == 0) gain += EXTRA_TURN_BONUS;
+
+        if (gain > bestGain) {
+          bestGain = gain;
+          bestPit = pit;
+          ties = 1;
+        } else if (gain == bestGain && random.nextInt(++ties) == 0) bestPit = pit;
+      }
+      return bestPit;
+    }
+  }
+
+  final class SearchPolicy implements MovePolicy {
+    private final int depth;
+    private final AlphaBetaSearch search = new AlphaBetaSearch(new TranspositionTable(1 << 16));
+
+    private SearchPolicy(int depth) {
+      this.depth = depth;
+    }
+
+    @Override
+    public int choose(int[] board, int player) {
+      return search.search(board, player, depth, System.nanoTime() + Long.MAX_VALUE / 4).pit();
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package com.ashok.kalaha.simulation;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Options of a simulation run, given as {@code --name=value} arguments. {@code stones} is a comma
+ * separated list of house variants, each played {@code games} times.
+ */
+public record SimulationOptions(
+    long games,
+    List<Integer> stones,
+    String playerOne,
+    String playerTwo,
+    int searchDepth,
+    int threads,
+    long seed,
+    Path output,
+    Path lengthsOutput) {
+
+  public static SimulationOptions parse(String... args) {
+    Map<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      if (!arg.startsWith("--") || !arg.contains("="))
+        throw new IllegalArgumentException("expected --name=value but got: " + arg);
+      options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+    }
+
+    String lengthsOutput = options.get("lengths-output");
+    return new SimulationOptions(
+        Long.parseLong(options.getOrDefault("games", "1000000")),
+        Arrays.stream(options.getOrDefault("stones", "4,5,6").split(","))
+            .map(String::trim)
+            .map(Integer::parseInt)
+            .toList(),
+        options.getOrDefault("player-one", "random"),
+        options.getOrDefault("player-two", "random"),
+        Integer.parseInt(options.getOrDefault("search-depth", "4")),
+        Integer.parseInt(
+            options.getOrDefault(
+                "threads", String.valueOf(Runtime.getRuntime().availableProcessors()))),
+        Long.parseLong(options.getOrDefault("seed", String.valueOf(System.nanoTime()))),
+        Path.of(options.getOrDefault("output", "simulation.csv")),
+        lengthsOutput == null ? null : Path.of(lengthsOutput));
+  }
+}
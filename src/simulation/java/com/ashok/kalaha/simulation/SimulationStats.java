@@ -0,0 +1,107 @@
+package com.ashok.kalaha.simulation;
+
+import java.io.PrintStream;
+import java.util.Locale;
+
+/**
+ * Results of the games of one house variant, counted by one simulation thread and merged at the
+ * end, so counting needs no synchronization.
+ */
+public final class SimulationStats {
+  private static final int MAX_TRACKED_PLIES = 1024;
+
+  private final int stones;
+  private long games;
+  private long playerOneWins;
+  private long playerTwoWins;
+  private long draws;
+  private long plies;
+  private long margin;
+  private int maxPlies;
+  private final long[] gamesByPlies = new long[MAX_TRACKED_PLIES + 1];
+
+  public SimulationStats(int stones) {
+    this.stones = stones;
+  }
+
+  /** Counts a game that took {@code gamePlies} moves and that player one won by {@code margin}. */
+  public void record(int gamePlies, int playerOneMargin) {
+    games++;
+    if (playerOneMargin > 0) playerOneWins++;
+    else if (playerOneMargin < 0) playerTwoWins++;
+    else draws++;
+    plies += gamePlies;
+    margin += playerOneMargin;
+    maxPlies = Math.max(maxPlies, gamePlies);
+    gamesByPlies[Math.min(gamePlies, MAX_TRACKED_PLIES)]++;
+  }
+
+  public void merge(SimulationStats other) {
+    games += other.games;
+    playerOneWins += other.playerOneWins;
+    playerTwoWins += other.playerTwoWins;
+    draws += other.draws;
+    plies += other.plies;
+    margin += other.margin;
+    maxPlies = Math.max(maxPlies, other.maxPlies);
+    for (int i = 0; i < gamesByPlies.length; i++) gamesByPlies[i] += other.gamesByPlies[i];
+  }
+
+  public long games() {
+    return games;
+  }
+
+  public static void printHeader(PrintStream out) {
+    out.println(
+        "stones,player_one,player_two,games,player_one_wins,player_two_wins,draws,"
+            + "player_one_win_rate,player_two_win_rate,draw_rate,mean_margin,"
+            + "mean_plies,p50_plies,p90_plies,p99_plies,max_plies");
+  }
+
+  public void print(PrintStream out, String playerOne, String playerTwo) {
+    out.printf(
+        Locale.ROOT,
+        "%d,%s,%s,%d,%d,%d,%d,%.6f,%.6f,%.6f,%.4f,%.4f,%d,%d,%d,%d%n",
+        stones,
+        playerOne,
+        playerTwo,
+        games,
+        playerOneWins,
+        playerTwoWins,
+        draws,
+        rate(playerOneWins),
+        rate(playerTwoWins),
+        rate(draws),
+        games == 0 ? 0.0 : (double) margin / games,
+        games == 0 ? 0.0 : (double) plies / games,
+        percentile(0.50),
+        percentile(0.90),
+        percentile(0.99),
+        maxPlies);
+  }
+
+  public static void printLengthsHeader(PrintStream out) {
+    out.println("stones,plies,games");
+  }
+
+  /** Prints the number of games per game length, the last length counts all longer games too. */
+  public void printLengths(PrintStream out) {
+    for (int gamePlies = 0; gamePlies < gamesByPlies.length; gamePlies++)
+      if (gamesByPlies[gamePlies] != 0)
+        out.println(stones + "," + gamePlies + "," + gamesByPlies[gamePlies]);
+  }
+
+  private double rate(long count) {
+    return games == 0 ? 0.0 : (double) count / games;
+  }
+
+  int percentile(double percentile) {
+    long rank = (long) Math.ceil(percentile * games);
+    long seen = 0;
+    for (int gamePlies = 0; gamePlies < gamesByPlies.length; gamePlies++) {
+      seen += gamesByPlies[gamePlies];
+      if (seen >= rank && seen > 0) return gamePlies;
+    }
+    return maxPlies;
+  }
+}
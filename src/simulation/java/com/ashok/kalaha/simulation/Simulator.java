@@ -0,0 +1,99 @@
+package com.ashok.kalaha.simulation;
+
+import static com.ashok.kalaha.engine.KalahaBoard.*;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Plays games between two {@link MovePolicy}s without a running instance, straight on {@link
+ * com.ashok.kalaha.engine.KalahaBoard} arrays, and writes win rates and game length percentiles
+ * per stone count as CSV. The games of a stone count are split evenly over {@code threads}
+ * platform threads. Each thread plays on one reused board with its own policies, random
+ * generators and statistics, so games share nothing and allocate nothing; statistics are merged
+ * once all threads are done. A run with the same seed and threads plays the same games.
+ */
+public class Simulator {
+  private final SimulationOptions options;
+
+  public Simulator(SimulationOptions options) {
+    this.options = options;
+  }
+
+  public static void main(String[] args)
+      throws InterruptedException, ExecutionException, IOException {
+    new Simulator(SimulationOptions.parse(args)).run();
+  }
+
+  public void run() throws InterruptedException, ExecutionException, IOException {
+    System.out.println("simulating with " + options);
+    List<SimulationStats> results = new ArrayList<>();
+    SplittableRandom seeds = new SplittableRandom(options.seed());
+    try (ExecutorService workers = Executors.newFixedThreadPool(options.threads())) {
+      for (int stones : options.stones()) {
+        long start = System.nanoTime();
+        List<Future<SimulationStats>> futures = new ArrayList<>();
+        for (int worker = 0; worker < options.threads(); worker++) {
+          long games = options.games() / options.threads();
+          if (worker < options.games() % options.threads()) games++;
+          long workerGames = games;
+          SplittableRandom random = seeds.split();
+          futures.add(workers.submit(() -> play(stones, workerGames, random)));
+        }
+
+        SimulationStats stats = new SimulationStats(stones);
+        for (Future<SimulationStats> future : futures) stats.merge(future.get());
+        results.add(stats);
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf(
+            "%d stones: %d games in %.2f s, %.0f games/min%n",
+            stones, stats.games(), seconds, stats.games() / seconds * 60);
+      }
+    }
+
+    try (PrintStream out = new PrintStream(Files.newOutputStream(options.output()))) {
+      SimulationStats.printHeader(out);
+      for (SimulationStats stats : results)
+        stats.print(out, options.playerOne(), options.playerTwo());
+    }
+    System.out.println("statistics written to " + options.output());
+    if (options.lengthsOutput() == null) return;
+
+    try (PrintStream out = new PrintStream(Files.newOutputStream(options.lengthsOutput()))) {
+      SimulationStats.printLengthsHeader(out);
+      for (SimulationStats stats : results) stats.printLengths(out);
+    }
+    System.out.println("game lengths written to " + options.lengthsOutput());
+  }
+
+  private SimulationStats play(int stones, long games, SplittableRandom random) {
+    MovePolicy[] policies = {
+      MovePolicy.create(options.playerOne(), random.split(), options),
+      MovePolicy.create(options.playerTwo(), random.split(), options)
+    };
+    SimulationStats stats = new SimulationStats(stones);
+    int[] board = newBoard(stones);
+    for (long game = 0; game < games; game++) {
+      reset(board, stones);
+      int player = PLAYER_ONE;
+      int plies = 0;
+      int result;
+      do {
+        result = sow(board, player, policies[player].choose(board, player));
+        plies++;
+        if ((result & EXTRA_TURN) == 0) player = opponent(player);
+      } while ((result & GAME_OVER) == 0);
+      stats.record(plies, score(board, PLAYER_ONE) - score(board, PLAYER_TWO));
+    }
+    return stats;
+  }
+}
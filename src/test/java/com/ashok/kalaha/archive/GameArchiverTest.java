@@ -0,0 +1,148 @@
+package com.ashok.kalaha.archive;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.ashok.kalaha.api.GameService;
+import com.ashok.kalaha.config.KalahaProperties;
+import com.ashok.kalaha.model.ArchivedGame;
+import com.ashok.kalaha.model.Game;
+import com.ashok.kalaha.model.GameStatus;
+import com.ashok.kalaha.model.Player;
+import com.mongodb.client.result.DeleteResult;
+import java.util.List;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+
+public class GameArchiverTest {
+  private final MongoOperations mongoOperations = mock(MongoOperations.class);
+  private final BulkOperations bulkOperations = mock(BulkOperations.class);
+  private final GameService gameService = mock(GameService.class);
+  private final KalahaProperties kalahaProperties = new KalahaProperties();
+  private GameArchiver gameArchiver;
+
+  @BeforeEach
+  public void setUp() {
+    when(mongoOperations.bulkOps(any(BulkOperations.BulkMode.class), eq(ArchivedGame.class)))
+        .thenReturn(bulkOperations);
+    when(mongoOperations.remove(any(Query.class), eq(Game.class)))
+        .thenAnswer(
+            invocation ->
+                DeleteResult.acknowledged(
+                    invocation
+                        .<Query>getArgument(0)
+                        .getQueryObject()
+                        .get("gameId", Document.class)
+                        .getList("$in", String.class)
+                        .size()));
+    gameArchiver = new GameArchiver(mongoOperations, gameService, kalahaProperties);
+  }
+
+  @AfterEach
+  public void tearDown() throws InterruptedException {
+    gameArchiver.shutdown();
+  }
+
+  @Test
+  public void shouldMoveFinishedGamesToArchiveWithoutPits() {
+    var completedGame = aGame("completed", GameStatus.COMPLETED);
+    completedGame.getPit(7).setStones(40);
+    completedGame.getPit(14).setStones(32);
+    completedGame.setWinner(Player.PLAYER_ONE);
+    when(mongoOperations.find(any(Query.class), eq(Game.class)))
+        .thenReturn(List.of(completedGame), List.of());
+
+    assertEquals(1, gameArchiver.archive());
+
+    verify(bulkOperations)
+        .replaceOne(
+            any(Query.class),
+            argThat(
+                (ArchivedGame archivedGame) ->
+                    archivedGame.getGameId().equals("completed")
+                        && archivedGame.getWinner() == Player.PLAYER_ONE
+                        && archivedGame.getStores().equals(List.of(40, 32))
+                        && archivedGame.getArchivedAt() != null),
+            any(FindAndReplaceOptions.class));
+    verify(bulkOperations).execute();
+    verify(gameService, never()).evictGame(any());
+  }
+
+  @Test
+  public void shouldEvictArchivedAbandonedGamesFromCache() {
+    when(mongoOperations.find(any(Query.class), eq(Game.class)))
+        .thenReturn(List.of(), List.of(aGame("abandoned", GameStatus.IN_PROGRESS)));
+
+    assertEquals(1, gameArchiver.archive());
+
+    verify(gameService).evictGame("abandoned");
+  }
+
+  @Test
+  public void shouldArchiveAtMostMaxBatchesPerRun() {
+    kalahaProperties.getArchive().setBatchSize(2);
+    kalahaProperties.getArchive().setMaxBatchesPerRun(3);
+    when(mongoOperations.find(any(Query.class), eq(Game.class)))
+        .thenReturn(
+            List.of(
+                aGame("first", GameStatus.COMPLETED), aGame("second", GameStatus.COMPLETED_DRAW)));
+
+    assertEquals(12, gameArchiver.archive());
+
+    verify(mongoOperations, times(6)).find(any(Query.class), eq(Game.class));
+    verify(bulkOperations, times(6)).execute();
+  }
+
+  @Test
+  public void shouldDeleteArchivedCopyOfGamePlayedBeforeItsRemove() {
+    when(mongoOperations.find(any(Query.class), eq(Game.class)))
+        .thenReturn(
+            List.of(aGame("first", GameStatus.COMPLETED), aGame("played", GameStatus.COMPLETED)),
+            List.of(aGame("played", GameStatus.COMPLETED)),
+            List.of());
+    when(mongoOperations.remove(any(Query.class), eq(Game.class)))
+        .thenReturn(DeleteResult.acknowledged(1));
+
+    assertEquals(1, gameArchiver.archive());
+
+    verify(bulkOperations, times(2))
+        .replaceOne(any(Query.class), any(ArchivedGame.class), any(FindAndReplaceOptions.class));
+    verify(mongoOperations)
+        .remove(
+            argThat(
+                (Query query) ->
+                    query
+                        .getQueryObject()
+                        .get("gameId", Document.class)
+                        .getList("$in", String.class)
+                        .equals(List.of("played"))),
+            eq(ArchivedGame.class));
+  }
+
+  @Test
+  public void shouldKeepArchivedCopiesWhenAllGamesAreRemoved() {
+    when(mongoOperations.find(any(Query.class), eq(Game.class)))
+        .thenReturn(List.of(aGame("completed", GameStatus.COMPLETED)), List.of());
+
+    gameArchiver.archive();
+
+    verify(mongoOperations, never()).remove(any(Query.class), eq(ArchivedGame.class));
+  }
+
+  private static Game aGame(String gameId, GameStatus gameStatus) {
+    var game = new Game(6);
+    game.setGameId(gameId);
+    game.setGameStatus(gameStatus);
+    game.setRevision(12L);
+    return game;
+  }
+}
@@ -0,0 +1,92 @@
+package com.ashok.kalaha.archive;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.ashok.kalaha.api.GameService;
+import com.ashok.kalaha.config.KalahaProperties;
+import com.ashok.kalaha.model.Game;
+import com.ashok.kalaha.model.GameStatus;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+public class GameReaperTest {
+  private final MongoOperations mongoOperations = mock(MongoOperations.class);
+  private final GameService gameService = mock(GameService.class);
+  private final KalahaProperties kalahaProperties = new KalahaProperties();
+  private GameReaper gameReaper;
+
+  @BeforeEach
+  public void setUp() {
+    when(mongoOperations.updateMulti(any(Query.class), any(Update.class), eq(Game.class)))
+        .thenAnswer(
+            invocation ->
+                UpdateResult.acknowledged(
+                    0,
+                    (long)
+                        invocation
+                            .<Query>getArgument(0)
+                            .getQueryObject()
+                            .get("gameId", Document.class)
+                            .getList("$in", String.class)
+                            .size(),
+                    null));
+    gameReaper = new GameReaper(mongoOperations, gameService, kalahaProperties);
+  }
+
+  @AfterEach
+  public void tearDown() throws InterruptedException {
+    gameReaper.shutdown();
+  }
+
+  @Test
+  public void shouldMarkIdleGamesAsAbandonedAndEvictThem() {
+    when(mongoOperations.find(any(Query.class), eq(Game.class)))
+        .thenReturn(List.of(aGame("first"), aGame("second")));
+
+    assertEquals(2, gameReaper.reap());
+
+    var updateCaptor = ArgumentCaptor.forClass(Update.class);
+    verify(mongoOperations).updateMulti(any(Query.class), updateCaptor.capture(), eq(Game.class));
+    Document update = updateCaptor.getValue().getUpdateObject();
+    assertEquals(GameStatus.ABANDONED, update.get("$set", Document.class).get("gameStatus"));
+    assertEquals(1, update.get("$inc", Document.class).get("revision"));
+    verify(gameService).evictGame("first");
+    verify(gameService).evictGame("second");
+  }
+
+  @Test
+  public void shouldReapAtMostMaxBatchesPerRunAndCountThem() {
+    kalahaProperties.getReaper().setBatchSize(2);
+    kalahaProperties.getReaper().setMaxBatchesPerRun(3);
+    when(mongoOperations.find(any(Query.class), eq(Game.class)))
+        .thenReturn(List.of(aGame("first"), aGame("second")));
+    var registry = new SimpleMeterRegistry();
+    gameReaper.bindTo(registry);
+
+    assertEquals(6, gameReaper.reap());
+    when(mongoOperations.find(any(Query.class), eq(Game.class))).thenReturn(List.of());
+    assertEquals(0, gameReaper.reap());
+
+    verify(mongoOperations, times(4)).find(any(Query.class), eq(Game.class));
+    assertEquals(6, registry.get("kalaha.reaper.abandoned.games").functionCounter().count());
+    assertEquals(2, registry.get("kalaha.reaper.runs").functionCounter().count());
+  }
+
+  private static Game aGame(String gameId) {
+    var game = new Game(6);
+    game.setGameId(gameId);
+    return game;
+  }
+}
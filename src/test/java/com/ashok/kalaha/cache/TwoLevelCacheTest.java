@@ -0,0 +1,102 @@
+package com.ashok.kalaha.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.ashok.kalaha.model.Game;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+public class TwoLevelCacheTest {
+  private CaffeineCache localCache;
+  private ConcurrentMapCache remoteCache;
+  private List<Object> invalidations;
+  private TwoLevelCache twoLevelCache;
+
+  @BeforeEach
+  public void setup() {
+    localCache = new CaffeineCache("games", Caffeine.newBuilder().build(), false);
+    remoteCache = new ConcurrentMapCache("games", false);
+    invalidations = new ArrayList<>();
+    twoLevelCache =
+        new TwoLevelCache(
+            "games",
+            localCache,
+            remoteCache,
+            invalidations::add,
+            value -> value instanceof Game game ? new Game(game) : value);
+  }
+
+  @Test
+  public void shouldWriteToBothTiersAndPublishInvalidation() {
+    twoLevelCache.put("gameId", "game");
+
+    assertEquals("game", localCache.get("gameId").get());
+    assertEquals("game", remoteCache.get("gameId").get());
+    assertEquals(List.of("gameId"), invalidations);
+  }
+
+  @Test
+  public void shouldFillLocalTierFromRemoteTier() {
+    remoteCache.put("gameId", "game");
+
+    assertEquals("game", twoLevelCache.get("gameId", String.class));
+    assertEquals("game", localCache.get("gameId").get());
+
+    remoteCache.evict("gameId");
+    assertEquals("game", twoLevelCache.get("gameId", String.class));
+  }
+
+  @Test
+  public void shouldNotPublishInvalidationWhenFillingTiersAfterMiss() {
+    remoteCache.put("remoteGameId", "remoteGame");
+
+    assertEquals("remoteGame", twoLevelCache.get("remoteGameId", String.class));
+    assertEquals("loadedGame", twoLevelCache.get("loadedGameId", () -> "loadedGame"));
+    assertEquals("loadedGame", twoLevelCache.get("loadedGameId", () -> "reloadedGame"));
+
+    assertEquals("loadedGame", localCache.get("loadedGameId").get());
+    assertEquals("loadedGame", remoteCache.get("loadedGameId").get());
+    assertEquals(List.of(), invalidations);
+  }
+
+  @Test
+  public void shouldOnlyDropLocalTierOnInvalidation() {
+    twoLevelCache.put("gameId", "game");
+
+    twoLevelCache.invalidateLocal("gameId");
+
+    assertNull(localCache.get("gameId"));
+    assertEquals("game", twoLevelCache.get("gameId").get());
+  }
+
+  @Test
+  public void shouldNotShareLocalInstancesWithCallers() {
+    var game = new Game(6);
+    twoLevelCache.put("gameId", game);
+    game.getPit(1).setStones(0);
+
+    var cachedGame = twoLevelCache.get("gameId", Game.class);
+    assertNotSame(game, cachedGame);
+    assertEquals(6, cachedGame.getPit(1).getStones());
+
+    cachedGame.getPit(2).setStones(0);
+    assertEquals(6, twoLevelCache.get("gameId", Game.class).getPit(2).getStones());
+  }
+
+  @Test
+  public void shouldEvictBothTiers() {
+    twoLevelCache.put("gameId", "game");
+    twoLevelCache.evict("gameId");
+
+    assertNull(twoLevelCache.get("gameId"));
+    assertEquals(List.of("gameId", "gameId"), invalidations);
+
+    twoLevelCache.clear();
+    assertEquals(TwoLevelCache.CLEAR_ALL, invalidations.get(2));
+  }
+}
@@ -1,27 +1,45 @@
 package com.ashok.kalaha.controller;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.ashok.kalaha.api.GameEventService;
+import com.ashok.kalaha.config.WireFormatConfig;
 import com.ashok.kalaha.dto.ErrorDetails;
+import com.ashok.kalaha.dto.GameBatchRequest;
+import com.ashok.kalaha.dto.GameBatchResponse;
+import com.ashok.kalaha.dto.GameDelta;
+import com.ashok.kalaha.dto.MoveBatchRequest;
 import com.ashok.kalaha.exceptions.GameNotFoundException;
+import com.ashok.kalaha.exceptions.GameUpdateConflictException;
+import com.ashok.kalaha.exceptions.NotYourTurnException;
+import com.ashok.kalaha.metrics.GameMetrics;
 import com.ashok.kalaha.model.Game;
 import com.ashok.kalaha.model.GameStatus;
 import com.ashok.kalaha.repository.GameRepository;
 import com.ashok.kalaha.service.GameServiceImpl;
 import com.ashok.kalaha.service.TwoPlayerSowingService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @WebMvcTest(controllers = GameController.class)
+@Import(WireFormatConfig.class)
 public class GameControllerTest {
   public static final int DEFAULT_STONES = 6;
   public static final int DEFAULT_NUM_OF_PLAYERS = 2;
@@ -33,11 +51,18 @@ public class GameControllerTest {
 
   @MockBean private GameRepository gameRepository;
 
+  @MockBean private GameMetrics gameMetrics;
+
+  @MockBean private GameEventService gameEventService;
+
   @Autowired ObjectMapper objectMapper;
 
   private static final String GAME_URL = "/v1/api/games";
+  private static final String BATCH_GAME_URL = GAME_URL + "/batch";
   private static final String LOAD_GAME_URL = GAME_URL + "/{gameId}";
   private static final String SOW_URL = GAME_URL + "/{gameId}/pits/{pitId}";
+  private static final String EVENTS_URL = GAME_URL + "/{gameId}/events";
+  private static final String MOVES_URL = GAME_URL + "/{gameId}/moves";
 
   private static final String DEFAULT_GAME_ID = "defaultGameId";
   public static final String INVALID_GAME_ID = "invalidGameId";
@@ -149,6 +174,44 @@ public class GameControllerTest {
     verify(gameServiceImpl, Mockito.times(1)).loadGame(DEFAULT_GAME_ID);
   }
 
+  @Test
+  public void shouldLoadExistingGameAsCbor() throws Exception {
+    var mockedGame = buildAGame();
+    when(gameServiceImpl.loadGame(DEFAULT_GAME_ID)).thenReturn(mockedGame);
+
+    mockMvc
+        .perform(get(LOAD_GAME_URL, DEFAULT_GAME_ID).accept(WireFormatConfig.APPLICATION_CBOR))
+        .andExpect(status().is2xxSuccessful())
+        .andExpect(
+            response -> {
+              assertTrue(
+                  response
+                      .getResponse()
+                      .getContentType()
+                      .startsWith(WireFormatConfig.APPLICATION_CBOR));
+              var game = new CBORMapper().readTree(response.getResponse().getContentAsByteArray());
+              assertEquals(DEFAULT_GAME_ID, game.get("gameId").asText());
+              assertEquals(14, game.get("pits").size());
+              assertEquals(6, game.get("pits").get(0).get("stones").asInt());
+            });
+  }
+
+  @Test
+  public void shouldRespondWithCborErrorDetails() throws Exception {
+    when(gameServiceImpl.loadGame(INVALID_GAME_ID))
+        .thenThrow(new GameNotFoundException("Game not found with gameId: invalidGameId"));
+
+    mockMvc
+        .perform(get(LOAD_GAME_URL, INVALID_GAME_ID).accept(WireFormatConfig.APPLICATION_CBOR))
+        .andExpect(status().isNotFound())
+        .andExpect(
+            errorResponse -> {
+              var errorDetails =
+                  new CBORMapper().readTree(errorResponse.getResponse().getContentAsByteArray());
+              assertEquals("GameNotFoundException", errorDetails.get("exceptionType").asText());
+            });
+  }
+
   @Test
   public void shouldReturnGameNotFoundForInvalidGameId() throws Exception {
     when(gameServiceImpl.loadGame(INVALID_GAME_ID))
@@ -232,6 +295,230 @@ public class GameControllerTest {
     verify(gameServiceImpl, Mockito.times(1)).updateGame(mockedGame);
   }
 
+  @Test
+  public void shouldPublishMoveOfSownGame() throws Exception {
+    var mockedGame = buildAGame();
+    when(gameServiceImpl.loadGame(DEFAULT_GAME_ID)).thenReturn(mockedGame);
+    when(twoPlayerSowingService.sow(mockedGame, 3)).thenReturn(mockedGame);
+    when(gameServiceImpl.updateGame(mockedGame)).thenReturn(mockedGame);
+
+    mockMvc.perform(put(SOW_URL, DEFAULT_GAME_ID, 3)).andExpect(status().is2xxSuccessful());
+
+    verify(gameEventService)
+        .publish(
+            argThat(
+                delta ->
+                    DEFAULT_GAME_ID.equals(delta.getGameId())
+                        && delta.getPitId() == 3
+                        && delta.getPits().isEmpty()));
+  }
+
+  @Test
+  public void shouldRespondWithDeltaOfSownGameWhenRequested() throws Exception {
+    var mockedGame = buildAGame();
+    var sownGame = buildAGame();
+    sownGame.getPit(3).setStones(0);
+    sownGame.getPit(4).setStones(7);
+    when(gameServiceImpl.loadGame(DEFAULT_GAME_ID)).thenReturn(mockedGame);
+    when(twoPlayerSowingService.sow(mockedGame, 3)).thenReturn(sownGame);
+    when(gameServiceImpl.updateGame(sownGame)).thenReturn(sownGame);
+
+    mockMvc
+        .perform(put(SOW_URL + "?view=delta", DEFAULT_GAME_ID, 3))
+        .andExpect(status().is2xxSuccessful())
+        .andExpect(
+            response -> {
+              var delta =
+                  objectMapper.readValue(
+                      response.getResponse().getContentAsString(), GameDelta.class);
+              assertEquals(2, delta.getPits().size());
+              assertEquals(0, delta.getPits().get(3));
+              assertEquals(7, delta.getPits().get(4));
+              assertArrayEquals(
+                  new int[] {6, 6, 0, 7, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0}, delta.getBoard());
+            });
+
+    mockMvc
+        .perform(put(SOW_URL, DEFAULT_GAME_ID, 3).accept(GameDelta.MEDIA_TYPE))
+        .andExpect(status().is2xxSuccessful())
+        .andExpect(
+            response ->
+                assertTrue(
+                    response.getResponse().getContentType().startsWith(GameDelta.MEDIA_TYPE)));
+  }
+
+  @Test
+  public void shouldSubscribeToMovesOfExistingGame() throws Exception {
+    when(gameServiceImpl.loadGame(DEFAULT_GAME_ID)).thenReturn(buildAGame());
+    when(gameEventService.subscribe(DEFAULT_GAME_ID)).thenReturn(new SseEmitter());
+
+    mockMvc.perform(get(EVENTS_URL, DEFAULT_GAME_ID)).andExpect(request().asyncStarted());
+
+    verify(gameEventService, times(1)).subscribe(DEFAULT_GAME_ID);
+  }
+
+  @Test
+  public void shouldCreateBatchOfGamesAndReturnTheirIds() throws Exception {
+    when(gameServiceImpl.createGames(List.of(4, 4, 4), DEFAULT_NUM_OF_PLAYERS))
+        .thenReturn(List.of("game1", "game2", "game3"));
+
+    mockMvc
+        .perform(
+            post(BATCH_GAME_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new GameBatchRequest(3, 4, null))))
+        .andExpect(status().is2xxSuccessful())
+        .andExpect(
+            response -> {
+              var gameBatchResponse =
+                  objectMapper.readValue(
+                      response.getResponse().getContentAsString(), GameBatchResponse.class);
+              assertEquals(List.of("game1", "game2", "game3"), gameBatchResponse.getGameIds());
+            });
+  }
+
+  @Test
+  public void shouldCreateBatchOfGamesWithStonesPerGame() throws Exception {
+    when(gameServiceImpl.createGames(List.of(3, 6), DEFAULT_NUM_OF_PLAYERS))
+        .thenReturn(List.of("game1", "game2"));
+
+    mockMvc
+        .perform(
+            post(BATCH_GAME_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        new GameBatchRequest(null, null, List.of(3, 6)))))
+        .andExpect(status().is2xxSuccessful());
+
+    verify(gameServiceImpl, times(1)).createGames(List.of(3, 6), DEFAULT_NUM_OF_PLAYERS);
+  }
+
+  @Test
+  public void shouldNotCreateBatchOfGamesWithInvalidRequest() throws Exception {
+    for (var gameBatchRequest :
+        List.of(
+            new GameBatchRequest(0, 6, null),
+            new GameBatchRequest(100_000, 6, null),
+            new GameBatchRequest(2, -1, null),
+            new GameBatchRequest(null, null, List.of()),
+            new GameBatchRequest(null, null, List.of(6, 0)))) {
+      mockMvc
+          .perform(
+              post(BATCH_GAME_URL)
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(objectMapper.writeValueAsString(gameBatchRequest)))
+          .andExpect(status().isBadRequest());
+    }
+
+    verify(gameServiceImpl, Mockito.never()).createGames(Mockito.anyList(), Mockito.anyInt());
+  }
+
+  @Test
+  public void shouldSowBatchOfMovesAndSaveOnce() throws Exception {
+    var mockedGame = buildAGame();
+    when(gameServiceImpl.loadGame(DEFAULT_GAME_ID)).thenReturn(mockedGame);
+    when(twoPlayerSowingService.sow(mockedGame, 3)).thenReturn(mockedGame);
+    when(twoPlayerSowingService.sow(mockedGame, 9)).thenReturn(mockedGame);
+    when(gameServiceImpl.updateGame(mockedGame)).thenReturn(mockedGame);
+
+    mockMvc
+        .perform(
+            post(MOVES_URL, DEFAULT_GAME_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new MoveBatchRequest(List.of(3, 9)))))
+        .andExpect(status().is2xxSuccessful());
+
+    verify(gameServiceImpl, times(1)).loadGame(DEFAULT_GAME_ID);
+    verify(twoPlayerSowingService, times(1)).sow(mockedGame, 9);
+    verify(gameServiceImpl, times(1)).updateGame(mockedGame);
+  }
+
+  @Test
+  public void shouldRejectBatchOfMovesAtFirstIllegalMove() throws Exception {
+    var mockedGame = buildAGame();
+    when(gameServiceImpl.loadGame(DEFAULT_GAME_ID)).thenReturn(mockedGame);
+    when(twoPlayerSowingService.sow(mockedGame, 3)).thenReturn(mockedGame);
+    when(twoPlayerSowingService.sow(mockedGame, 4))
+        .thenThrow(new NotYourTurnException("It's not your turn"));
+
+    mockMvc
+        .perform(
+            post(MOVES_URL, DEFAULT_GAME_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(new MoveBatchRequest(List.of(3, 4, 9)))))
+        .andExpect(status().isBadRequest())
+        .andExpect(
+            errorResponse -> {
+              var errorDetails =
+                  objectMapper.readValue(
+                      errorResponse.getResponse().getContentAsString(), ErrorDetails.class);
+              assertEquals(1, errorDetails.getMoveIndex());
+              assertEquals("NotYourTurnException", errorDetails.getExceptionType());
+            });
+
+    verify(gameServiceImpl, Mockito.never()).updateGame(mockedGame);
+  }
+
+  @Test
+  public void shouldRejectBatchOfMovesWithInvalidPit() throws Exception {
+    var mockedGame = buildAGame();
+    when(gameServiceImpl.loadGame(DEFAULT_GAME_ID)).thenReturn(mockedGame);
+
+    mockMvc
+        .perform(
+            post(MOVES_URL, DEFAULT_GAME_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new MoveBatchRequest(List.of(7)))))
+        .andExpect(status().isBadRequest())
+        .andExpect(
+            errorResponse -> {
+              var errorDetails =
+                  objectMapper.readValue(
+                      errorResponse.getResponse().getContentAsString(), ErrorDetails.class);
+              assertEquals(0, errorDetails.getMoveIndex());
+              assertEquals("GameException", errorDetails.getExceptionType());
+            });
+  }
+
+  @Test
+  public void shouldRetrySowingWhenGameIsUpdatedConcurrently() throws Exception {
+    var mockedGame = buildAGame();
+    when(gameServiceImpl.loadGame(DEFAULT_GAME_ID)).thenReturn(mockedGame);
+    when(twoPlayerSowingService.sow(mockedGame, 3)).thenReturn(mockedGame);
+    when(gameServiceImpl.updateGame(mockedGame))
+        .thenThrow(new GameUpdateConflictException("conflict"))
+        .thenReturn(mockedGame);
+
+    mockMvc.perform(put(SOW_URL, DEFAULT_GAME_ID, 3)).andExpect(status().is2xxSuccessful());
+
+    verify(gameServiceImpl, times(1)).evictGame(DEFAULT_GAME_ID);
+    verify(gameServiceImpl, times(2)).loadGame(DEFAULT_GAME_ID);
+  }
+
+  @Test
+  public void shouldRespondWithConflictWhenRetriesAreExhausted() throws Exception {
+    var mockedGame = buildAGame();
+    when(gameServiceImpl.loadGame(DEFAULT_GAME_ID)).thenReturn(mockedGame);
+    when(twoPlayerSowingService.sow(mockedGame, 3)).thenReturn(mockedGame);
+    when(gameServiceImpl.updateGame(mockedGame))
+        .thenThrow(new GameUpdateConflictException("conflict"));
+
+    mockMvc
+        .perform(put(SOW_URL, DEFAULT_GAME_ID, 3))
+        .andExpect(status().isConflict())
+        .andExpect(
+            errorResponse -> {
+              var errorDetails =
+                  objectMapper.readValue(
+                      errorResponse.getResponse().getContentAsString(), ErrorDetails.class);
+              assertEquals("GameUpdateConflictException", errorDetails.getExceptionType());
+            });
+
+    verify(gameServiceImpl, times(3)).updateGame(mockedGame);
+  }
+
   private Game buildAGame() {
     var game = new Game(DEFAULT_STONES, DEFAULT_NUM_OF_PLAYERS);
     game.setGameId(DEFAULT_GAME_ID);
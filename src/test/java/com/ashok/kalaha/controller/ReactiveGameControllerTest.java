@@ -0,0 +1,149 @@
+package com.ashok.kalaha.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.ashok.kalaha.api.ReactiveGameEventService;
+import com.ashok.kalaha.api.ReactiveGameService;
+import com.ashok.kalaha.dto.ErrorDetails;
+import com.ashok.kalaha.dto.GameDelta;
+import com.ashok.kalaha.exceptions.GameNotFoundException;
+import com.ashok.kalaha.exceptions.GameUpdateConflictException;
+import com.ashok.kalaha.metrics.GameMetrics;
+import com.ashok.kalaha.model.Game;
+import com.ashok.kalaha.model.GameStatus;
+import com.ashok.kalaha.model.PlayerTurn;
+import com.ashok.kalaha.repository.GameRepository;
+import com.ashok.kalaha.service.TwoPlayerSowingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+@ActiveProfiles("reactive")
+@WebFluxTest(controllers = ReactiveGameController.class)
+public class ReactiveGameControllerTest {
+  private static final String GAME_URL = "/v1/api/games";
+  private static final String LOAD_GAME_URL = GAME_URL + "/{gameId}";
+  private static final String SOW_URL = GAME_URL + "/{gameId}/pits/{pitId}";
+  private static final String DEFAULT_GAME_ID = "defaultGameId";
+
+  @Autowired private WebTestClient webTestClient;
+
+  @MockBean private ReactiveGameService gameService;
+
+  @MockBean private TwoPlayerSowingService twoPlayerSowingService;
+
+  @MockBean private ReactiveGameEventService gameEventService;
+
+  @MockBean private GameRepository gameRepository;
+
+  @MockBean private GameMetrics gameMetrics;
+
+  @Test
+  public void shouldCreateAndReturnTheGame() {
+    when(gameService.createGame(6, 2)).thenReturn(Mono.just(buildAGame()));
+
+    webTestClient
+        .post()
+        .uri(GAME_URL)
+        .exchange()
+        .expectStatus()
+        .is2xxSuccessful()
+        .expectBody(Game.class)
+        .value(game -> assertEquals(GameStatus.CREATED, game.getGameStatus()));
+  }
+
+  @Test
+  public void shouldReturnNotFoundForUnknownGame() {
+    when(gameService.loadGame(DEFAULT_GAME_ID))
+        .thenReturn(Mono.error(new GameNotFoundException("Game not found")));
+
+    webTestClient
+        .get()
+        .uri(LOAD_GAME_URL, DEFAULT_GAME_ID)
+        .exchange()
+        .expectStatus()
+        .isNotFound()
+        .expectBody(ErrorDetails.class)
+        .value(
+            errorDetails -> {
+              assertEquals("GameNotFoundException", errorDetails.getExceptionType());
+              assertEquals("uri=/v1/api/games/defaultGameId", errorDetails.getDetails());
+            });
+  }
+
+  @Test
+  public void shouldSowAndPublishDelta() {
+    var game = buildAGame();
+    when(gameService.loadGame(DEFAULT_GAME_ID)).thenReturn(Mono.just(game));
+    when(twoPlayerSowingService.sow(game, 3))
+        .thenAnswer(
+            invocation -> {
+              game.getPit(3).setStones(0);
+              game.setPlayerTurn(PlayerTurn.PLAYER_TWO_TURN);
+              return game;
+            });
+    when(gameService.updateGame(game)).thenReturn(Mono.just(game));
+    when(gameEventService.publish(any())).thenReturn(Mono.empty());
+
+    webTestClient
+        .put()
+        .uri(SOW_URL + "?view=" + GameDelta.VIEW, DEFAULT_GAME_ID, 3)
+        .exchange()
+        .expectStatus()
+        .is2xxSuccessful()
+        .expectBody(GameDelta.class)
+        .value(
+            gameDelta -> {
+              assertEquals(0, gameDelta.getPits().get(3));
+              assertEquals(PlayerTurn.PLAYER_TWO_TURN, gameDelta.getPlayerTurn());
+            });
+    verify(gameEventService, times(1)).publish(any());
+  }
+
+  @Test
+  public void shouldRetrySowingWhenGameIsUpdatedConcurrently() {
+    var game = buildAGame();
+    when(gameService.loadGame(DEFAULT_GAME_ID)).thenReturn(Mono.fromSupplier(() -> game));
+    when(twoPlayerSowingService.sow(game, 3)).thenReturn(game);
+    when(gameService.updateGame(game))
+        .thenReturn(Mono.error(new GameUpdateConflictException("stale")));
+    when(gameService.evictGame(DEFAULT_GAME_ID)).thenReturn(Mono.empty());
+
+    webTestClient
+        .put()
+        .uri(SOW_URL, DEFAULT_GAME_ID, 3)
+        .exchange()
+        .expectStatus()
+        .isEqualTo(409);
+
+    verify(gameService, times(3)).updateGame(game);
+    verify(gameService, times(2)).evictGame(DEFAULT_GAME_ID);
+  }
+
+  @Test
+  public void shouldRejectInvalidPit() {
+    webTestClient
+        .put()
+        .uri(SOW_URL, DEFAULT_GAME_ID, 7)
+        .exchange()
+        .expectStatus()
+        .isBadRequest()
+        .expectBody(ErrorDetails.class)
+        .value(errorDetails -> assertEquals("GameException", errorDetails.getExceptionType()));
+  }
+
+  private Game buildAGame() {
+    var game = new Game(6, 2);
+    game.setGameId(DEFAULT_GAME_ID);
+    game.setRevision(0L);
+    return game;
+  }
+}
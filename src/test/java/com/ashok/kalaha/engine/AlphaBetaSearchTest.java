@@ -0,0 +1,117 @@
+package com.ashok.kalaha.engine;
+
+import static com.ashok.kalaha.engine.KalahaBoard.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class AlphaBetaSearchTest {
+  private static final long NO_DEADLINE = Long.MAX_VALUE / 4;
+
+  @Test
+  public void shouldScoreEndgamesLikeMinimaxSearchedToTheEnd() {
+    var random = new Random(42);
+    int checkedPositions = 0;
+
+    while (checkedPositions < 200) {
+      int[] board = randomEndgame(random, 3 + random.nextInt(5));
+      int player = random.nextInt(2);
+      int[] horizon = {0};
+      int expectedScore = minimax(board.clone(), player, 12, horizon);
+      if (horizon[0] > 0) continue;
+
+      var result =
+          new AlphaBetaSearch(new TranspositionTable(1 << 12))
+              .search(board, player, AlphaBetaSearch.MAX_DEPTH, System.nanoTime() + NO_DEADLINE);
+
+      assertEquals(expectedScore, result.score());
+      assertTrue(isLegalMove(board, player, result.pit()));
+      int[] afterBestMove = board.clone();
+      assertEquals(expectedScore, scoreAfter(afterBestMove, player, result.pit(), 12, horizon));
+      checkedPositions++;
+    }
+  }
+
+  @Test
+  public void shouldCaptureWhenCaptureWins() {
+    int[] board = {1, 0, 0, 0, 0, 1, 0, 1, 0, 0, 0, 10, 0, 0};
+
+    var result =
+        new AlphaBetaSearch(new TranspositionTable(1 << 12))
+            .search(board, PLAYER_ONE, 8, System.nanoTime() + NO_DEADLINE);
+
+    assertEquals(0, result.pit());
+    assertTrue(result.score() > 0);
+  }
+
+  @Test
+  public void shouldCompleteFirstIterationWhenDeadlineHasPassed() {
+    int[] board = newBoard(6);
+
+    var result =
+        new AlphaBetaSearch(new TranspositionTable(1 << 12))
+            .search(board, PLAYER_TWO, 24, System.nanoTime() - 1);
+
+    assertEquals(1, result.depth());
+    assertTrue(isLegalMove(board, PLAYER_TWO, result.pit()));
+  }
+
+  @Test
+  public void shouldShareTableBetweenSearches() {
+    var table = new TranspositionTable(1 << 16);
+    int[] board = newBoard(4);
+
+    long deadline = System.nanoTime() + NO_DEADLINE;
+
+    var first = new AlphaBetaSearch(table).search(board, PLAYER_ONE, 8, deadline);
+    var second = new AlphaBetaSearch(table).search(board, PLAYER_ONE, 8, deadline);
+
+    assertEquals(first.score(), second.score());
+    assertTrue(second.nodes() < first.nodes());
+  }
+
+  @Test
+  public void shouldRejectFinishedGame() {
+    int[] board = {0, 0, 0, 0, 0, 0, 30, 1, 0, 0, 0, 0, 0, 41};
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            new AlphaBetaSearch(new TranspositionTable(16))
+                .search(board, PLAYER_ONE, 8, System.nanoTime() + NO_DEADLINE));
+  }
+
+  private static int minimax(int[] board, int player, int depth, int[] horizon) {
+    if (depth == 0) {
+      horizon[0]++;
+      return board[store(player)] - board[store(opponent(player))];
+    }
+    int best = Integer.MIN_VALUE;
+    for (int pit = firstPit(player); pit < firstPit(player) + PITS_PER_SIDE; pit++)
+      if (board[pit] != 0)
+        best = Math.max(best, scoreAfter(board.clone(), player, pit, depth, horizon));
+    return best;
+  }
+
+  private static int scoreAfter(int[] board, int player, int pit, int depth, int[] horizon) {
+    int result = sow(board, player, pit);
+    if ((result & GAME_OVER) != 0) return score(board, player) - score(board, opponent(player));
+    if ((result & EXTRA_TURN) != 0) return minimax(board, player, depth - 1, horizon);
+    return -minimax(board, opponent(player), depth - 1, horizon);
+  }
+
+  private static int[] randomEndgame(Random random, int stones) {
+    int[] board;
+    do {
+      board = new int[TOTAL_PITS];
+      board[PLAYER_ONE_STORE] = random.nextInt(20);
+      board[PLAYER_TWO_STORE] = random.nextInt(20);
+      for (int stone = 0; stone < stones; stone++) {
+        int pit = random.nextInt(TOTAL_PITS);
+        if (!isStore(pit)) board[pit]++;
+      }
+    } while (isGameOver(board));
+    return board;
+  }
+}
@@ -0,0 +1,85 @@
+package com.ashok.kalaha.engine;
+
+import static com.ashok.kalaha.engine.KalahaBoard.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class BatchSowingTest {
+  private static final int BOARDS = 4099;
+
+  @Test
+  public void shouldSowLikeKalahaBoardOneBoardAtATime() {
+    assertSowsLikeKalahaBoard(new ScalarBatchSowing());
+  }
+
+  @Test
+  public void shouldSowLikeKalahaBoardOneVectorAtATime() {
+    assertSowsLikeKalahaBoard(new VectorBatchSowing());
+  }
+
+  @Test
+  public void shouldCaptureWithLastStoneInEmptiedPitAfterFullRound() {
+    int[] board = {13, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
+    var batch = new BoardBatch(8);
+    for (int index = 0; index < batch.capacity(); index++) {
+      batch.setBoard(index, board, PLAYER_ONE);
+      batch.setMove(index, 0);
+    }
+    batch.setSize(batch.capacity());
+
+    new VectorBatchSowing().sow(batch);
+
+    int[] sown = new int[TOTAL_PITS];
+    for (int index = 0; index < batch.size(); index++) {
+      batch.copyBoard(index, sown);
+      assertArrayEquals(new int[] {0, 1, 1, 1, 1, 1, 3, 1, 1, 1, 1, 1, 0, 0}, sown);
+      assertEquals(CAPTURE, batch.result(index));
+    }
+  }
+
+  private static void assertSowsLikeKalahaBoard(BatchSowing batchSowing) {
+    var random = new Random(42);
+    List<int[]> boards = new ArrayList<>();
+    var batch = new BoardBatch(BOARDS);
+    for (int index = 0; index < BOARDS; index++) {
+      int[] board = newBoard(1 + random.nextInt(30));
+      int player = random.nextInt(2);
+      int plies = random.nextInt(40);
+      for (int ply = 0; ply < plies && !isGameOver(board); ply++) {
+        int result = sow(board, player, randomMove(random, board, player));
+        if ((result & EXTRA_TURN) == 0) player = opponent(player);
+      }
+      if (isGameOver(board)) {
+        index--;
+        continue;
+      }
+
+      boards.add(board);
+      batch.setBoard(index, board, player);
+      batch.setMove(index, randomMove(random, board, player));
+    }
+    batch.setSize(BOARDS);
+
+    batchSowing.sow(batch);
+
+    int[] sown = new int[TOTAL_PITS];
+    for (int index = 0; index < BOARDS; index++) {
+      int[] expected = boards.get(index);
+      int expectedResult = sow(expected, batch.player(index), batch.move(index));
+      batch.copyBoard(index, sown);
+      assertArrayEquals(expected, sown, "board " + index);
+      assertEquals(expectedResult, batch.result(index), "result of board " + index);
+    }
+  }
+
+  private static int randomMove(Random random, int[] board, int player) {
+    int pit;
+    do pit = firstPit(player) + random.nextInt(PITS_PER_SIDE);
+    while (board[pit] == 0);
+    return pit;
+  }
+}
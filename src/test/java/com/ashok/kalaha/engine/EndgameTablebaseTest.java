@@ -0,0 +1,112 @@
+package com.ashok.kalaha.engine;
+
+import static com.ashok.kalaha.engine.KalahaBoard.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class EndgameTablebaseTest {
+  private static final int MAX_STONES = 8;
+
+  @TempDir Path directory;
+
+  private final ForkJoinPool pool = new ForkJoinPool(4);
+  private final EndgameTablebaseGenerator generator = new EndgameTablebaseGenerator(pool);
+
+  @AfterEach
+  public void tearDown() {
+    pool.shutdownNow();
+  }
+
+  @Test
+  public void shouldRankEveryPositionOfALayerOnce() {
+    int stones = 5;
+    int[] board = new int[TOTAL_PITS];
+    for (long rank = 0; rank < EndgameTablebase.layerSize(stones); rank++) {
+      EndgameTablebase.unrank(rank, stones, board);
+      assertEquals(rank, EndgameTablebase.rankOf(board, PLAYER_ONE, stones));
+    }
+  }
+
+  @Test
+  public void shouldHoldPerfectPlayValues() throws IOException {
+    Path path = directory.resolve("kalaha.tb");
+    assertEquals(MAX_STONES + 1, generator.generate(path, MAX_STONES));
+    EndgameTablebase tablebase = EndgameTablebase.open(path);
+    assertEquals(MAX_STONES, tablebase.maxStones());
+
+    var random = new Random(7);
+    for (int position = 0; position < 300; position++) {
+      int[] board = randomBoard(random, 2 + random.nextInt(MAX_STONES - 1));
+      int player = random.nextInt(2);
+      int entry = tablebase.probe(board, player);
+
+      var result =
+          new AlphaBetaSearch(new TranspositionTable(1 << 12))
+              .search(board, player, AlphaBetaSearch.MAX_DEPTH, System.nanoTime() + 1_000_000_000L);
+      int storeDifference = board[store(player)] - board[store(opponent(player))];
+      assertEquals(result.score(), storeDifference + EndgameTablebase.valueOf(entry));
+      assertTrue(EndgameTablebase.distanceOf(entry) >= 1);
+
+      var onePlyWithTablebase =
+          new AlphaBetaSearch(new TranspositionTable(1 << 12), tablebase)
+              .search(board, player, 1, System.nanoTime() + 1_000_000_000L);
+      assertEquals(result.score(), onePlyWithTablebase.score());
+    }
+
+    int[] moreStonesThanCovered = newBoard(1);
+    assertEquals(EndgameTablebase.MISS, tablebase.probe(moreStonesThanCovered, PLAYER_ONE));
+  }
+
+  @Test
+  public void shouldResumeWithFirstStoneCountNotGenerated() throws IOException {
+    Path path = directory.resolve("kalaha.tb");
+    generator.generate(path, MAX_STONES);
+    byte[] generated = Files.readAllBytes(path);
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      long layerStart =
+          EndgameTablebase.HEADER_BYTES
+              + EndgameTablebase.ENTRY_BYTES * EndgameTablebase.positions(4);
+      channel.write(ByteBuffer.allocate((int) (channel.size() - layerStart)), layerStart);
+      channel.write(
+          ByteBuffer.allocate(4).putInt(0, 4), EndgameTablebase.GENERATED_STONES_OFFSET);
+    }
+    assertEquals(4, EndgameTablebase.open(path).maxStones());
+
+    assertEquals(MAX_STONES - 4, generator.generate(path, MAX_STONES));
+    assertArrayEquals(generated, Files.readAllBytes(path));
+  }
+
+  @Test
+  public void shouldRejectTablebaseOfOtherStoneCount() throws IOException {
+    Path path = directory.resolve("kalaha.tb");
+    generator.generate(path, 3);
+
+    assertThrows(IOException.class, () -> generator.generate(path, 4));
+  }
+
+  private static int[] randomBoard(Random random, int stones) {
+    int[] board;
+    do {
+      board = new int[TOTAL_PITS];
+      board[PLAYER_ONE_STORE] = random.nextInt(30);
+      board[PLAYER_TWO_STORE] = random.nextInt(30);
+      for (int stone = 0; stone < stones; stone++) {
+        int pit = random.nextInt(TOTAL_PITS);
+        if (!isStore(pit)) board[pit]++;
+      }
+    } while (isGameOver(board));
+    return board;
+  }
+}
@@ -0,0 +1,67 @@
+package com.ashok.kalaha.engine;
+
+import static com.ashok.kalaha.engine.KalahaBoard.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class ParallelAnalysisTest {
+  private static final long NO_DEADLINE = Long.MAX_VALUE / 4;
+
+  private final ForkJoinPool pool = new ForkJoinPool(4);
+  private final ParallelAnalysis parallelAnalysis = new ParallelAnalysis(pool);
+
+  @AfterEach
+  public void tearDown() {
+    pool.shutdownNow();
+  }
+
+  @Test
+  public void shouldScoreEveryLegalMoveOnly() {
+    int[] board = newBoard(6);
+    board[9] = 0;
+    board[10] = 0;
+
+    var result =
+        parallelAnalysis.analyse(
+            board, PLAYER_TWO, 6, System.nanoTime() + NO_DEADLINE, new TranspositionTable(1 << 16));
+
+    assertEquals(6, result.depth());
+    assertEquals(4, result.threads());
+    for (int pit = 0; pit < TOTAL_PITS; pit++) {
+      boolean isScored = result.scores()[pit] != Integer.MIN_VALUE;
+      assertEquals(isLegalMove(board, PLAYER_TWO, pit), isScored);
+    }
+    assertTrue(result.nodes() > 0);
+  }
+
+  @Test
+  public void shouldScoreSolvedEndgameLikeSerialAnalysis() {
+    int[] board = {1, 0, 2, 0, 0, 1, 20, 1, 0, 0, 1, 2, 0, 18};
+    long deadline = System.nanoTime() + NO_DEADLINE;
+
+    var parallel =
+        parallelAnalysis.analyse(board, PLAYER_ONE, 40, deadline, new TranspositionTable(1 << 16));
+    var serial =
+        parallelAnalysis.analyseSerially(
+            board, PLAYER_ONE, 40, deadline, new TranspositionTable(1 << 16));
+
+    assertEquals(40, parallel.depth());
+    assertArrayEquals(serial.scores(), parallel.scores());
+  }
+
+  @Test
+  public void shouldReturnFirstIterationWhenDeadlineHasPassed() {
+    int[] board = newBoard(6);
+
+    var result =
+        parallelAnalysis.analyse(
+            board, PLAYER_ONE, 32, System.nanoTime() - 1, new TranspositionTable(1 << 16));
+
+    assertTrue(result.depth() >= 1);
+    for (int pit = 0; pit < PITS_PER_SIDE; pit++)
+      assertNotEquals(Integer.MIN_VALUE, result.scores()[pit]);
+  }
+}
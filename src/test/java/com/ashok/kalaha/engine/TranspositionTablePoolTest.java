@@ -0,0 +1,32 @@
+package com.ashok.kalaha.engine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class TranspositionTablePoolTest {
+  private final TranspositionTablePool pool = new TranspositionTablePool(2, 1 << 10);
+
+  @Test
+  public void shouldLendNoMoreTablesThanCapacity() {
+    var first = pool.borrow();
+    var second = pool.borrow();
+
+    assertNotNull(first);
+    assertNotNull(second);
+    assertNotSame(first, second);
+    assertNull(pool.borrow());
+
+    pool.giveBack(second);
+    assertSame(second, pool.borrow());
+  }
+
+  @Test
+  public void shouldLendClearedTable() {
+    var table = pool.borrow();
+    table.store(5L, 3, 1, TranspositionTable.EXACT, 2);
+    pool.giveBack(table);
+
+    assertEquals(TranspositionTable.MISS, pool.borrow().probe(5L));
+  }
+}
@@ -0,0 +1,46 @@
+package com.ashok.kalaha.engine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class TranspositionTableTest {
+  private final TranspositionTable table = new TranspositionTable(1000);
+
+  @Test
+  public void shouldRoundSizeUpToPowerOfTwo() {
+    assertEquals(1024, table.size());
+  }
+
+  @Test
+  public void shouldProbeStoredEntry() {
+    long hash = Zobrist.hash(KalahaBoard.newBoard(6), KalahaBoard.PLAYER_TWO);
+
+    table.store(hash, 7, -12, TranspositionTable.LOWER_BOUND, 11);
+
+    long entry = table.probe(hash);
+    assertEquals(-12, TranspositionTable.scoreOf(entry));
+    assertEquals(7, TranspositionTable.depthOf(entry));
+    assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.boundOf(entry));
+    assertEquals(11, TranspositionTable.moveOf(entry));
+  }
+
+  @Test
+  public void shouldMissOtherPositionOfSameSlot() {
+    table.store(5L, 3, 1, TranspositionTable.EXACT, 2);
+
+    assertEquals(TranspositionTable.MISS, table.probe(5L + (1L << 40)));
+    assertEquals(TranspositionTable.MISS, table.probe(6L));
+  }
+
+  @Test
+  public void shouldKeepDeeperEntryOfSamePosition() {
+    table.store(5L, 9, 4, TranspositionTable.EXACT, 2);
+    table.store(5L, 3, -4, TranspositionTable.UPPER_BOUND, 1);
+
+    assertEquals(9, TranspositionTable.depthOf(table.probe(5L)));
+
+    table.store(5L + 1024, 1, 0, TranspositionTable.EXACT, 0);
+    assertEquals(TranspositionTable.MISS, table.probe(5L));
+  }
+}
@@ -4,8 +4,10 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import com.ashok.kalaha.config.MongoDBTestContainer;
 import com.ashok.kalaha.exceptions.GameNotFoundException;
+import com.ashok.kalaha.exceptions.GameUpdateConflictException;
 import com.ashok.kalaha.model.Game;
 import com.ashok.kalaha.model.PlayerTurn;
+import com.ashok.kalaha.service.ArrayBoardSowingService;
 import com.ashok.kalaha.service.GameServiceImpl;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -59,6 +61,26 @@ public class GameServiceImplIntegrationTest implements MongoDBTestContainer {
     assertNotNull(gameFromDB);
   }
 
+  @Test
+  public void serviceShouldSowAndUpdateGameAtomically() {
+    var newGame = gameServiceImpl.createGame(6, 2);
+    var staleGame = gameServiceImpl.loadGame(newGame.getGameId());
+
+    var updated =
+        gameServiceImpl.sowAndUpdate(
+            gameServiceImpl.loadGame(newGame.getGameId()), 3, new ArrayBoardSowingService());
+
+    assertEquals(1L, updated.getRevision());
+    assertEquals(PlayerTurn.PLAYER_TWO_TURN, updated.getPlayerTurn());
+    assertEquals(
+        "[1:6, 2:6, 3:0, 4:7, 5:7, 6:7, 7:1, 8:7, 9:7, 10:6, 11:6, 12:6, 13:6, 14:0]",
+        gameServiceImpl.loadGame(newGame.getGameId()).getPits().toString());
+
+    assertThrows(
+        GameUpdateConflictException.class,
+        () -> gameServiceImpl.sowAndUpdate(staleGame, 1, new ArrayBoardSowingService()));
+  }
+
   @Test
   public void serviceShouldThrowExceptionForLoadingGameWithInvalidGameId() {
     var gameId = "nonExistingGameId";
@@ -0,0 +1,273 @@
+package com.ashok.kalaha.lane;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.ashok.kalaha.api.GameEventService;
+import com.ashok.kalaha.api.GameService;
+import com.ashok.kalaha.config.KalahaProperties;
+import com.ashok.kalaha.exceptions.GameNotFoundException;
+import com.ashok.kalaha.exceptions.GameUpdateConflictException;
+import com.ashok.kalaha.exceptions.SowingFromLargerPitException;
+import com.ashok.kalaha.metrics.GameMetrics;
+import com.ashok.kalaha.model.Game;
+import com.ashok.kalaha.service.TwoPlayerSowingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+public class GameLanesTest {
+  private final GameService gameService = mock(GameService.class);
+  private final GameEventService gameEventService = mock(GameEventService.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final TwoPlayerSowingService sowingService = new TwoPlayerSowingService();
+  private GameLanes gameLanes;
+
+  @TempDir Path journalDirectory;
+
+  @BeforeEach
+  public void setUp() {
+    when(gameService.loadGame(any())).thenAnswer(invocation -> newGame(invocation.getArgument(0)));
+    when(gameService.saveGame(any(), anyLong()))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+    gameLanes = newGameLanes(lanesProperties(4, false));
+  }
+
+  @AfterEach
+  public void tearDown() throws InterruptedException {
+    gameLanes.shutdown();
+  }
+
+  @Test
+  public void shouldApplyMovesOfOneGameInOrderAndLoadItOnce() throws Exception {
+    ExecutorService requests = Executors.newFixedThreadPool(8);
+    List<Integer> appliedMoves = Collections.synchronizedList(new ArrayList<>());
+    List<Future<Long>> revisions = new ArrayList<>();
+    for (int move = 0; move < 200; move++) {
+      int moveNumber = move;
+      revisions.add(
+          requests.submit(
+              () ->
+                  gameLanes.call(
+                      "game",
+                      game -> {
+                        appliedMoves.add(moveNumber);
+                        return game.getRevision();
+                      })));
+    }
+    List<Long> seenRevisions = new ArrayList<>();
+    for (Future<Long> revision : revisions) seenRevisions.add(revision.get());
+    requests.shutdown();
+
+    assertEquals(200, appliedMoves.size());
+    assertEquals(200, seenRevisions.stream().distinct().count());
+    assertEquals(200L, gameLanes.read("game").getRevision());
+    verify(gameService, times(1)).loadGame("game");
+  }
+
+  @Test
+  public void shouldKeepGameUntouchedWhenMoveFails() {
+    gameLanes.call("game", game -> sowingService.sow(game, 1));
+
+    assertThrows(
+        SowingFromLargerPitException.class,
+        () -> gameLanes.call("game", game -> sowingService.sow(game, 7)));
+
+    var game = gameLanes.read("game");
+    assertEquals(1L, game.getRevision());
+    assertEquals(0, game.getPit(1).getStones());
+    assertEquals(1, game.getPit(7).getStones());
+  }
+
+  @Test
+  public void shouldWriteBehindOnlyChangedGamesWithStoredRevision() {
+    gameLanes.call("game", game -> sowingService.sow(game, 1));
+    gameLanes.call("game", game -> sowingService.sow(game, 2));
+    gameLanes.read("otherGame");
+
+    gameLanes.flush();
+    gameLanes.flush();
+
+    verify(gameService, times(1)).saveGame(argThat(game -> game.getRevision() == 2L), eq(0L));
+    verify(gameService, never())
+        .saveGame(argThat(game -> "otherGame".equals(game.getGameId())), anyLong());
+  }
+
+  @Test
+  public void shouldReloadGameChangedOutsideOfItsLaneAndCorrectSubscribers() {
+    when(gameService.saveGame(any(), anyLong()))
+        .thenThrow(new GameUpdateConflictException("stale"));
+    gameLanes.call("game", game -> sowingService.sow(game, 1));
+    gameLanes.call("game", game -> sowingService.sow(game, 2));
+
+    gameLanes.flush();
+
+    assertEquals(1, gameLanes.getOwnedGameCount());
+    assertEquals(0L, gameLanes.read("game").getRevision());
+    assertEquals(6, gameLanes.read("game").getPit(1).getStones());
+    verify(gameService).evictGame("game");
+    verify(gameService, times(2)).loadGame("game");
+    verify(gameEventService)
+        .publish(
+            argThat(
+                gameDelta ->
+                    gameDelta.isCorrection()
+                        && gameDelta.getRevision() == 0L
+                        && gameDelta.getPits().size() == 14));
+    assertEquals(2.0, meterRegistry.counter("kalaha.lanes.lost.moves").count());
+
+    gameLanes.flush();
+    verify(gameService, times(1)).saveGame(any(), anyLong());
+  }
+
+  @Test
+  public void shouldDropGameRemovedOutsideOfItsLane() {
+    when(gameService.saveGame(any(), anyLong())).thenThrow(new GameNotFoundException("removed"));
+    gameLanes.call("game", game -> sowingService.sow(game, 1));
+    when(gameService.loadGame("game")).thenThrow(new GameNotFoundException("removed"));
+
+    gameLanes.flush();
+
+    assertEquals(0, gameLanes.getOwnedGameCount());
+    verify(gameEventService, never()).publish(any());
+    assertEquals(1.0, meterRegistry.counter("kalaha.lanes.lost.moves").count());
+  }
+
+  @Test
+  public void shouldHandOverMovesOnlyOnceTheirGameIsWritten() {
+    List<Long> writtenRevisions = Collections.synchronizedList(new ArrayList<>());
+    gameLanes.call("game", Game::getRevision, writtenRevisions::add);
+    gameLanes.call("game", Game::getRevision, writtenRevisions::add);
+    assertTrue(writtenRevisions.isEmpty());
+
+    gameLanes.flush();
+    assertEquals(List.of(1L, 2L), writtenRevisions);
+
+    when(gameService.saveGame(any(), anyLong()))
+        .thenThrow(new GameUpdateConflictException("stale"));
+    gameLanes.call("game", Game::getRevision, writtenRevisions::add);
+    gameLanes.flush();
+    gameLanes.flush();
+    assertEquals(List.of(1L, 2L), writtenRevisions);
+  }
+
+  @Test
+  public void shouldRecoverJournaledMovesAfterCrash() throws InterruptedException {
+    var crashedLanes = newGameLanes(lanesProperties(4, true));
+    crashedLanes.call("game", game -> sowingService.sow(game, 1));
+    crashedLanes.call("game", game -> sowingService.sow(game, 2));
+    crashedLanes.call("otherGame", game -> sowingService.sow(game, 8));
+
+    var recoveredLanes = newGameLanes(lanesProperties(1, true));
+    try {
+      assertEquals(2, recoveredLanes.getOwnedGameCount());
+      var game = recoveredLanes.read("game");
+      assertEquals(2L, game.getRevision());
+      assertEquals(0, game.getPit(2).getStones());
+      verify(gameService, times(1)).loadGame("game");
+      assertFalse(Files.exists(journalDirectory.resolve("lane-1.journal")));
+
+      recoveredLanes.flush();
+      verify(gameService, times(1)).saveGame(argThat(saved -> saved.getRevision() == 2L), eq(0L));
+    } finally {
+      recoveredLanes.shutdown();
+      crashedLanes.shutdown();
+    }
+  }
+
+  @Test
+  public void shouldNotRecoverWrittenMoves() throws InterruptedException {
+    var flushedLanes = newGameLanes(lanesProperties(4, true));
+    flushedLanes.call("game", game -> sowingService.sow(game, 1));
+    flushedLanes.flush();
+
+    var recoveredLanes = newGameLanes(lanesProperties(4, true));
+    try {
+      assertEquals(0, recoveredLanes.getOwnedGameCount());
+    } finally {
+      recoveredLanes.shutdown();
+      flushedLanes.shutdown();
+    }
+  }
+
+  @Test
+  public void shouldFlushFullJournalBeforeMoveAndJournalNewStoredRevision()
+      throws InterruptedException {
+    // a journal of 256 bytes holds two records of the game
+    var fullLanes = newGameLanes(lanesProperties(1, DataSize.ofBytes(256)));
+    for (int move = 0; move < 5; move++) fullLanes.call("game", Game::getRevision);
+    verify(gameService, times(1)).saveGame(argThat(game -> game.getRevision() == 2L), eq(0L));
+    verify(gameService, times(1)).saveGame(argThat(game -> game.getRevision() == 4L), eq(2L));
+
+    var recoveredLanes = newGameLanes(lanesProperties(1, DataSize.ofBytes(256)));
+    try {
+      assertEquals(5L, recoveredLanes.read("game").getRevision());
+      recoveredLanes.flush();
+      verify(gameService, times(1)).saveGame(argThat(game -> game.getRevision() == 5L), eq(4L));
+    } finally {
+      recoveredLanes.shutdown();
+      fullLanes.shutdown();
+    }
+  }
+
+  @Test
+  public void shouldApplyMoveToReloadedGameWhenFullJournalFlushDropsIt()
+      throws InterruptedException {
+    when(gameService.saveGame(any(), anyLong()))
+        .thenThrow(new GameUpdateConflictException("stale"));
+    var fullLanes = newGameLanes(lanesProperties(1, DataSize.ofBytes(256)));
+    try {
+      fullLanes.call("game", Game::getRevision);
+      fullLanes.call("game", Game::getRevision);
+
+      assertEquals(1L, fullLanes.call("game", Game::getRevision));
+      assertEquals(1L, fullLanes.read("game").getRevision());
+      verify(gameService, times(2)).loadGame("game");
+    } finally {
+      fullLanes.shutdown();
+    }
+  }
+
+  private GameLanes newGameLanes(KalahaProperties kalahaProperties) {
+    return new GameLanes(
+        gameService, gameEventService, new GameMetrics(meterRegistry), kalahaProperties);
+  }
+
+  private KalahaProperties lanesProperties(int count, boolean isJournalEnabled) {
+    var kalahaProperties = new KalahaProperties();
+    kalahaProperties.getLanes().setCount(count);
+    kalahaProperties.getLanes().setFlushInterval(Duration.ofHours(1));
+    kalahaProperties.getLanes().getJournal().setEnabled(isJournalEnabled);
+    kalahaProperties.getLanes().getJournal().setDirectory(journalDirectory);
+    kalahaProperties.getLanes().getJournal().setSize(DataSize.ofKilobytes(64));
+    return kalahaProperties;
+  }
+
+  private KalahaProperties lanesProperties(int count, DataSize journalSize) {
+    var kalahaProperties = lanesProperties(count, true);
+    kalahaProperties.getLanes().getJournal().setSize(journalSize);
+    return kalahaProperties;
+  }
+
+  private Game newGame(String gameId) {
+    var game = new Game(6);
+    game.setGameId(gameId);
+    game.setRevision(0L);
+    return game;
+  }
+}
@@ -0,0 +1,135 @@
+package com.ashok.kalaha.lane;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.ashok.kalaha.model.Game;
+import com.ashok.kalaha.model.GameStatus;
+import com.ashok.kalaha.model.Player;
+import com.ashok.kalaha.model.PlayerTurn;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MoveJournalTest {
+  @TempDir Path directory;
+
+  @Test
+  public void shouldReplayLastStateOfEveryGame() throws IOException {
+    Path path = directory.resolve("lane-0.journal");
+    try (var journal = new MoveJournal(path, 4096, false)) {
+      journal.append(aGame("first", 1), 0);
+      journal.append(aGame("second", 1), 0);
+      var completedGame = aGame("first", 2);
+      completedGame.setGameStatus(GameStatus.COMPLETED);
+      completedGame.setWinner(Player.PLAYER_TWO);
+      completedGame.getPit(14).setStones(40);
+      completedGame.setCreatedAt(Instant.ofEpochMilli(1_000));
+      journal.append(completedGame, 1);
+    }
+
+    try (var journal = new MoveJournal(path, 4096, false)) {
+      var games = journal.replay();
+
+      assertEquals(2, games.size());
+      var first = games.get("first");
+      assertEquals(2L, first.game().getRevision());
+      assertEquals(1L, first.storedRevision());
+      assertEquals(GameStatus.COMPLETED, first.game().getGameStatus());
+      assertEquals(Player.PLAYER_TWO, first.game().getWinner());
+      assertEquals(PlayerTurn.PLAYER_TWO_TURN, first.game().getPlayerTurn());
+      assertEquals(40, first.game().getPit(14).getStones());
+      assertEquals(Instant.ofEpochMilli(1_000), first.game().getCreatedAt());
+      assertNull(first.game().getUpdatedAt());
+      assertEquals(
+          aGame("second", 1).getPits().toString(),
+          games.get("second").game().getPits().toString());
+    }
+  }
+
+  @Test
+  public void shouldStopReplayAtTornRecord() throws IOException {
+    Path path = directory.resolve("lane-0.journal");
+    int firstRecordEnd;
+    try (var journal = new MoveJournal(path, 4096, false)) {
+      journal.append(aGame("first", 1), 0);
+      firstRecordEnd = journal.size();
+      journal.append(aGame("second", 1), 0);
+    }
+    try (var file = new RandomAccessFile(path.toFile(), "rw")) {
+      // past the file header of 8 bytes
+      file.seek(8 + firstRecordEnd + 20);
+      file.write(0x7f);
+    }
+
+    try (var journal = new MoveJournal(path, 4096, false)) {
+      var games = journal.replay();
+
+      assertEquals(1, games.size());
+      assertTrue(games.containsKey("first"));
+      assertEquals(firstRecordEnd, journal.size());
+    }
+  }
+
+  @Test
+  public void shouldForgetRecordsAfterReset() throws IOException {
+    Path path = directory.resolve("lane-0.journal");
+    try (var journal = new MoveJournal(path, 4096, false)) {
+      journal.append(aGame("first", 1), 0);
+      journal.append(aGame("second", 1), 0);
+      journal.reset();
+      journal.append(aGame("third", 1), 0);
+    }
+
+    try (var journal = new MoveJournal(path, 4096, false)) {
+      assertEquals(Set.of("third"), journal.replay().keySet());
+    }
+  }
+
+  @Test
+  public void shouldRejectAppendWhenFull() throws IOException {
+    try (var journal = new MoveJournal(directory.resolve("lane-0.journal"), 128, false)) {
+      assertTrue(journal.hasRoomFor(aGame("first", 1)));
+      assertTrue(journal.append(aGame("first", 1), 0));
+      assertFalse(journal.hasRoomFor(aGame("second", 1)));
+      assertFalse(journal.append(aGame("second", 1), 0));
+      assertEquals(1, journal.replay().size());
+    }
+  }
+
+  @Test
+  public void shouldRejectFileWithoutJournalHeader() throws IOException {
+    Path path = directory.resolve("lane-0.journal");
+    Files.write(path, "not a move journal".getBytes(StandardCharsets.UTF_8));
+
+    assertThrows(IOException.class, () -> new MoveJournal(path, 4096, false));
+    assertTrue(Files.readString(path).startsWith("not a move journal"));
+  }
+
+  @Test
+  public void shouldRejectJournalOfUnknownVersion() throws IOException {
+    Path path = directory.resolve("lane-0.journal");
+    new MoveJournal(path, 4096, false).close();
+    try (var file = new RandomAccessFile(path.toFile(), "rw")) {
+      file.seek(Integer.BYTES);
+      file.writeInt(99);
+    }
+
+    assertThrows(IOException.class, () -> new MoveJournal(path, 4096, false));
+  }
+
+  private Game aGame(String gameId, long revision) {
+    var game = new Game(6);
+    game.setGameId(gameId);
+    game.setRevision(revision);
+    game.setPlayerTurn(PlayerTurn.PLAYER_TWO_TURN);
+    game.setGameStatus(GameStatus.IN_PROGRESS);
+    game.getPit(1).setStones(0);
+    return game;
+  }
+}
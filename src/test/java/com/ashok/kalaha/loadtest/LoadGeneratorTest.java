@@ -0,0 +1,53 @@
+package com.ashok.kalaha.loadtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class LoadGeneratorTest {
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  public void shouldPickOnlyLegalPitsOfPlayerOnTurn() {
+    var game = aGame("PLAYER_TWO_TURN", 4, 4, 4, 4, 4, 4, 0, 0, 3, 0, 0, 5, 0, 0);
+
+    Set<Integer> pickedPitIds = new HashSet<>();
+    for (int i = 0; i < 200; i++) pickedPitIds.add(LoadGenerator.pickMove(game));
+
+    assertEquals(Set.of(9, 12), pickedPitIds);
+  }
+
+  @Test
+  public void shouldPickPitsOfEitherPlayerBeforeFirstMove() {
+    var game = aGame(null, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1, 0);
+
+    Set<Integer> pickedPitIds = new HashSet<>();
+    for (int i = 0; i < 200; i++) pickedPitIds.add(LoadGenerator.pickMove(game));
+
+    assertEquals(Set.of(3, 13), pickedPitIds);
+  }
+
+  @Test
+  public void shouldFailWithoutLegalMove() {
+    var game = aGame("PLAYER_ONE_TURN", 0, 0, 0, 0, 0, 0, 24, 4, 4, 4, 4, 4, 4, 0);
+
+    assertThrows(IllegalStateException.class, () -> LoadGenerator.pickMove(game));
+  }
+
+  private static JsonNode aGame(String playerTurn, int... stones) {
+    ObjectNode game = objectMapper.createObjectNode();
+    game.put("gameStatus", "IN_PROGRESS");
+    if (playerTurn == null) game.putNull("playerTurn");
+    else game.put("playerTurn", playerTurn);
+    ArrayNode pits = game.putArray("pits");
+    for (int pit = 0; pit < stones.length; pit++)
+      pits.addObject().put("pitId", pit + 1).put("stones", stones[pit]);
+    return game;
+  }
+}
@@ -0,0 +1,56 @@
+package com.ashok.kalaha.loadtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+public class OperationStatsTest {
+
+  @Test
+  public void shouldReportErrorsOfIntervalAndAllErrorsInTotal() {
+    var operationStats = new OperationStats("move");
+    operationStats.record(1_000_000);
+    operationStats.error();
+    operationStats.error();
+    assertEquals(2, errorsOf(report(operationStats, false)));
+
+    operationStats.error();
+    assertEquals(1, errorsOf(report(operationStats, false)));
+    assertEquals(0, errorsOf(report(operationStats, false)));
+
+    operationStats.error();
+    assertEquals(4, errorsOf(report(operationStats, true)));
+  }
+
+  @Test
+  public void shouldCountRequestsOfIntervalAndAllRequestsInTotal() {
+    var operationStats = new OperationStats("move");
+    operationStats.record(1_000_000);
+    operationStats.record(2_000_000);
+    assertEquals(2, countOf(report(operationStats, false)));
+
+    operationStats.record(3_000_000);
+    assertEquals(1, countOf(report(operationStats, false)));
+    assertEquals(3, countOf(report(operationStats, true)));
+  }
+
+  private static String[] report(OperationStats operationStats, boolean isTotal) {
+    var output = new ByteArrayOutputStream();
+    try (var out = new PrintStream(output, true, StandardCharsets.UTF_8)) {
+      if (isTotal) operationStats.reportTotal(out, 1.0);
+      else operationStats.reportInterval(out, 1.0);
+    }
+    return output.toString(StandardCharsets.UTF_8).trim().split("\\s+");
+  }
+
+  private static long countOf(String[] columns) {
+    return Long.parseLong(columns[1]);
+  }
+
+  private static long errorsOf(String[] columns) {
+    return Long.parseLong(columns[columns.length - 1]);
+  }
+}
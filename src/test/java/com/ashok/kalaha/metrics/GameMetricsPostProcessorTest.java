@@ -0,0 +1,116 @@
+package com.ashok.kalaha.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.ashok.kalaha.api.GameService;
+import com.ashok.kalaha.api.SowingService;
+import com.ashok.kalaha.config.KalahaProperties;
+import com.ashok.kalaha.exceptions.SowingFromEmptyPitException;
+import com.ashok.kalaha.model.Game;
+import com.ashok.kalaha.repository.GameRepository;
+import com.ashok.kalaha.service.ArrayBoardSowingService;
+import com.ashok.kalaha.service.GameServiceImpl;
+import com.ashok.kalaha.tracing.MoveTracing;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+public class GameMetricsPostProcessorTest {
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final ObservationRegistry observationRegistry = ObservationRegistry.create();
+  private GameMetricsPostProcessor postProcessor;
+
+  @BeforeEach
+  public void setUp() {
+    var beanFactory =
+        new StaticListableBeanFactory(
+            Map.of(
+                "gameMetrics",
+                new GameMetrics(registry),
+                "observationRegistry",
+                observationRegistry));
+    postProcessor =
+        new GameMetricsPostProcessor(
+            beanFactory.getBeanProvider(GameMetrics.class),
+            beanFactory.getBeanProvider(ObservationRegistry.class));
+    postProcessor.setBeanFactory(beanFactory);
+  }
+
+  @Test
+  public void shouldTimeSowingAndRecordStonesOfSuccessfulMoves() {
+    var sowingService =
+        (SowingService)
+            postProcessor.postProcessAfterInitialization(
+                new ArrayBoardSowingService(), "sowingService");
+    var game = new Game(6);
+
+    sowingService.sow(game, 3);
+    assertThrows(SowingFromEmptyPitException.class, () -> sowingService.sow(game, 3));
+
+    var sowTimer = registry.get("kalaha.sow").tag("engine", "ArrayBoardSowingService").timer();
+    assertEquals(2, sowTimer.count());
+    var stonesSown = registry.get("kalaha.sow.stones").summary();
+    assertEquals(1, stonesSown.count());
+    assertEquals(6, stonesSown.totalAmount());
+  }
+
+  @Test
+  public void shouldTimeGameServiceOperationsOnly() {
+    var gameRepository = mock(GameRepository.class);
+    when(gameRepository.findById("gameId")).thenReturn(Optional.of(new Game(6)));
+    var gameService =
+        (GameService)
+            postProcessor.postProcessAfterInitialization(
+                new GameServiceImpl(
+                    gameRepository, mock(MongoOperations.class), new KalahaProperties()),
+                "gameServiceImpl");
+
+    gameService.loadGame("gameId");
+    gameService.evictGame("gameId");
+
+    assertInstanceOf(GameServiceImpl.class, gameService);
+    assertEquals(
+        1, registry.get("kalaha.game.service").tag("operation", "loadGame").timer().count());
+    assertEquals(1, registry.find("kalaha.game.service").timers().size());
+  }
+
+  @Test
+  public void shouldObserveCallsAsStagesOfTracedMove() {
+    List<String> stages = new ArrayList<>();
+    observationRegistry
+        .observationConfig()
+        .observationHandler(
+            new ObservationHandler<>() {
+              @Override
+              public boolean supportsContext(Observation.Context context) {
+                return MoveTracing.STAGE.equals(context.getName());
+              }
+
+              @Override
+              public void onStop(Observation.Context context) {
+                stages.add(context.getLowCardinalityKeyValue("stage").getValue());
+              }
+            });
+    var sowingService =
+        (SowingService)
+            postProcessor.postProcessAfterInitialization(
+                new ArrayBoardSowingService(), "sowingService");
+
+    sowingService.sow(new Game(6), 1);
+    Observation.createNotStarted(MoveTracing.MOVE, observationRegistry)
+        .observe(() -> sowingService.sow(new Game(6), 2));
+
+    assertEquals(List.of("sow"), stages);
+  }
+}
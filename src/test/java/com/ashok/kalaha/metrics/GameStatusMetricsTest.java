@@ -0,0 +1,42 @@
+package com.ashok.kalaha.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.ashok.kalaha.config.KalahaProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+
+public class GameStatusMetricsTest {
+  private final MongoOperations mongoOperations = mock(MongoOperations.class);
+
+  @Test
+  public void shouldGaugeGamesByStatusFromOneAggregationPerRefreshInterval() {
+    var kalahaProperties = new KalahaProperties();
+    kalahaProperties.getMetrics().setGameStatusRefreshInterval(Duration.ofHours(1));
+    when(mongoOperations.aggregate(any(TypedAggregation.class), eq(Document.class)))
+        .thenReturn(
+            new AggregationResults<>(
+                List.of(
+                    new Document("_id", "IN_PROGRESS").append("count", 12),
+                    new Document("_id", "COMPLETED").append("count", 30L),
+                    new Document("_id", null).append("count", 2)),
+                new Document()));
+    var registry = new SimpleMeterRegistry();
+    new GameStatusMetrics(mongoOperations, kalahaProperties).bindTo(registry);
+
+    assertEquals(12, registry.get("kalaha.games").tag("status", "IN_PROGRESS").gauge().value());
+    assertEquals(30, registry.get("kalaha.games").tag("status", "COMPLETED").gauge().value());
+    assertEquals(0, registry.get("kalaha.games").tag("status", "ABANDONED").gauge().value());
+
+    verify(mongoOperations, times(1)).aggregate(any(TypedAggregation.class), eq(Document.class));
+  }
+}
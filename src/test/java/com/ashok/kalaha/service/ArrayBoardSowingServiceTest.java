@@ -0,0 +1,148 @@
+package com.ashok.kalaha.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.ashok.kalaha.api.SowingService;
+import com.ashok.kalaha.engine.EndgameTablebase;
+import com.ashok.kalaha.engine.EndgameTablebaseGenerator;
+import com.ashok.kalaha.model.Game;
+import com.ashok.kalaha.model.GameStatus;
+import com.ashok.kalaha.model.Player;
+import com.ashok.kalaha.model.PlayerTurn;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class ArrayBoardSowingServiceTest {
+  private final TwoPlayerSowingService twoPlayerSowingService = new TwoPlayerSowingService();
+  private final ArrayBoardSowingService arrayBoardSowingService = new ArrayBoardSowingService();
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 2, 3, 4, 6, 10, 13, 14, 20})
+  public void shouldBehaveExactlyLikeTwoPlayerSowingService(int stones) {
+    var random = new Random(stones);
+
+    for (int gameNumber = 0; gameNumber < 200; gameNumber++) {
+      var expected = new Game(stones);
+      var actual = new Game(stones);
+
+      for (int move = 0; move < 500; move++) {
+        int pitId = random.nextInt(16);
+        var expectedException = sowAndCatch(twoPlayerSowingService, expected, pitId);
+        var actualException = sowAndCatch(arrayBoardSowingService, actual, pitId);
+
+        if (expectedException == null) assertNull(actualException);
+        else {
+          assertNotNull(actualException);
+          assertEquals(expectedException.getClass(), actualException.getClass());
+          assertEquals(expectedException.getMessage(), actualException.getMessage());
+        }
+        assertSameGame(expected, actual);
+
+        if (expected.getGameStatus() == GameStatus.COMPLETED
+            || expected.getGameStatus() == GameStatus.COMPLETED_DRAW) break;
+      }
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 6, 15})
+  public void shouldBehaveExactlyLikeTwoPlayerSowingServiceForGivenTurn(int stones) {
+    var random = new Random(31L * stones);
+
+    for (int gameNumber = 0; gameNumber < 100; gameNumber++) {
+      var expected = new Game(stones);
+      var actual = new Game(stones);
+      var turn = random.nextBoolean() ? PlayerTurn.PLAYER_ONE_TURN : PlayerTurn.PLAYER_TWO_TURN;
+      expected.setPlayerTurn(turn);
+      actual.setPlayerTurn(turn);
+
+      for (int move = 0; move < 500 && expected.getGameStatus() != GameStatus.COMPLETED; move++) {
+        int pitId = random.nextInt(14) + 1;
+        var expectedException = sowAndCatch(twoPlayerSowingService, expected, pitId);
+        var actualException = sowAndCatch(arrayBoardSowingService, actual, pitId);
+
+        assertEquals(
+            expectedException == null ? null : expectedException.getClass(),
+            actualException == null ? null : actualException.getClass());
+        assertSameGame(expected, actual);
+        if (expected.getGameStatus() == GameStatus.COMPLETED_DRAW) break;
+      }
+    }
+  }
+
+  @Test
+  public void shouldEndGameOnceTablebaseKnowsTheResult(@TempDir Path directory)
+      throws IOException {
+    var tablebase = Optional.of(endgameTablebase(directory, 4));
+
+    for (SowingService sowingService :
+        List.of(new TwoPlayerSowingService(tablebase), new ArrayBoardSowingService(tablebase))) {
+      var game = endgame(30);
+      sowingService.sow(game, 1);
+
+      assertEquals(GameStatus.COMPLETED, game.getGameStatus());
+      assertEquals(Player.PLAYER_ONE, game.getWinner());
+      assertEquals(PlayerTurn.PLAYER_TWO_TURN, game.getPlayerTurn());
+      assertEquals(1, game.getPit(2).getStones());
+      assertEquals(30, game.getPit(7).getStones());
+    }
+  }
+
+  @Test
+  public void shouldKeepPlayingGameWithMoreStonesThanTablebaseCovers(@TempDir Path directory)
+      throws IOException {
+    var tablebase = Optional.of(endgameTablebase(directory, 3));
+
+    for (SowingService sowingService :
+        List.of(new TwoPlayerSowingService(tablebase), new ArrayBoardSowingService(tablebase))) {
+      var game = endgame(30);
+      sowingService.sow(game, 1);
+
+      assertEquals(GameStatus.IN_PROGRESS, game.getGameStatus());
+      assertNull(game.getWinner());
+    }
+  }
+
+  /** Player one to move with 1 stone in pit 1 and 2 in pit 6, player two has 1 stone in pit 8. */
+  private static Game endgame(int playerOneStore) {
+    var game = new Game(0);
+    game.getPit(1).setStones(1);
+    game.getPit(6).setStones(2);
+    game.getPit(7).setStones(playerOneStore);
+    game.getPit(8).setStones(1);
+    game.setPlayerTurn(PlayerTurn.PLAYER_ONE_TURN);
+    game.setGameStatus(GameStatus.IN_PROGRESS);
+    return game;
+  }
+
+  private static EndgameTablebase endgameTablebase(Path directory, int maxStones)
+      throws IOException {
+    Path path = directory.resolve("kalaha.tb");
+    new EndgameTablebaseGenerator(ForkJoinPool.commonPool()).generate(path, maxStones);
+    return EndgameTablebase.open(path);
+  }
+
+  private RuntimeException sowAndCatch(SowingService sowingService, Game game, int pitId) {
+    try {
+      sowingService.sow(game, pitId);
+      return null;
+    } catch (RuntimeException e) {
+      return e;
+    }
+  }
+
+  private void assertSameGame(Game expected, Game actual) {
+    assertEquals(expected.getPits().toString(), actual.getPits().toString());
+    assertEquals(expected.getPlayerTurn(), actual.getPlayerTurn());
+    assertEquals(expected.getGameStatus(), actual.getGameStatus());
+    assertEquals(expected.getWinner(), actual.getWinner());
+  }
+}
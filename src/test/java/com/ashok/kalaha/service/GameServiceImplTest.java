@@ -2,23 +2,42 @@ package com.ashok.kalaha.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
+import com.ashok.kalaha.config.KalahaProperties;
 import com.ashok.kalaha.exceptions.GameNotFoundException;
+import com.ashok.kalaha.exceptions.GameUpdateConflictException;
 import com.ashok.kalaha.model.Game;
+import com.ashok.kalaha.model.GameStatus;
 import com.ashok.kalaha.model.PlayerTurn;
 import com.ashok.kalaha.repository.GameRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import org.bson.Document;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 
 @ExtendWith(MockitoExtension.class)
 public class GameServiceImplTest {
   @Mock GameRepository gameRepository;
 
+  @Mock MongoOperations mongoOperations;
+
+  @Spy KalahaProperties kalahaProperties = new KalahaProperties();
+
   @InjectMocks GameServiceImpl gameServiceImpl;
 
   private final String defaultGameId = "defaultGameId";
@@ -31,6 +50,49 @@ public class GameServiceImplTest {
     assertNotNull(newGame);
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void serviceShouldInsertGamesInBatches() {
+    kalahaProperties.setGameInsertBatchSize(2);
+    List<Integer> insertedBatchSizes = new ArrayList<>();
+    when(mongoOperations.insert(any(Collection.class), eq(Game.class)))
+        .thenAnswer(
+            invocation -> {
+              Collection<Game> games = invocation.getArgument(0);
+              insertedBatchSizes.add(games.size());
+              games.forEach(game -> game.setGameId("game" + game.getPit(1).getStones()));
+              return new ArrayList<>(games);
+            });
+
+    var gameIds = gameServiceImpl.createGames(List.of(1, 2, 3, 4, 5), 2);
+
+    assertEquals(List.of("game1", "game2", "game3", "game4", "game5"), gameIds);
+    assertEquals(List.of(2, 2, 1), insertedBatchSizes);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void serviceShouldCreateNewGamesWithRevision() {
+    when(mongoOperations.insert(any(Collection.class), eq(Game.class)))
+        .thenAnswer(
+            invocation -> {
+              Collection<Game> games = invocation.getArgument(0);
+              games.forEach(
+                  game -> {
+                    assertEquals(0L, game.getRevision());
+                    assertEquals(GameStatus.CREATED, game.getGameStatus());
+                    assertNotNull(game.getCreatedAt());
+                    assertEquals(game.getCreatedAt(), game.getUpdatedAt());
+                    game.setGameId(defaultGameId);
+                  });
+              return new ArrayList<>(games);
+            });
+
+    assertEquals(
+        Collections.nCopies(3, defaultGameId),
+        gameServiceImpl.createGames(Collections.nCopies(3, 6), 2));
+  }
+
   @Test
   public void serviceShouldBeAbleToSaveUpdatedGame() {
     Game game = getAGame();
@@ -40,11 +102,89 @@ public class GameServiceImplTest {
 
     assertNotNull(updatedGame);
     assertEquals(defaultGameId, updatedGame.getGameId());
+    assertEquals(1L, updatedGame.getRevision());
     assertEquals(PlayerTurn.PLAYER_TWO_TURN, updatedGame.getPlayerTurn());
     assertEquals(9, updatedGame.getPit(3).getStones());
     assertEquals(6, updatedGame.getPit(1).getStones());
   }
 
+  @Test
+  public void serviceShouldIncrementRevisionOfUpdatedGame() {
+    Game game = getAGame();
+    game.setRevision(4L);
+    when(mongoOperations.findAndReplace(any(Query.class), eq(game))).thenReturn(game);
+
+    var updatedGame = gameServiceImpl.updateGame(game);
+
+    assertEquals(5L, updatedGame.getRevision());
+  }
+
+  @Test
+  public void serviceShouldRejectUpdateOfStaleGame() {
+    Game game = getAGame();
+    game.setRevision(4L);
+    when(mongoOperations.findAndReplace(any(Query.class), eq(game))).thenReturn(null);
+    when(gameRepository.existsById(defaultGameId)).thenReturn(true);
+
+    assertThrows(GameUpdateConflictException.class, () -> gameServiceImpl.updateGame(game));
+    assertEquals(4L, game.getRevision());
+  }
+
+  @Test
+  public void serviceShouldThrowExceptionForUpdatingRemovedGame() {
+    Game game = getAGame();
+    game.setRevision(4L);
+    when(mongoOperations.findAndReplace(any(Query.class), eq(game))).thenReturn(null);
+    when(gameRepository.existsById(defaultGameId)).thenReturn(false);
+
+    assertThrows(GameNotFoundException.class, () -> gameServiceImpl.updateGame(game));
+  }
+
+  @Test
+  public void serviceShouldSowAndUpdateOnlyChangedPits() {
+    Game game = new Game(6);
+    game.setGameId(defaultGameId);
+    game.setRevision(0L);
+    var updateCaptor = ArgumentCaptor.forClass(Update.class);
+    when(mongoOperations.findAndModify(
+            any(Query.class),
+            updateCaptor.capture(),
+            any(FindAndModifyOptions.class),
+            eq(Game.class)))
+        .thenReturn(game);
+
+    gameServiceImpl.sowAndUpdate(game, 3, new ArrayBoardSowingService());
+
+    Document update = updateCaptor.getValue().getUpdateObject();
+    assertEquals(0, update.get("$set", Document.class).get("pits.2.stones"));
+    assertEquals(
+        new Document("revision", 1)
+            .append("pits.3.stones", 1)
+            .append("pits.4.stones", 1)
+            .append("pits.5.stones", 1)
+            .append("pits.6.stones", 1)
+            .append("pits.7.stones", 1)
+            .append("pits.8.stones", 1),
+        update.get("$inc"));
+    assertEquals(PlayerTurn.PLAYER_TWO_TURN, update.get("$set", Document.class).get("playerTurn"));
+    assertEquals(GameStatus.IN_PROGRESS, update.get("$set", Document.class).get("gameStatus"));
+    assertNotNull(update.get("$set", Document.class).get("updatedAt"));
+  }
+
+  @Test
+  public void serviceShouldRejectAtomicSowingOfStaleGame() {
+    Game game = getAGame();
+    game.setRevision(2L);
+    when(mongoOperations.findAndModify(
+            any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Game.class)))
+        .thenReturn(null);
+    when(gameRepository.existsById(defaultGameId)).thenReturn(true);
+
+    assertThrows(
+        GameUpdateConflictException.class,
+        () -> gameServiceImpl.sowAndUpdate(game, 8, new ArrayBoardSowingService()));
+  }
+
   @Test
   public void serviceShouldBeAbleLoadExistingGame() {
     Game game = new Game(6);
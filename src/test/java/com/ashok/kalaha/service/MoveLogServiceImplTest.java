@@ -0,0 +1,219 @@
+package com.ashok.kalaha.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+import com.ashok.kalaha.config.KalahaProperties;
+import com.ashok.kalaha.dto.GameDelta;
+import com.ashok.kalaha.exceptions.GameNotFoundException;
+import com.ashok.kalaha.model.Game;
+import com.ashok.kalaha.model.GameSnapshot;
+import com.ashok.kalaha.model.GameStatus;
+import com.ashok.kalaha.model.MoveEvent;
+import com.ashok.kalaha.model.Player;
+import com.ashok.kalaha.repository.GameSnapshotRepository;
+import com.ashok.kalaha.repository.MoveEventRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+public class MoveLogServiceImplTest {
+  private static final String GAME_ID = "defaultGameId";
+
+  private final MoveEventRepository moveEventRepository = mock(MoveEventRepository.class);
+  private final GameSnapshotRepository gameSnapshotRepository = mock(GameSnapshotRepository.class);
+  private final ArrayBoardSowingService sowingService = new ArrayBoardSowingService();
+  private MoveLogServiceImpl moveLogService;
+
+  @BeforeEach
+  public void setUp() {
+    var kalahaProperties = new KalahaProperties();
+    kalahaProperties.getMoveLog().setSnapshotInterval(4);
+    moveLogService =
+        new MoveLogServiceImpl(
+            moveEventRepository,
+            gameSnapshotRepository,
+            mock(MongoOperations.class),
+            sowingService,
+            kalahaProperties);
+  }
+
+  @Test
+  public void shouldSnapshotNewGameBeforeFirstMove() {
+    var game = aNewGame();
+    int[] previousStones = GameDelta.stonesOf(game);
+    play(game, 3);
+
+    moveLogService.record(game, 1, List.of(3), previousStones);
+
+    var snapshotCaptor = ArgumentCaptor.forClass(GameSnapshot.class);
+    verify(gameSnapshotRepository).save(snapshotCaptor.capture());
+    var snapshot = snapshotCaptor.getValue();
+    assertEquals(0L, snapshot.getSeq());
+    assertEquals(GameStatus.CREATED, snapshot.getGame().getGameStatus());
+    assertNull(snapshot.getGame().getPlayerTurn());
+    assertEquals(new Game(6).getPits().toString(), snapshot.getGame().getPits().toString());
+    verify(moveEventRepository)
+        .insert(
+            argThat(
+                (List<MoveEvent> moveEvents) ->
+                    moveEvents.size() == 1
+                        && moveEvents.get(0).getSeq() == 1
+                        && moveEvents.get(0).getPitId() == 3
+                        && moveEvents.get(0).getPlayer() == Player.PLAYER_ONE));
+  }
+
+  @Test
+  public void shouldRecordBatchWithOneSeqAndSnapshotEveryInterval() {
+    var game = aNewGame();
+    game.setRevision(3L);
+    play(game, 3);
+    int[] previousStones = GameDelta.stonesOf(game);
+    play(game, 9, 1);
+    game.setRevision(5L);
+
+    moveLogService.record(game, 5, List.of(9, 1), previousStones);
+
+    verify(moveEventRepository)
+        .insert(
+            argThat(
+                (List<MoveEvent> moveEvents) ->
+                    moveEvents.get(0).getSeq() == 5
+                        && moveEvents.get(1).getSeq() == 5
+                        && moveEvents.get(0).getMoveIndex() == 0
+                        && moveEvents.get(1).getMoveIndex() == 1
+                        && moveEvents.get(0).getPlayer() == Player.PLAYER_TWO));
+    verify(gameSnapshotRepository, never()).save(any());
+
+    play(game, 12);
+    game.setRevision(8L);
+    moveLogService.record(game, 8, List.of(12), previousStones);
+    verify(gameSnapshotRepository).save(argThat(snapshot -> snapshot.getSeq() == 8));
+  }
+
+  @Test
+  public void shouldRecordFirstMoveOfGameWithoutRevision() {
+    var game = aNewGame();
+    game.setRevision(null);
+    int[] previousStones = GameDelta.stonesOf(game);
+    sowingService.sow(game, 3);
+    game.setRevision(0L);
+
+    moveLogService.record(game, 1, List.of(3), previousStones);
+
+    verify(gameSnapshotRepository).save(argThat(snapshot -> snapshot.getSeq() == 0));
+    verify(moveEventRepository)
+        .insert(argThat((List<MoveEvent> moveEvents) -> moveEvents.get(0).getSeq() == 1));
+  }
+
+  @Test
+  public void shouldRebuildGameFromSnapshotAndMoves() {
+    var game = aNewGame();
+    var snapshot = GameSnapshot.of(game, null);
+    List<MoveEvent> moveEvents = new ArrayList<>();
+    int[] pitIds = {3, 9, 1, 10};
+    for (int move = 0; move < pitIds.length; move++) {
+      play(game, pitIds[move]);
+      moveEvents.add(MoveEvent.of(GAME_ID, move + 1, 0, pitIds[move], null));
+    }
+    when(gameSnapshotRepository.findFirstByGameIdAndSeqLessThanEqualOrderBySeqDesc(GAME_ID, 4))
+        .thenReturn(Optional.of(snapshot));
+    when(moveEventRepository.findMovesAfter(GAME_ID, 0, 4)).thenReturn(moveEvents);
+
+    var rebuiltGame = moveLogService.rebuildGame(GAME_ID, 4);
+
+    assertEquals(game.getPits().toString(), rebuiltGame.getPits().toString());
+    assertEquals(game.getPlayerTurn(), rebuiltGame.getPlayerTurn());
+    assertEquals(4L, rebuiltGame.getRevision());
+  }
+
+  @Test
+  public void shouldSnapshotGameWhenItsMovesCantBeRecorded() {
+    var game = aNewGame();
+    game.setRevision(5L);
+    int[] previousStones = GameDelta.stonesOf(game);
+    play(game, 3);
+    when(moveEventRepository.insert(anyList()))
+        .thenThrow(new DataAccessResourceFailureException("down"));
+
+    moveLogService.record(game, 6, List.of(3), previousStones);
+
+    var snapshotCaptor = ArgumentCaptor.forClass(GameSnapshot.class);
+    verify(gameSnapshotRepository).save(snapshotCaptor.capture());
+    assertEquals(6L, snapshotCaptor.getValue().getSeq());
+    assertEquals(
+        game.getPits().toString(), snapshotCaptor.getValue().getGame().getPits().toString());
+  }
+
+  @Test
+  public void shouldRebuildBatchesOfMovesSharingOneSeq() {
+    var game = aNewGame();
+    var snapshot = GameSnapshot.of(game, null);
+    play(game, 3, 9, 1);
+    when(gameSnapshotRepository.findFirstByGameIdAndSeqLessThanEqualOrderBySeqDesc(GAME_ID, 2))
+        .thenReturn(Optional.of(snapshot));
+    when(moveEventRepository.findMovesAfter(GAME_ID, 0, 2))
+        .thenReturn(
+            List.of(
+                MoveEvent.of(GAME_ID, 1, 0, 3, null),
+                MoveEvent.of(GAME_ID, 2, 0, 9, null),
+                MoveEvent.of(GAME_ID, 2, 1, 1, null)));
+
+    var rebuiltGame = moveLogService.rebuildGame(GAME_ID, 2);
+
+    assertEquals(game.getPits().toString(), rebuiltGame.getPits().toString());
+    assertEquals(2L, rebuiltGame.getRevision());
+  }
+
+  @Test
+  public void shouldRefuseToRebuildOverMissingMoves() {
+    when(gameSnapshotRepository.findFirstByGameIdAndSeqLessThanEqualOrderBySeqDesc(GAME_ID, 3))
+        .thenReturn(Optional.of(GameSnapshot.of(aNewGame(), null)));
+    when(moveEventRepository.findMovesAfter(GAME_ID, 0, 3))
+        .thenReturn(
+            List.of(MoveEvent.of(GAME_ID, 1, 0, 3, null), MoveEvent.of(GAME_ID, 3, 0, 9, null)));
+
+    assertThrows(IllegalStateException.class, () -> moveLogService.rebuildGame(GAME_ID, 3));
+  }
+
+  @Test
+  public void shouldNotRebuildRevisionBeyondRecordedMoves() {
+    when(gameSnapshotRepository.findFirstByGameIdAndSeqLessThanEqualOrderBySeqDesc(GAME_ID, 4))
+        .thenReturn(Optional.of(GameSnapshot.of(aNewGame(), null)));
+    when(moveEventRepository.findMovesAfter(GAME_ID, 0, 4))
+        .thenReturn(List.of(MoveEvent.of(GAME_ID, 1, 0, 3, null)));
+
+    assertThrows(GameNotFoundException.class, () -> moveLogService.rebuildGame(GAME_ID, 4));
+  }
+
+  @Test
+  public void shouldNotRebuildGameWithoutSnapshot() {
+    when(gameSnapshotRepository.findFirstByGameIdAndSeqLessThanEqualOrderBySeqDesc(GAME_ID, 4))
+        .thenReturn(Optional.empty());
+
+    assertThrows(GameNotFoundException.class, () -> moveLogService.rebuildGame(GAME_ID, 4));
+    verify(moveEventRepository, never()).findMovesAfter(any(), anyLong(), anyLong());
+  }
+
+  private void play(Game game, int... pitIds) {
+    for (int pitId : pitIds) {
+      sowingService.sow(game, pitId);
+      game.setRevision(game.getRevision() + 1);
+    }
+  }
+
+  private Game aNewGame() {
+    var game = new Game(6);
+    game.setGameId(GAME_ID);
+    game.setRevision(0L);
+    return game;
+  }
+}
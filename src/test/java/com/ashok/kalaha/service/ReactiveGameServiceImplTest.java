@@ -0,0 +1,176 @@
+package com.ashok.kalaha.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.ashok.kalaha.config.KalahaProperties;
+import com.ashok.kalaha.exceptions.GameNotFoundException;
+import com.ashok.kalaha.exceptions.GameUpdateConflictException;
+import com.ashok.kalaha.model.Game;
+import com.ashok.kalaha.model.GameStatus;
+import com.ashok.kalaha.repository.ReactiveGameRepository;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveGameServiceImplTest {
+  private static final String GAME_ID = "defaultGameId";
+  private static final String CACHE_KEY = "games::" + GAME_ID;
+  private static final String INVALIDATION_CHANNEL =
+      new KalahaProperties().getCache().getInvalidationChannel();
+
+  @Mock ReactiveGameRepository gameRepository;
+
+  @Mock ReactiveMongoOperations mongoOperations;
+
+  @Mock ReactiveRedisTemplate<String, Game> redisTemplate;
+
+  @Mock ReactiveValueOperations<String, Game> valueOperations;
+
+  @Mock ReactiveStringRedisTemplate stringRedisTemplate;
+
+  private final KalahaProperties kalahaProperties = new KalahaProperties();
+  private final CacheProperties cacheProperties = new CacheProperties();
+  private ReactiveGameServiceImpl gameService;
+
+  @BeforeEach
+  public void setUp() {
+    kalahaProperties.getCache().setEnabled(true);
+    cacheProperties.getRedis().setTimeToLive(Duration.ofMinutes(10));
+    gameService =
+        new ReactiveGameServiceImpl(
+            gameRepository,
+            mongoOperations,
+            redisTemplate,
+            stringRedisTemplate,
+            kalahaProperties,
+            cacheProperties);
+  }
+
+  @Test
+  public void shouldLoadGameFromCache() {
+    var game = getAGame();
+    when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    when(valueOperations.get(CACHE_KEY)).thenReturn(Mono.just(game));
+
+    StepVerifier.create(gameService.loadGame(GAME_ID)).expectNext(game).verifyComplete();
+    verify(gameRepository, never()).findById(GAME_ID);
+  }
+
+  @Test
+  public void shouldLoadGameFromMongoAndCacheIt() {
+    var game = getAGame();
+    when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    when(valueOperations.get(CACHE_KEY)).thenReturn(Mono.empty());
+    when(gameRepository.findById(GAME_ID)).thenReturn(Mono.just(game));
+    when(valueOperations.set(CACHE_KEY, game, Duration.ofMinutes(10)))
+        .thenReturn(Mono.just(true));
+    when(stringRedisTemplate.convertAndSend(eq(INVALIDATION_CHANNEL), any()))
+        .thenReturn(Mono.just(1L));
+
+    StepVerifier.create(gameService.loadGame(GAME_ID)).expectNext(game).verifyComplete();
+    verify(stringRedisTemplate)
+        .convertAndSend(eq(INVALIDATION_CHANNEL), endsWith("|games|" + GAME_ID));
+  }
+
+  @Test
+  public void shouldFailToLoadMissingGame() {
+    when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    when(valueOperations.get(CACHE_KEY)).thenReturn(Mono.empty());
+    when(gameRepository.findById(GAME_ID)).thenReturn(Mono.empty());
+
+    StepVerifier.create(gameService.loadGame(GAME_ID))
+        .expectError(GameNotFoundException.class)
+        .verify();
+  }
+
+  @Test
+  public void shouldIncrementRevisionAndEvictCompletedGame() {
+    var game = getAGame();
+    game.setGameStatus(GameStatus.COMPLETED);
+    when(mongoOperations.findAndReplace(any(Query.class), eq(game))).thenReturn(Mono.just(game));
+    when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    when(valueOperations.delete(CACHE_KEY)).thenReturn(Mono.just(true));
+    when(stringRedisTemplate.convertAndSend(eq(INVALIDATION_CHANNEL), any()))
+        .thenReturn(Mono.just(1L));
+
+    StepVerifier.create(gameService.updateGame(game)).expectNext(game).verifyComplete();
+    assertEquals(4L, game.getRevision());
+  }
+
+  @Test
+  public void shouldSowAndUpdateGuardedByUnsownGame() {
+    kalahaProperties.getCache().setEnabled(false);
+    var game = getAGame();
+    var sownGame = getAGame();
+    sownGame.setRevision(4L);
+    when(mongoOperations.findAndModify(
+            any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Game.class)))
+        .thenReturn(Mono.just(sownGame));
+
+    StepVerifier.create(gameService.sowAndUpdate(game, 1, new TwoPlayerSowingService()))
+        .expectNext(sownGame)
+        .verifyComplete();
+    verify(mongoOperations)
+        .findAndModify(
+            argThat(
+                (Query query) ->
+                    query.getQueryObject().get("revision").equals(3L)
+                        && query.getQueryObject().containsKey("playerTurn")),
+            argThat((Update update) -> update.modifies("pits.0.stones")),
+            any(FindAndModifyOptions.class),
+            eq(Game.class));
+  }
+
+  @Test
+  public void shouldRejectSowingOfStaleGame() {
+    kalahaProperties.getCache().setEnabled(false);
+    when(mongoOperations.findAndModify(
+            any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Game.class)))
+        .thenReturn(Mono.empty());
+    when(gameRepository.existsById(GAME_ID)).thenReturn(Mono.just(true));
+
+    StepVerifier.create(gameService.sowAndUpdate(getAGame(), 1, new TwoPlayerSowingService()))
+        .expectError(GameUpdateConflictException.class)
+        .verify();
+  }
+
+  @Test
+  public void shouldRejectStaleRevision() {
+    var game = getAGame();
+    when(mongoOperations.findAndReplace(any(Query.class), eq(game))).thenReturn(Mono.empty());
+    when(gameRepository.existsById(GAME_ID)).thenReturn(Mono.just(true));
+
+    StepVerifier.create(gameService.updateGame(game))
+        .expectError(GameUpdateConflictException.class)
+        .verify();
+    assertEquals(3L, game.getRevision());
+  }
+
+  private Game getAGame() {
+    Game game = new Game(6);
+    game.setGameId(GAME_ID);
+    game.setRevision(3L);
+    return game;
+  }
+}
@@ -0,0 +1,57 @@
+package com.ashok.kalaha.service;
+
+import static org.mockito.Mockito.mock;
+
+import com.ashok.kalaha.config.KalahaProperties;
+import com.ashok.kalaha.dto.GameDelta;
+import com.ashok.kalaha.model.GameStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.test.StepVerifier;
+
+public class ReactiveSseGameEventServiceTest {
+  private static final String GAME_ID = "defaultGameId";
+
+  private final ReactiveSseGameEventService gameEventService =
+      new ReactiveSseGameEventService(
+          mock(ReactiveStringRedisTemplate.class), new ObjectMapper(), new KalahaProperties());
+
+  @Test
+  public void shouldDropDeltasOlderThanTheLastOneEmitted() {
+    StepVerifier.create(gameEventService.subscribe(GAME_ID).map(ServerSentEvent::id))
+        .then(
+            () -> {
+              gameEventService.publish(aDelta(2L, GameStatus.IN_PROGRESS));
+              gameEventService.publish(aDelta(1L, GameStatus.IN_PROGRESS));
+              gameEventService.publish(aDelta(2L, GameStatus.IN_PROGRESS));
+              gameEventService.publish(aDelta(3L, GameStatus.COMPLETED));
+            })
+        .expectNext("2", "3")
+        .verifyComplete();
+  }
+
+  @Test
+  public void shouldEmitCorrectionOlderThanTheLastDeltaEmitted() {
+    StepVerifier.create(gameEventService.subscribe(GAME_ID).map(ServerSentEvent::id))
+        .then(
+            () -> {
+              gameEventService.publish(aDelta(3L, GameStatus.IN_PROGRESS));
+              gameEventService.publish(aDelta(2L, GameStatus.IN_PROGRESS, true));
+              gameEventService.publish(aDelta(3L, GameStatus.COMPLETED));
+            })
+        .expectNext("3", "2", "3")
+        .verifyComplete();
+  }
+
+  private GameDelta aDelta(long revision, GameStatus gameStatus) {
+    return aDelta(revision, gameStatus, false);
+  }
+
+  private GameDelta aDelta(long revision, GameStatus gameStatus, boolean isCorrection) {
+    return new GameDelta(
+        GAME_ID, revision, 1, Map.of(), new int[14], null, gameStatus, null, isCorrection);
+  }
+}
@@ -61,6 +61,14 @@ public class SowServiceTest {
         GameCompletedException.class, () -> twoPlayerSowingService.sow(game, firstPitPlayerOne));
   }
 
+  @Test
+  public void shouldRespondWithGameCompletedExceptionForAbandonedGame() {
+    var game = getAGame();
+    game.setGameStatus(GameStatus.ABANDONED);
+    assertThrows(
+        GameCompletedException.class, () -> twoPlayerSowingService.sow(game, firstPitPlayerOne));
+  }
+
   @Test
   public void shouldStartGameIfNotStarted() {
     var game = getAGame();
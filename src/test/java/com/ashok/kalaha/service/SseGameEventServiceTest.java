@@ -0,0 +1,117 @@
+package com.ashok.kalaha.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import com.ashok.kalaha.config.KalahaProperties;
+import com.ashok.kalaha.dto.GameDelta;
+import com.ashok.kalaha.model.GameStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public class SseGameEventServiceTest {
+  private static final String GAME_ID = "defaultGameId";
+  private static final Pattern EVENT_ID = Pattern.compile("id:(\\d+)");
+
+  private final Queue<SseEmitter> emitters = new ArrayDeque<>();
+  private final CountDownLatch stalledClient = new CountDownLatch(1);
+  private final SseGameEventService gameEventService =
+      new SseGameEventService(
+          mock(StringRedisTemplate.class), new ObjectMapper(), new KalahaProperties()) {
+        @Override
+        SseEmitter newEmitter(long timeout) {
+          return emitters.remove();
+        }
+      };
+
+  @AfterEach
+  public void tearDown() {
+    stalledClient.countDown();
+    gameEventService.shutdown();
+  }
+
+  @Test
+  public void shouldSendToOtherSubscribersWhileOneIsStalled() throws InterruptedException {
+    var receivedEvents = new CountDownLatch(2);
+    var receivedEventIds = new CopyOnWriteArrayList<String>();
+    emitters.add(new StalledEmitter());
+    emitters.add(
+        new SseEmitter() {
+          @Override
+          public void send(SseEventBuilder builder) {
+            receivedEventIds.add(eventId(builder));
+            receivedEvents.countDown();
+          }
+        });
+    gameEventService.subscribe(GAME_ID);
+    gameEventService.subscribe(GAME_ID);
+
+    assertTimeoutPreemptively(
+        Duration.ofSeconds(1),
+        () -> {
+          gameEventService.publish(aDelta(1L));
+          gameEventService.publish(aDelta(2L));
+        });
+
+    assertTrue(receivedEvents.await(1, TimeUnit.SECONDS));
+    assertEquals(List.of("1", "2"), receivedEventIds);
+    assertEquals(2, gameEventService.getSubscriberCount());
+  }
+
+  @Test
+  public void shouldDropSubscriberFallingTooFarBehind() {
+    long revisions = SseGameEventService.MAX_PENDING_EVENTS + 2;
+    emitters.add(new StalledEmitter());
+    gameEventService.subscribe(GAME_ID);
+
+    assertTimeoutPreemptively(
+        Duration.ofSeconds(1),
+        () -> {
+          for (long revision = 1; revision <= revisions; revision++)
+            gameEventService.publish(aDelta(revision));
+        });
+
+    assertEquals(0, gameEventService.getSubscriberCount());
+  }
+
+  private GameDelta aDelta(long revision) {
+    return new GameDelta(
+        GAME_ID, revision, 1, Map.of(), new int[14], null, GameStatus.IN_PROGRESS, null, false);
+  }
+
+  private static String eventId(SseEmitter.SseEventBuilder builder) {
+    String event =
+        builder.build().stream()
+            .map(data -> data.getData().toString())
+            .collect(Collectors.joining());
+    Matcher matcher = EVENT_ID.matcher(event);
+    return matcher.find() ? matcher.group(1) : null;
+  }
+
+  private final class StalledEmitter extends SseEmitter {
+    @Override
+    public void send(SseEventBuilder builder) throws IOException {
+      try {
+        stalledClient.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException(e);
+      }
+    }
+  }
+}
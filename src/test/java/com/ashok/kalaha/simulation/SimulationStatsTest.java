@@ -0,0 +1,59 @@
+package com.ashok.kalaha.simulation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+public class SimulationStatsTest {
+
+  @Test
+  public void shouldTakePercentilesFromGameLengths() {
+    var stats = new SimulationStats(6);
+    for (int plies = 100; plies >= 1; plies--) stats.record(plies, 0);
+
+    assertEquals(50, stats.percentile(0.50));
+    assertEquals(90, stats.percentile(0.90));
+    assertEquals(99, stats.percentile(0.99));
+    assertEquals(100, stats.percentile(1.0));
+  }
+
+  @Test
+  public void shouldCountLongestGamesInLastLength() {
+    var stats = new SimulationStats(6);
+    stats.record(10, 1);
+    stats.record(5000, 1);
+
+    assertEquals(10, stats.percentile(0.50));
+    assertEquals(1024, stats.percentile(0.99));
+    assertTrue(print(stats).endsWith(",5000"));
+  }
+
+  @Test
+  public void shouldMergeStatsOfThreads() {
+    var stats = new SimulationStats(4);
+    stats.record(20, 3);
+    stats.record(40, -1);
+    var otherStats = new SimulationStats(4);
+    otherStats.record(30, 0);
+    otherStats.record(50, 2);
+
+    stats.merge(otherStats);
+
+    assertEquals(4, stats.games());
+    assertEquals(30, stats.percentile(0.50));
+    assertEquals(
+        "4,random,greedy,4,2,1,1,0.500000,0.250000,0.250000,1.0000,35.0000,30,50,50,50",
+        print(stats));
+  }
+
+  private static String print(SimulationStats stats) {
+    var output = new ByteArrayOutputStream();
+    try (var out = new PrintStream(output, true, StandardCharsets.UTF_8)) {
+      stats.print(out, "random", "greedy");
+    }
+    return output.toString(StandardCharsets.UTF_8).trim();
+  }
+}
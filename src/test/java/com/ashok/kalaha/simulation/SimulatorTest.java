@@ -0,0 +1,51 @@
+package com.ashok.kalaha.simulation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SimulatorTest {
+  @TempDir Path directory;
+
+  @Test
+  public void shouldPlaySameGamesWithSameSeedAndThreads() throws Exception {
+    List<String> firstRun = simulate("first.csv", "--seed=7");
+    List<String> secondRun = simulate("second.csv", "--seed=7");
+
+    assertEquals(firstRun, secondRun);
+    assertEquals(3, firstRun.size());
+    for (String line : firstRun.subList(1, firstRun.size())) {
+      String[] columns = line.split(",");
+      assertEquals("greedy", columns[1]);
+      assertEquals(1001, Long.parseLong(columns[3]));
+      assertEquals(
+          1001,
+          Long.parseLong(columns[4]) + Long.parseLong(columns[5]) + Long.parseLong(columns[6]));
+    }
+  }
+
+  @Test
+  public void shouldWinMostGamesWithGreedyPolicyAgainstRandomPolicy() throws Exception {
+    String[] columns = simulate("greedy.csv", "--seed=11").get(1).split(",");
+
+    assertTrue(Double.parseDouble(columns[7]) > 0.8);
+  }
+
+  private List<String> simulate(String output, String seed) throws Exception {
+    Path path = directory.resolve(output);
+    new Simulator(
+            SimulationOptions.parse(
+                "--games=1001",
+                "--stones=4,6",
+                "--player-one=greedy",
+                "--threads=3",
+                seed,
+                "--output=" + path))
+        .run();
+    return Files.readAllLines(path);
+  }
+}
@@ -0,0 +1,66 @@
+package com.ashok.kalaha.tracing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.ashok.kalaha.config.KalahaProperties;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class SlowMoveLogTest {
+  private final ObservationRegistry registry = ObservationRegistry.create();
+  private final KalahaProperties kalahaProperties = new KalahaProperties();
+  private final List<String> slowMoves = new ArrayList<>();
+
+  @Test
+  public void shouldLogStagesOfSlowMove() {
+    kalahaProperties.getTracing().setSlowThreshold(Duration.ZERO);
+    registry
+        .observationConfig()
+        .observationHandler(new SlowMoveLog(kalahaProperties, slowMoves::add));
+
+    playTracedMove();
+
+    assertEquals(1, slowMoves.size());
+    String slowMove = slowMoves.get(0);
+    assertTrue(slowMove.startsWith("slow move of gameId: gameId took "), slowMove);
+    assertTrue(slowMove.contains("status 200 [loadGame "), slowMove);
+    assertTrue(slowMove.contains(", sowAndUpdate/sow "), slowMove);
+    assertTrue(slowMove.contains(", sowAndUpdate "), slowMove);
+    assertTrue(slowMove.contains(", other "), slowMove);
+  }
+
+  @Test
+  public void shouldNotLogMoveFasterThanThreshold() {
+    kalahaProperties.getTracing().setSlowThreshold(Duration.ofMinutes(1));
+    registry
+        .observationConfig()
+        .observationHandler(new SlowMoveLog(kalahaProperties, slowMoves::add));
+
+    playTracedMove();
+
+    assertTrue(slowMoves.isEmpty());
+  }
+
+  private void playTracedMove() {
+    Observation move =
+        Observation.createNotStarted(MoveTracing.MOVE, registry)
+            .highCardinalityKeyValue("gameId", "gameId")
+            .start();
+    try (Observation.Scope scope = move.openScope()) {
+      stage("loadGame", () -> {});
+      stage("sowAndUpdate", () -> stage("sow", () -> {}));
+    }
+    move.lowCardinalityKeyValue("status", "200");
+    move.stop();
+  }
+
+  private void stage(String name, Runnable runnable) {
+    Observation.createNotStarted(MoveTracing.STAGE, registry)
+        .lowCardinalityKeyValue("stage", name)
+        .observe(runnable);
+  }
+}
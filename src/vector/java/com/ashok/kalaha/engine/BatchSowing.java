@@ -0,0 +1,22 @@
+package com.ashok.kalaha.engine;
+
+/**
+ * Sows the move of every board of a {@link BoardBatch} by the player to move, with the rules of
+ * {@link KalahaBoard#sow}, and stores its flags as the result of the board. The player to move is
+ * left as it is.
+ */
+public interface BatchSowing {
+  void sow(BoardBatch batch);
+
+  /**
+   * Returns {@link VectorBatchSowing} when the {@code jdk.incubator.vector} module is loaded, the
+   * JVM is started with {@code --add-modules jdk.incubator.vector}, and the cpu sows at least 8
+   * boards per vector, and {@link ScalarBatchSowing} otherwise.
+   */
+  static BatchSowing create() {
+    return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+            && VectorBatchSowing.isProfitable()
+        ? new VectorBatchSowing()
+        : new ScalarBatchSowing();
+  }
+}
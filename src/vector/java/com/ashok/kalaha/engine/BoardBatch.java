@@ -0,0 +1,87 @@
+package com.ashok.kalaha.engine;
+
+import static com.ashok.kalaha.engine.KalahaBoard.*;
+
+/**
+ * Many {@link KalahaBoard} positions laid out as structure of arrays: {@code pits[pit][index]}
+ * holds the stones of {@code pit} on board {@code index}, so one pit of consecutive boards is
+ * contiguous and can be loaded as one vector. Every board carries the player to move and the pit
+ * to sow from next, and the {@link KalahaBoard#sow} flags of its last move once a {@link
+ * BatchSowing} sowed it.
+ */
+public final class BoardBatch {
+  /** Boards hold fewer stones than this, so sowing can divide by multiplying. */
+  public static final int MAX_STONES = 1 << 16;
+
+  final int[][] pits;
+  final int[] players;
+  final int[] moves;
+  final int[] results;
+  private int size;
+
+  public BoardBatch(int capacity) {
+    this.pits = new int[TOTAL_PITS][capacity];
+    this.players = new int[capacity];
+    this.moves = new int[capacity];
+    this.results = new int[capacity];
+  }
+
+  public int capacity() {
+    return players.length;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /** Only the first {@code size} boards are sown. */
+  public void setSize(int size) {
+    if (size < 0 || size > capacity())
+      throw new IllegalArgumentException("size must be between 0 and " + capacity());
+    this.size = size;
+  }
+
+  public void setBoard(int index, int[] board, int player) {
+    int stones = 0;
+    for (int pit = 0; pit < TOTAL_PITS; pit++) stones += board[pit];
+    if (stones >= MAX_STONES)
+      throw new IllegalArgumentException("a board holds fewer than " + MAX_STONES + " stones");
+
+    for (int pit = 0; pit < TOTAL_PITS; pit++) pits[pit][index] = board[pit];
+    players[index] = player;
+  }
+
+  /** Sets the pit {@code index} sows from next, the move is assumed to be legal. */
+  public void setMove(int index, int pit) {
+    moves[index] = pit;
+  }
+
+  public void copyBoard(int index, int[] board) {
+    for (int pit = 0; pit < TOTAL_PITS; pit++) board[pit] = pits[pit][index];
+  }
+
+  public int stones(int index, int pit) {
+    return pits[pit][index];
+  }
+
+  public int player(int index) {
+    return players[index];
+  }
+
+  public int move(int index) {
+    return moves[index];
+  }
+
+  public int result(int index) {
+    return results[index];
+  }
+
+  /** Copies the boards, players and moves of {@code other}, which must be as large. */
+  public void copyFrom(BoardBatch other) {
+    for (int pit = 0; pit < TOTAL_PITS; pit++)
+      System.arraycopy(other.pits[pit], 0, pits[pit], 0, other.size);
+    System.arraycopy(other.players, 0, players, 0, other.size);
+    System.arraycopy(other.moves, 0, moves, 0, other.size);
+    size = other.size;
+  }
+}
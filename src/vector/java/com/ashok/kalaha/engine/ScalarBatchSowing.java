@@ -0,0 +1,54 @@
+package com.ashok.kalaha.engine;
+
+import static com.ashok.kalaha.engine.KalahaBoard.*;
+
+/** Sows one board after the other, stone by stone like {@link KalahaBoard#sow}. */
+public final class ScalarBatchSowing implements BatchSowing {
+
+  @Override
+  public void sow(BoardBatch batch) {
+    sow(batch, 0, batch.size());
+  }
+
+  static void sow(BoardBatch batch, int from, int to) {
+    int[][] pits = batch.pits;
+    for (int index = from; index < to; index++) {
+      int player = batch.players[index];
+      int pit = batch.moves[index];
+      int currentPit = pit;
+      for (int i = 1; i <= pits[pit][index] - 1; i++) {
+        currentPit = nextPit(player, currentPit);
+        pits[currentPit][index]++;
+      }
+      pits[pit][index] = 0;
+
+      int lastPit = nextPit(player, currentPit);
+      int oppositePit = oppositePit(lastPit);
+      int result;
+      if (isStore(lastPit)) {
+        pits[lastPit][index]++;
+        result = EXTRA_TURN;
+      } else if (pits[lastPit][index] == 0
+          && ownerOf(lastPit) == player
+          && pits[oppositePit][index] != 0) {
+        pits[store(player)][index] += pits[oppositePit][index] + 1;
+        pits[oppositePit][index] = 0;
+        result = CAPTURE;
+      } else {
+        pits[lastPit][index]++;
+        result = 0;
+      }
+
+      boolean isGameOver =
+          isSideEmpty(pits, index, PLAYER_ONE) || isSideEmpty(pits, index, PLAYER_TWO);
+      batch.results[index] = isGameOver ? result | GAME_OVER : result;
+    }
+  }
+
+  private static boolean isSideEmpty(int[][] pits, int index, int player) {
+    int first = firstPit(player);
+    for (int pit = first; pit < first + PITS_PER_SIDE; pit++)
+      if (pits[pit][index] != 0) return false;
+    return true;
+  }
+}
@@ -0,0 +1,153 @@
+package com.ashok.kalaha.engine;
+
+import static com.ashok.kalaha.engine.KalahaBoard.*;
+import static jdk.incubator.vector.VectorOperators.*;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Sows as many boards at once as a vector register has int lanes, with the {@code
+ * jdk.incubator.vector} api. The stones of a move are not sown one by one, because each board sows
+ * a different number of them: a player passes 13 pits, and stones passing the emptied pit extend
+ * the sowing, so sowing {@code n} stones puts {@code (n - 1) / 12} stones into each of the other 12
+ * pits, one more into the first {@code (n - 1) % 12} of them, and the last stone into the pit after
+ * those. Every pit is then updated for all lanes with the same instructions, and the last stone,
+ * captures and the end of the game are applied under masks. Boards left over after the last full
+ * vector are sown by {@link ScalarBatchSowing}.
+ *
+ * <p>The steps are small methods handing over through the arrays of the batch instead of vectors,
+ * and no vector is carried from one loop iteration to the next. A larger kernel is not fully
+ * inlined by C2, and then its vectors are allocated as objects, which is slower than sowing stone
+ * by stone.
+ *
+ * <p>Loading this class needs the {@code jdk.incubator.vector} module, use {@link
+ * BatchSowing#create()} to fall back to {@link ScalarBatchSowing} without it.
+ */
+public final class VectorBatchSowing implements BatchSowing {
+  private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+  private static final int PITS_PASSED = TOTAL_PITS - 1;
+  private static final int PITS_SOWN = PITS_PASSED - 1;
+  // n / 12 == (n * 43691) >>> 19 for every n below BoardBatch.MAX_STONES
+  private static final int DIVIDE_BY_PITS_SOWN = 43691;
+  private static final int DIVIDE_BY_PITS_SOWN_SHIFT = 19;
+  private static final int FIRST_PIT_TWO = PLAYER_ONE_STORE + 1;
+  private static final int CAPTURED = -1;
+
+  /** Below 8 lanes the masked updates of every pit cost more than sowing stone by stone. */
+  static boolean isProfitable() {
+    return SPECIES.length() >= 8;
+  }
+
+  @Override
+  public void sow(BoardBatch batch) {
+    int bound = SPECIES.loopBound(batch.size());
+    for (int index = 0; index < bound; index += SPECIES.length()) {
+      sowAllStonesExceptLastOne(batch, index);
+      sowLastStone(batch, index);
+      setResults(batch, index);
+    }
+    ScalarBatchSowing.sow(batch, bound, batch.size());
+  }
+
+  /**
+   * Empties the pits of the moves, sows all but their last stones and leaves the pits the last
+   * stones land in as results.
+   */
+  private static void sowAllStonesExceptLastOne(BoardBatch batch, int index) {
+    int[][] pits = batch.pits;
+    int[] results = batch.results;
+    for (int lane = index; lane < index + SPECIES.length(); lane++)
+      results[lane] = pits[batch.moves[lane]][lane];
+    IntVector sown = IntVector.fromArray(SPECIES, results, index).sub(1);
+    IntVector rounds = sown.mul(DIVIDE_BY_PITS_SOWN).lanewise(LSHR, DIVIDE_BY_PITS_SOWN_SHIFT);
+    IntVector rest = sown.sub(rounds.mul(PITS_SOWN));
+
+    IntVector firstPits = IntVector.fromArray(SPECIES, batch.players, index).mul(FIRST_PIT_TWO);
+    IntVector moves = IntVector.fromArray(SPECIES, batch.moves, index);
+    IntVector movePositions = moves.sub(firstPits);
+    for (int pit = 0; pit < TOTAL_PITS; pit++) {
+      IntVector positions = firstPits.neg().add(pit);
+      positions = positions.blend(positions.add(TOTAL_PITS), positions.compare(LT, 0));
+      IntVector distances = positions.sub(movePositions);
+      distances = distances.blend(distances.add(PITS_PASSED), distances.compare(LE, 0));
+
+      IntVector row = IntVector.fromArray(SPECIES, pits[pit], index);
+      row = row.add(rounds.add(1, distances.compare(LE, rest)), positions.compare(NE, PITS_PASSED));
+      row.blend(0, moves.eq(pit)).intoArray(pits[pit], index);
+    }
+
+    // after full rounds the last stone lands in the emptied pit, PITS_PASSED pits away
+    IntVector lastDistances = rest.add(1).blend(PITS_PASSED, rest.eq(0).and(sown.compare(GT, 0)));
+    IntVector lastPositions = movePositions.add(lastDistances);
+    lastPositions =
+        lastPositions.blend(
+            lastPositions.sub(PITS_PASSED), lastPositions.compare(GE, PITS_PASSED));
+    IntVector lastPits = lastPositions.add(firstPits);
+    lastPits
+        .blend(lastPits.sub(TOTAL_PITS), lastPits.compare(GE, TOTAL_PITS))
+        .intoArray(results, index);
+  }
+
+  /** Sows the last stones into the pits left as results, and marks the results of captures. */
+  private static void sowLastStone(BoardBatch batch, int index) {
+    int[][] pits = batch.pits;
+    IntVector players = IntVector.fromArray(SPECIES, batch.players, index);
+    IntVector lastPits = IntVector.fromArray(SPECIES, batch.results, index);
+    for (int pit = 0; pit < TOTAL_PITS; pit++) {
+      VectorMask<Integer> isLast = lastPits.eq(pit);
+      if (!isLast.anyTrue()) continue;
+
+      IntVector row = IntVector.fromArray(SPECIES, pits[pit], index);
+      if (isStore(pit)) {
+        row.add(1, isLast).intoArray(pits[pit], index);
+        continue;
+      }
+
+      int oppositePit = oppositePit(pit);
+      IntVector oppositeRow = IntVector.fromArray(SPECIES, pits[oppositePit], index);
+      VectorMask<Integer> isCapture =
+          isLast
+              .and(row.eq(0))
+              .and(players.eq(ownerOf(pit)))
+              .and(oppositeRow.compare(NE, 0));
+      row.add(1, isLast.andNot(isCapture)).intoArray(pits[pit], index);
+      if (!isCapture.anyTrue()) continue;
+
+      IntVector captured = oppositeRow.add(1);
+      oppositeRow.blend(0, isCapture).intoArray(pits[oppositePit], index);
+      IntVector.fromArray(SPECIES, pits[PLAYER_ONE_STORE], index)
+          .add(captured, isCapture.and(players.eq(PLAYER_ONE)))
+          .intoArray(pits[PLAYER_ONE_STORE], index);
+      IntVector.fromArray(SPECIES, pits[PLAYER_TWO_STORE], index)
+          .add(captured, isCapture.and(players.eq(PLAYER_TWO)))
+          .intoArray(pits[PLAYER_TWO_STORE], index);
+      IntVector.broadcast(SPECIES, CAPTURED).intoArray(batch.results, index, isCapture);
+    }
+  }
+
+  /** Replaces the last pits and capture marks left as results by {@link KalahaBoard#sow} flags. */
+  private static void setResults(BoardBatch batch, int index) {
+    int[][] pits = batch.pits;
+    IntVector lastPits = IntVector.fromArray(SPECIES, batch.results, index);
+    VectorMask<Integer> isGameOver =
+        side(pits, index, PLAYER_ONE).eq(0).or(side(pits, index, PLAYER_TWO).eq(0));
+    IntVector.zero(SPECIES)
+        .blend(EXTRA_TURN, lastPits.eq(PLAYER_ONE_STORE).or(lastPits.eq(PLAYER_TWO_STORE)))
+        .blend(CAPTURE, lastPits.eq(CAPTURED))
+        .lanewise(OR, GAME_OVER, isGameOver)
+        .intoArray(batch.results, index);
+  }
+
+  /** Ors the small pits of {@code player}, spelled out so no vector is carried by a loop. */
+  private static IntVector side(int[][] pits, int index, int player) {
+    int first = firstPit(player);
+    return IntVector.fromArray(SPECIES, pits[first], index)
+        .or(IntVector.fromArray(SPECIES, pits[first + 1], index))
+        .or(IntVector.fromArray(SPECIES, pits[first + 2], index))
+        .or(IntVector.fromArray(SPECIES, pits[first + 3], index))
+        .or(IntVector.fromArray(SPECIES, pits[first + 4], index))
+        .or(IntVector.fromArray(SPECIES, pits[first + 5], index));
+  }
+}